@@ -0,0 +1,140 @@
+package esi.ma.taawoniyate.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import esi.ma.taawoniyate.dto.ProductDetailsResponse;
+import esi.ma.taawoniyate.model.Category;
+import esi.ma.taawoniyate.model.Client;
+import esi.ma.taawoniyate.model.Panier;
+import esi.ma.taawoniyate.model.PanierItem;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.model.ProductImage;
+import esi.ma.taawoniyate.model.Seller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON bodies of the busiest responses, written with an ObjectMapper configured like Spring Boot's:
+ *   orders         - /api/panier/client-orders, a list of orders of "items" lines each
+ *   products       - /api/users/seller/products-jwt, a seller's product list
+ *   productDetails - /api/products/{id}
+ * The getters that build maps and format dates on every call (Panier.getItems, getDate) are part of the cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Panier> orders;
+    private List<Product> products;
+    private ProductDetailsResponse productDetails;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Seller seller = new Seller();
+        seller.setId(7L);
+        seller.setFullName("Fatima Zahra");
+        seller.setBusinessName("Coopérative Argan Souss");
+        seller.setCity("Agadir");
+        seller.setRegion("Souss-Massa");
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Cosmétiques");
+        Client client = new Client();
+        client.setId(12L);
+        client.setFullName("Youssef Amrani");
+
+        products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(product(i, seller, category));
+        }
+        productDetails = new ProductDetailsResponse(products.get(0));
+
+        orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Panier panier = new Panier();
+            panier.setPanier_id(i);
+            panier.setClient(client);
+            Set<PanierItem> items = new HashSet<>();
+            for (int j = 0; j < 3; j++) {
+                PanierItem item = new PanierItem();
+                item.setId(i * 3L + j);
+                item.setProduct(products.get((i + j) % size));
+                item.setSeller(seller);
+                item.setClient(client);
+                item.setQuantity(j + 1);
+                item.setPrice(BigDecimal.valueOf(120 + j * 15.5));
+                item.setPanier(panier);
+                items.add(item);
+            }
+            panier.setItems(items);
+            orders.add(panier);
+        }
+    }
+
+    @Benchmark
+    public byte[] orders() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] products() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] productDetails() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productDetails);
+    }
+
+    private static Product product(int i, Seller seller, Category category) {
+        Product product = new Product();
+        product.setId(i);
+        product.setName("Huile d'argan bio " + i);
+        product.setDescription("Huile d'argan pressée à froid, flacon en verre de 250 ml, production de la coopérative.");
+        product.setPrice(180 + i);
+        product.setQuantity(40);
+        product.setCategory(category);
+        product.setSeller(seller);
+        List<ProductImage> images = new ArrayList<>();
+        for (int j = 0; j < 3; j++) {
+            ProductImage image = new ProductImage();
+            image.setId(i * 3L + j);
+            String base = "https://images.invalid/products/" + i + "/" + j;
+            image.setImageUrl(base + ".jpg");
+            image.setThumbnailUrl(base + "-thumb.jpg");
+            image.setDetailUrl(base + "-detail.jpg");
+            image.setZoomUrl(base + "-zoom.jpg");
+            image.setProduct(product);
+            images.add(image);
+        }
+        product.setImages(images);
+        return product;
+    }
+}
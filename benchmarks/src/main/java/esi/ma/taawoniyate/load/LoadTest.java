@@ -0,0 +1,311 @@
+package esi.ma.taawoniyate.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import esi.ma.taawoniyate.perf.PerfCatalog;
+import esi.ma.taawoniyate.perf.ZipfDistribution;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP load test against a running application, normally started with the perf profile so the
+ * database holds the PerfDataGenerator seed.
+ *
+ * Virtual users (one virtual thread each) pick scenarios by weight. Without a rate they run closed
+ * loop, each firing its next request as soon as the previous one answers. With rate=N the total
+ * load is N requests/s on a fixed schedule and latency is measured from the scheduled start, so
+ * a stalled server shows up in the percentiles instead of just lowering the request count
+ * (coordinated omission). Latencies go to one HdrHistogram per scenario; only the requests
+ * scheduled after the warmup are reported.
+ *
+ * Arguments are key=value (defaults in brackets):
+ *   base-url [http://localhost:8080]  users [64]  duration [60] and warmup [15] in seconds  rate [0 = closed loop]
+ *   mix [browse:30,search:25,detail:30,save-cart:10,seller-orders:5]
+ *   clients [200] and sellers [50]: seeded accounts logged in and shared by the virtual users
+ *   products [2000000] and skew [1.1]: must match app.perf.seed.products and app.perf.seed.skew
+ *   hgrm-dir: writes each scenario's full percentile distribution there (.hgrm, for HdrHistogram's plotter)
+ * When the application sends Server-Timing headers, their mean per phase is reported per scenario too.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final List<String> SERVER_TIMING_PHASES = List.of("auth", "db", "external", "serialize", "total");
+
+    private final Map<String, String> options;
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.baseUrl = option("base-url", "http://localhost:8080").replaceAll("/+$", "");
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(arg.substring(0, eq).replaceFirst("^-+", ""), arg.substring(eq + 1));
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        int users = Integer.parseInt(option("users", "64"));
+        long durationSeconds = Long.parseLong(option("duration", "60"));
+        long warmupSeconds = Long.parseLong(option("warmup", "15"));
+        double rate = Double.parseDouble(option("rate", "0"));
+        Map<Scenario, Integer> mix = parseMix(option("mix", "browse:30,search:25,detail:30,save-cart:10,seller-orders:5"));
+        int products = Integer.parseInt(option("products", "2000000"));
+        ZipfDistribution productPopularity = new ZipfDistribution(products, Double.parseDouble(option("skew", "1.1")));
+
+        long firstProductId = Math.max(1, newestProductId() - products + 1);
+        List<String> clientTokens = mix.containsKey(Scenario.SAVE_CART)
+                ? login("client", Integer.parseInt(option("clients", "200"))) : List.of();
+        List<String> sellerTokens = mix.containsKey(Scenario.SELLER_ORDERS)
+                ? login("seller", Integer.parseInt(option("sellers", "50"))) : List.of();
+        mix.keySet().forEach(scenario -> stats.put(scenario, new ScenarioStats()));
+
+        Scenario[] picks = mix.keySet().toArray(new Scenario[0]);
+        int[] cumulativeWeights = new int[picks.length];
+        int totalWeight = 0;
+        for (int i = 0; i < picks.length; i++) {
+            totalWeight += mix.get(picks[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        System.out.printf("%d users, %s, %ds warmup + %ds against %s%n", users,
+                rate > 0 ? rate + " req/s" : "closed loop", warmupSeconds, durationSeconds, baseUrl);
+        long intervalNanos = rate > 0 ? (long) (users * 1e9 / rate) : 0;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                VirtualUser user = new VirtualUser(baseUrl, 31L * i + 7,
+                        clientTokens.isEmpty() ? null : clientTokens.get(i % clientTokens.size()),
+                        sellerTokens.isEmpty() ? null : sellerTokens.get(i % sellerTokens.size()),
+                        productPopularity, firstProductId);
+                // Spread the users' schedules over one interval so a fixed rate does not arrive in bursts
+                long firstSlot = start + (users > 0 ? intervalNanos * i / users : 0);
+                int totalWeightFinal = totalWeight;
+                running.add(executor.submit(() ->
+                        loop(user, picks, cumulativeWeights, totalWeightFinal, intervalNanos, firstSlot, measureFrom, end)));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        }
+        report(durationSeconds);
+    }
+
+    private void loop(VirtualUser user, Scenario[] picks, int[] cumulativeWeights, int totalWeight,
+                      long intervalNanos, long firstSlot, long measureFrom, long end) {
+        long slot = firstSlot;
+        while (true) {
+            long now = System.nanoTime();
+            long scheduled = intervalNanos > 0 ? slot : now;
+            if (scheduled >= end) {
+                return;
+            }
+            if (scheduled > now) {
+                LockSupport.parkNanos(scheduled - now);
+            }
+            int draw = user.random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= draw) {
+                index++;
+            }
+            Scenario scenario = picks[index];
+
+            boolean ok;
+            String serverTiming = null;
+            try {
+                HttpResponse<byte[]> response = httpClient.send(scenario.request(user), HttpResponse.BodyHandlers.ofByteArray());
+                ok = response.statusCode() / 100 == 2;
+                serverTiming = response.headers().firstValue("Server-Timing").orElse(null);
+                scenario.completed(user, response);
+            } catch (IOException | RuntimeException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (scheduled >= measureFrom) {
+                ScenarioStats scenarioStats = stats.get(scenario);
+                scenarioStats.record(System.nanoTime() - scheduled, ok);
+                if (serverTiming != null) {
+                    scenarioStats.recordServerTiming(serverTiming);
+                }
+            }
+            slot += intervalNanos;
+        }
+    }
+
+    private void report(long durationSeconds) throws IOException {
+        String hgrmDir = options.get("hgrm-dir");
+        System.out.printf("%n%-14s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "scenario", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long totalRequests = 0;
+        for (Map.Entry<Scenario, ScenarioStats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().latencies;
+            long requests = histogram.getTotalCount();
+            totalRequests += requests;
+            System.out.printf("%-14s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().label, requests, entry.getValue().errors.sum(), requests / (double) durationSeconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+            if (hgrmDir != null) {
+                Path file = Path.of(hgrmDir).resolve(entry.getKey().label + ".hgrm");
+                Files.createDirectories(file.getParent());
+                try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                    histogram.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+        System.out.printf("%-14s %9d %7s %9.1f%n", "total", totalRequests, "", totalRequests / (double) durationSeconds);
+
+        // Server side breakdown, when the application runs with app.server-timing.enabled=true
+        if (stats.values().stream().anyMatch(scenarioStats -> scenarioStats.timedResponses.sum() > 0)) {
+            System.out.printf("%nServer-Timing, mean ms per response%n%-14s", "scenario");
+            SERVER_TIMING_PHASES.forEach(phase -> System.out.printf(" %9s", phase));
+            System.out.println();
+            for (Map.Entry<Scenario, ScenarioStats> entry : stats.entrySet()) {
+                long timed = entry.getValue().timedResponses.sum();
+                System.out.printf("%-14s", entry.getKey().label);
+                for (String phase : SERVER_TIMING_PHASES) {
+                    DoubleAdder sum = entry.getValue().serverTiming.get(phase);
+                    System.out.printf(" %9.2f", timed > 0 && sum != null ? sum.sum() / timed : 0.0);
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    // Highest product id, from the first page of the newest products
+    private long newestProductId() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/store/products/page?sort=newest&size=1")).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        JsonNode items = objectMapper.readTree(response.body()).path("items");
+        if (response.statusCode() != 200 || items.isEmpty()) {
+            throw new IllegalStateException("No products at " + baseUrl + ": start the application with the perf profile");
+        }
+        return items.get(0).path("id").asLong();
+    }
+
+    // Logs in seeded accounts 1..count; the login endpoint answers 429 when its hashing pool is full
+    private List<String> login(String kind, int count) throws IOException, InterruptedException {
+        List<String> tokens = new ArrayList<>(count);
+        for (int n = 1; n <= count; n++) {
+            String email = kind.equals("seller") ? PerfCatalog.sellerEmail(n) : PerfCatalog.clientEmail(n);
+            String body = objectMapper.writeValueAsString(Map.of("email", email, "password", PerfCatalog.PASSWORD));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/authenticate"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            while (response.statusCode() == 429) {
+                Thread.sleep(1_000);
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            }
+            String token = objectMapper.readTree(response.body()).path("token").asText(null);
+            if (response.statusCode() != 200 || token == null) {
+                throw new IllegalStateException("Login failed for " + email + " (" + response.statusCode() + ")");
+            }
+            tokens.add(token);
+        }
+        System.out.printf("Logged in %d %ss%n", count, kind);
+        return tokens;
+    }
+
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            Scenario scenario = Scenario.fromLabel(parts[0]);
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : scenario.defaultWeight;
+            if (weight > 0) {
+                weights.put(scenario, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Empty scenario mix: " + mix);
+        }
+        return weights;
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class ScenarioStats {
+        // Microseconds, 3 significant digits, resized as needed
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder timedResponses = new LongAdder();
+        private final Map<String, DoubleAdder> serverTiming = new ConcurrentHashMap<>();
+
+        private void record(long nanos, boolean ok) {
+            latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+            if (!ok) {
+                errors.increment();
+            }
+        }
+
+        // "auth;dur=0.41, db;dur=12.30;desc=\"7 queries\", ..."
+        private void recordServerTiming(String header) {
+            timedResponses.increment();
+            for (String metric : header.split(",")) {
+                String[] parts = metric.trim().split(";");
+                for (int i = 1; i < parts.length; i++) {
+                    if (parts[i].startsWith("dur=")) {
+                        try {
+                            serverTiming.computeIfAbsent(parts[0], name -> new DoubleAdder())
+                                    .add(Double.parseDouble(parts[i].substring(4)));
+                        } catch (NumberFormatException e) {
+                            // Not ours; ignore
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
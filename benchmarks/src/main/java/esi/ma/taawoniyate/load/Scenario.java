@@ -0,0 +1,115 @@
+package esi.ma.taawoniyate.load;
+
+import esi.ma.taawoniyate.perf.PerfCatalog;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The user journeys of the Postman collection, mapped onto the endpoints the application serves.
+ * Each iteration of a scenario is one HTTP request; its weight is its share of the default mix.
+ */
+enum Scenario {
+
+    // Catalog pages, following the cursor like an infinite scroll and starting over now and then
+    BROWSE("browse", 30) {
+        private final String[] sorts = {"newest", "price_asc", "price_desc"};
+
+        @Override
+        HttpRequest request(VirtualUser user) {
+            String cursor = user.browseCursor;
+            if (cursor == null || user.random.nextInt(4) == 0) {
+                user.browseSort = sorts[user.random.nextInt(sorts.length)];
+                cursor = null;
+            }
+            String query = "/store/products/page?size=20&sort=" + user.browseSort
+                    + (cursor != null ? "&cursor=" + encode(cursor) : "");
+            return user.get(query).build();
+        }
+
+        @Override
+        void completed(VirtualUser user, HttpResponse<byte[]> response) {
+            user.browseCursor = response.statusCode() == 200 ? user.json(response).path("nextCursor").asText(null) : null;
+        }
+    },
+
+    // Search box, including the prefixes sent while typing
+    SEARCH("search", 25) {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            String keyword = PerfCatalog.SEARCH_TERMS.get(user.random.nextInt(PerfCatalog.SEARCH_TERMS.size()));
+            return user.get("/store/products/search?limit=20&keyword=" + encode(keyword)).build();
+        }
+    },
+
+    // Product page of a popular (Zipf-distributed) product
+    PRODUCT_DETAIL("detail", 30) {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            return user.get("/store/products/" + user.popularProduct()).build();
+        }
+    },
+
+    // Checkout of a 1 to 4 line cart by a logged-in client
+    SAVE_CART("save-cart", 10) {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            int lines = 1 + user.random.nextInt(4);
+            Set<Long> products = new HashSet<>();
+            while (products.size() < lines) {
+                products.add(user.popularProduct());
+            }
+            StringBuilder body = new StringBuilder("{\"items\":[");
+            for (long productId : products) {
+                if (body.charAt(body.length() - 1) != '[') {
+                    body.append(',');
+                }
+                body.append("{\"productId\":").append(productId)
+                        .append(",\"quantity\":").append(1 + user.random.nextInt(3)).append('}');
+            }
+            body.append("]}");
+            return user.post("/api/panier/save-cart", user.clientToken, body.toString()).build();
+        }
+    },
+
+    // A seller's incoming orders, first page
+    SELLER_ORDERS("seller-orders", 5) {
+        @Override
+        HttpRequest request(VirtualUser user) {
+            return user.get("/api/panier/seller-orders?size=20")
+                    .header("Authorization", "Bearer " + user.sellerToken)
+                    .build();
+        }
+    };
+
+    final String label;
+    final int defaultWeight;
+
+    Scenario(String label, int defaultWeight) {
+        this.label = label;
+        this.defaultWeight = defaultWeight;
+    }
+
+    abstract HttpRequest request(VirtualUser user);
+
+    // Called with every response, measured or not
+    void completed(VirtualUser user, HttpResponse<byte[]> response) {
+    }
+
+    static Scenario fromLabel(String label) {
+        for (Scenario scenario : values()) {
+            if (scenario.label.equalsIgnoreCase(label.trim())) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + label);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
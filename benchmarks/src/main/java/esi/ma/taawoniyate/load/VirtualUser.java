@@ -0,0 +1,65 @@
+package esi.ma.taawoniyate.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import esi.ma.taawoniyate.perf.ZipfDistribution;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+
+// One simulated user: its accounts, its random stream and what it is browsing
+final class VirtualUser {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    final Random random;
+    final String clientToken;
+    final String sellerToken;
+    String browseSort = "newest";
+    String browseCursor;
+
+    private final String baseUrl;
+    private final ZipfDistribution productPopularity;
+    private final long firstProductId;
+
+    VirtualUser(String baseUrl, long seed, String clientToken, String sellerToken,
+                ZipfDistribution productPopularity, long firstProductId) {
+        this.baseUrl = baseUrl;
+        this.random = new Random(seed);
+        this.clientToken = clientToken;
+        this.sellerToken = sellerToken;
+        this.productPopularity = productPopularity;
+        this.firstProductId = firstProductId;
+    }
+
+    // The seed inserts products by popularity rank, so rank r is the r-th id
+    long popularProduct() {
+        return firstProductId + productPopularity.sample(random);
+    }
+
+    HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).GET();
+    }
+
+    HttpRequest.Builder post(String path, String token, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    JsonNode json(HttpResponse<byte[]> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
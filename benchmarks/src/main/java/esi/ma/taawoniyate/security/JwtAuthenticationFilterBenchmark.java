@@ -0,0 +1,137 @@
+package esi.ma.taawoniyate.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cost of JwtAuthenticationFilter per authenticated request:
+ *   before        - the previous filter: five parses, a new parser and key for each
+ *   afterUncached - one parse with the prebuilt parser (first request with a token)
+ *   afterCached   - a token seen before, served from the principal cache
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private OncePerRequestFilter before;
+    private OncePerRequestFilter afterUncached;
+    private OncePerRequestFilter afterCached;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtUtil cached = JwtFixtures.jwtUtil(10_000);
+        before = new PreviousJwtAuthenticationFilter();
+        afterUncached = filter(JwtFixtures.jwtUtil(0));
+        afterCached = filter(cached);
+        authorization = "Bearer " + cached.generateToken("seller@coop.ma", "seller", 42L);
+    }
+
+    @Benchmark
+    public Authentication before() throws Exception {
+        return authenticate(before);
+    }
+
+    @Benchmark
+    public Authentication afterUncached() throws Exception {
+        return authenticate(afterUncached);
+    }
+
+    @Benchmark
+    public Authentication afterCached() throws Exception {
+        return authenticate(afterCached);
+    }
+
+    private Authentication authenticate(OncePerRequestFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", authorization);
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        if (authentication == null) {
+            throw new IllegalStateException("token was not accepted");
+        }
+        return authentication;
+    }
+
+    private static JwtAuthenticationFilter filter(JwtUtil jwtUtil) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        return filter;
+    }
+
+    // The filter as it was before single-parse verification, kept as the baseline
+    static class PreviousJwtAuthenticationFilter extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            String header = request.getHeader("Authorization");
+            String username = null;
+            String token = null;
+            if (header != null && header.startsWith("Bearer ")) {
+                token = header.substring(7);
+                try {
+                    username = claim(token, Claims::getSubject);
+                } catch (Exception e) {
+                    logger.warn("JWT Token has expired or is invalid");
+                }
+            }
+            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                    && claim(token, Claims::getSubject).equals(username)
+                    && !claim(token, Claims::getExpiration).before(new java.util.Date())) {
+                String role = claim(token, claims -> claims.get("role", String.class));
+                Long userId = claim(token, claims -> claims.get("userId", Long.class));
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        username, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())));
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                request.setAttribute("userId", userId);
+                request.setAttribute("userRole", role);
+                request.setAttribute("username", username);
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+            chain.doFilter(request, response);
+        }
+
+        private static <T> T claim(String token, Function<Claims, T> resolver) {
+            SecretKey key = Keys.hmacShaKeyFor(JwtFixtures.SECRET.getBytes());
+            return resolver.apply(Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package esi.ma.taawoniyate.security;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+// JwtUtil configured as in application.properties, without a Spring context
+final class JwtFixtures {
+
+    static final String SECRET = "myVerySecretKeyForJWTTokenGenerationThatShouldBeLongEnoughForSecurity";
+    static final long EXPIRATION = 86_400_000;
+
+    private JwtFixtures() {
+    }
+
+    static JwtUtil jwtUtil(long cacheMaximumSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", EXPIRATION);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaximumSize", cacheMaximumSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
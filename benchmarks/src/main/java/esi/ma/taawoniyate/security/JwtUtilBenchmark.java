@@ -0,0 +1,68 @@
+package esi.ma.taawoniyate.security;
+
+import esi.ma.taawoniyate.model.Seller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil on its own: signing a token at login, and reading one back
+ *   generate       - /api/users/authenticate, with the profile snapshot claims
+ *   verifyUncached - one parse and HMAC check (first request with a token)
+ *   verifyCached   - a token seen before
+ *   extractClaim   - the single-claim accessors, one full parse each
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private Seller seller;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = JwtFixtures.jwtUtil(10_000);
+        uncached = JwtFixtures.jwtUtil(0);
+        seller = new Seller();
+        seller.setId(42L);
+        seller.setEmail("seller@coop.ma");
+        seller.setFullName("Fatima Zahra");
+        seller.setBusinessName("Coopérative Argan Souss");
+        token = cached.generateToken(seller);
+    }
+
+    @Benchmark
+    public String generate() {
+        return cached.generateToken(seller);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyUncached() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyCached() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public String extractClaim() {
+        return cached.extractUsername(token);
+    }
+}
@@ -14,6 +14,7 @@ export type ProductData = {
   description: string;
   price: number;
   images: string[];
+  thumbnails?: string[]; // listing-size copies of images, same order
   category: string;
   quantity: number; // This is stock quantity from backend
   sellerFullName: string;
@@ -27,11 +28,11 @@ type ProductProps = ProductData & {
   // isFavorite prop is now included in ProductData
 };
 
-export function ProductCard({ id, name, description, price, images, onAddToCart, onToggleFavorite, isFavorite, category, quantity, sellerFullName }: ProductProps) {
+export function ProductCard({ id, name, description, price, images, thumbnails, onAddToCart, onToggleFavorite, isFavorite, category, quantity, sellerFullName }: ProductProps) {
   const router = useRouter();
   const { addToCart, getProductQuantityInCart } = useCart();
 
-  const imageUrl = images && images.length > 0 ? images[0] : '';
+  const imageUrl = thumbnails && thumbnails.length > 0 ? thumbnails[0] : images && images.length > 0 ? images[0] : '';
   const cartQuantity = getProductQuantityInCart(id);
 
   const productToAdd = {
@@ -760,7 +760,8 @@ export const authService = (() => {
         console.log('Get seller orders response status:', response.status);
 
         if (response.ok) {
-          const orders = await response.json();
+          const page = await response.json();
+          const orders = page.items || [];
           console.log('Seller orders fetched successfully:', orders.length, 'orders');
           return orders;
         } else {
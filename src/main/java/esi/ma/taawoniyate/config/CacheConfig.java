@@ -0,0 +1,64 @@
+package esi.ma.taawoniyate.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Every cache is size-bounded (Caffeine's W-TinyLFU eviction), expires after a TTL and records
+// stats, which actuator publishes per cache as cache.gets{result=hit|miss}, cache.evictions, ...
+// Puts and evictions issued inside a transaction are applied after it commits, so a reader
+// cannot re-cache a row that is about to change.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USER_PROFILES = "userProfiles";
+    public static final String USER_EMAILS = "userEmails";
+    public static final String PRODUCT_DETAILS = "productDetails";
+    public static final String STOREFRONTS = "storefronts";
+
+    @Value("${app.cache.user-profiles.maximum-size:10000}")
+    private long userProfilesMaximumSize;
+
+    @Value("${app.cache.user-profiles.ttl:10m}")
+    private Duration userProfilesTtl;
+
+    @Value("${app.cache.product-details.maximum-size:5000}")
+    private long productDetailsMaximumSize;
+
+    @Value("${app.cache.product-details.ttl:30m}")
+    private Duration productDetailsTtl;
+
+    @Value("${app.cache.storefronts.maximum-size:500}")
+    private long storefrontsMaximumSize;
+
+    @Value("${app.cache.storefronts.ttl:10m}")
+    private Duration storefrontsTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Fallback for caches created on demand: still bounded
+        cacheManager.setCaffeine(spec(1_000, Duration.ofMinutes(10)));
+
+        cacheManager.registerCustomCache(USER_PROFILES, spec(userProfilesMaximumSize, userProfilesTtl).build());
+        cacheManager.registerCustomCache(USER_EMAILS, spec(userProfilesMaximumSize, userProfilesTtl).build());
+        cacheManager.registerCustomCache(PRODUCT_DETAILS, spec(productDetailsMaximumSize, productDetailsTtl).build());
+        cacheManager.registerCustomCache(STOREFRONTS, spec(storefrontsMaximumSize, storefrontsTtl).build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static Caffeine<Object, Object> spec(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats();
+    }
+}
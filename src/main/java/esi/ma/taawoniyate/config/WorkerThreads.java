@@ -0,0 +1,25 @@
+package esi.ma.taawoniyate.config;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Thread factories for the services' own pools. Pools that mostly wait on the network (image
+// uploads, imports) get virtual threads when spring.threads.virtual.enabled is on; the pool size
+// still caps how many calls run at once. CPU-bound pools (password hashing) stay on platform threads.
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    public static ThreadFactory named(String prefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(prefix + "-", 1).factory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,18 +1,28 @@
 package esi.ma.taawoniyate.controller;
 
+import esi.ma.taawoniyate.dto.PlatformStatistics;
+import esi.ma.taawoniyate.exporter.RowWriter;
 import esi.ma.taawoniyate.model.Client;
 import esi.ma.taawoniyate.model.Seller;
 import esi.ma.taawoniyate.model.User;
 import esi.ma.taawoniyate.service.AdminService;
+import esi.ma.taawoniyate.service.ExportService;
+import esi.ma.taawoniyate.service.SellerAnalyticsService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -23,6 +33,12 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private SellerAnalyticsService sellerAnalyticsService;
+
     @GetMapping("/users")
     public ResponseEntity<Page<User>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
@@ -104,13 +120,62 @@ public class AdminController {
         }
     }
 
+    // Answered from in-memory counters (PlatformStatisticsService), without touching the database
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Long>> getStatistics() {
-        Map<String, Long> stats = new HashMap<>();
-        stats.put("totalUsers", adminService.getTotalUsers());
-        stats.put("totalClients", adminService.getTotalClients());
-        stats.put("totalSellers", adminService.getTotalSellers());
+    public ResponseEntity<PlatformStatistics> getStatistics() {
+        return ResponseEntity.ok(adminService.getStatistics());
+    }
+
+    // Rebuilds the seller analytics rollup from the order lines, entirely or from a day on (ISO date)
+    @PostMapping("/analytics/backfill")
+    public ResponseEntity<?> backfillSellerAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            HttpServletRequest request) {
+
+        if (request.getAttribute("userId") == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        if (!"admin".equalsIgnoreCase((String) request.getAttribute("userRole"))) {
+            return ResponseEntity.status(403).body("Access denied. Only admins can rebuild analytics.");
+        }
+
+        long start = System.currentTimeMillis();
+        int rows = sellerAnalyticsService.backfill(from);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from);
+        result.put("rows", rows);
+        result.put("durationMs", System.currentTimeMillis() - start);
+        return ResponseEntity.ok(result);
+    }
+
+    // Streams products, users or order lines as NDJSON (default) or CSV, row by row
+    @GetMapping("/export/{dataset}")
+    public ResponseEntity<?> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request) {
+
+        if (request.getAttribute("userId") == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        if (!"admin".equalsIgnoreCase((String) request.getAttribute("userRole"))) {
+            return ResponseEntity.status(403).body("Access denied. Only admins can export data.");
+        }
+
+        ExportService.Dataset exportDataset;
+        RowWriter.Format exportFormat;
+        try {
+            exportDataset = ExportService.Dataset.of(dataset);
+            exportFormat = RowWriter.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown export: " + dataset + " as " + format
+                    + " (datasets: products, users, orders; formats: ndjson, csv)");
+        }
 
-        return ResponseEntity.ok(stats);
+        StreamingResponseBody body = out -> exportService.export(exportDataset, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportDataset.fileName(exportFormat) + "\"")
+                .body(body);
     }
-}
\ No newline at end of file
+}
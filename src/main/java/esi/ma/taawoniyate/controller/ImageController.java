@@ -0,0 +1,169 @@
+package esi.ma.taawoniyate.controller;
+
+import esi.ma.taawoniyate.service.CatalogSnapshotService;
+import esi.ma.taawoniyate.service.ImageType;
+import esi.ma.taawoniyate.service.LocalImageStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves images of the local store. Names are content hashes, so a URL always designates the same
+ * bytes: responses are cacheable for a year and marked immutable, and the hash is the ETag.
+ *
+ * The body never goes through the JVM heap: on Tomcat the file region is handed to the connector,
+ * which sends it with sendfile(2); elsewhere it is written with FileChannel.transferTo.
+ */
+@RestController
+@RequestMapping("/images")
+@ConditionalOnProperty(name = "app.images.store", havingValue = "local")
+@Tag(name = "Images", description = "Product images kept on this server")
+public class ImageController {
+
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // Empty range marker: the Range header cannot be satisfied (answered with 416)
+    static final long[] UNSATISFIABLE = new long[0];
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private LocalImageStore localImageStore;
+
+    @Operation(
+        summary = "Get an image",
+        description = "Returns a stored product image. Supports single byte ranges (Range, If-Range) and conditional requests (If-None-Match)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Whole image"),
+        @ApiResponse(responseCode = "206", description = "Requested byte range"),
+        @ApiResponse(responseCode = "304", description = "Client copy is current"),
+        @ApiResponse(responseCode = "404", description = "No such image"),
+        @ApiResponse(responseCode = "416", description = "Range outside the image")
+    })
+    @GetMapping("/{name:.+}")
+    public void getImage(@PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = localImageStore.find(name);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        int dot = name.indexOf('.');
+        String etag = "\"" + name.substring(0, dot) + "\"";
+        long length = Files.size(file);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (CatalogSnapshotService.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(ImageType.fromExtension(name.substring(dot + 1)).getContentType());
+
+        long start = 0;
+        long end = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the region itself once the response is committed
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    /**
+     * Bounds [start, end) of a single "bytes=" range, UNSATISFIABLE when it starts past the end,
+     * or null to send the whole image: several ranges or a malformed header are answered with the
+     * full representation, as RFC 9110 allows.
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        try {
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length : Math.min(Long.parseLong(last) + 1, length);
+                if (start >= length) {
+                    return UNSATISFIABLE;
+                }
+                if (start < 0 || end <= start) {
+                    return null;
+                }
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -6,27 +6,36 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import esi.ma.taawoniyate.dto.CartLine;
+import esi.ma.taawoniyate.dto.SalesGranularity;
+import esi.ma.taawoniyate.dto.SellerSalesReport;
+import esi.ma.taawoniyate.dto.SellerTopProduct;
+import esi.ma.taawoniyate.dto.SellerOrderPage;
+import esi.ma.taawoniyate.dto.PrincipalProfile;
 import esi.ma.taawoniyate.model.Client;
 import esi.ma.taawoniyate.model.Panier;
 import esi.ma.taawoniyate.model.PanierItem;
-import esi.ma.taawoniyate.model.Product;
-import esi.ma.taawoniyate.model.User;
 import esi.ma.taawoniyate.model.Seller;
 import esi.ma.taawoniyate.service.ClientService;
+import esi.ma.taawoniyate.service.InsufficientStockException;
 import esi.ma.taawoniyate.service.PanierService;
+import esi.ma.taawoniyate.service.SellerAnalyticsService;
 import esi.ma.taawoniyate.service.SellerService;
 import esi.ma.taawoniyate.service.ProductService;
 import esi.ma.taawoniyate.service.UserService;
+import esi.ma.taawoniyate.security.JwtPrincipal;
 import jakarta.servlet.http.HttpSession;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
-import java.math.BigDecimal;
 import org.springframework.http.HttpStatus;
 import java.util.Optional;
 
@@ -35,6 +44,9 @@ import java.util.Optional;
 @CrossOrigin(origins = {"http://localhost:8081", "http://localhost:8083"}, allowCredentials = "true")
 @Tag(name = "Cart Management", description = "APIs for managing shopping cart and orders")
 public class PanierController {
+
+    private static final Logger log = LoggerFactory.getLogger(PanierController.class);
+
     @Autowired
     private PanierService panierService;
 
@@ -50,6 +62,9 @@ public class PanierController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SellerAnalyticsService sellerAnalyticsService;
+
     @PostMapping("/save")
     public ResponseEntity<?> savePanier(@RequestBody Panier panier) {
         try {
@@ -78,6 +93,8 @@ public class PanierController {
             // Save the panier
             panierService.savePanier(panier);
             return ResponseEntity.ok(panier);
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(409).body(stockConflict(e));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error saving panier: " + e.getMessage());
         }
@@ -100,9 +117,11 @@ public class PanierController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Cart saved successfully as order"),
-        @ApiResponse(responseCode = "400", description = "Invalid cart data or empty cart"),
+        @ApiResponse(responseCode = "400", description = "Invalid cart data, empty cart or unknown product"),
         @ApiResponse(responseCode = "401", description = "User not authenticated"),
-        @ApiResponse(responseCode = "404", description = "User or product not found"),
+        @ApiResponse(responseCode = "403", description = "Admins cannot save a cart"),
+        @ApiResponse(responseCode = "404", description = "User not found"),
+        @ApiResponse(responseCode = "409", description = "Not enough stock for some lines, listed in shortages; nothing was saved"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/save-cart")
@@ -112,117 +131,34 @@ public class PanierController {
         @RequestBody Map<String, Object> requestData,
         HttpServletRequest request) {
         try {
-            System.out.println("=== SAVE CART AS PANIER ENDPOINT CALLED ===");
-            System.out.println("Request data: " + requestData);
-
             // Get authenticated user from JWT
             Long userId = (Long) request.getAttribute("userId");
-            String userRole = (String) request.getAttribute("userRole");
-
-            System.out.println("User ID from JWT: " + userId);
-            System.out.println("User Role from JWT: " + userRole);
 
             if (userId == null) {
-                System.out.println("User not authenticated - userId is null");
                 return ResponseEntity.status(401).body("User not authenticated");
             }
 
-            // Allow both clients and sellers to save cart
-            System.out.println("User role: " + userRole + " - allowing cart save");
-
-            // Get the user
-            User user = userService.findById(userId);
+            // Clients and sellers (a seller is also a client) can save a cart; profile from the token
+            PrincipalProfile user = userService.getPrincipalProfile((JwtPrincipal) request.getAttribute("principal"));
             if (user == null) {
                 return ResponseEntity.status(404).body("User not found");
             }
-
-            // Handle both clients and sellers
-            Client client;
-            if (user instanceof Client) {
-                client = (Client) user;
-                System.out.println("User is a client: " + client.getFullName());
-            } else {
-                // For sellers, we'll treat them as clients for cart functionality
-                // Create a temporary client object with seller's data
-                client = new Client();
-                client.setId(user.getId());
-                client.setFullName(user.getFullName());
-                client.setEmail(user.getEmail());
-                client.setPhone(user.getPhone());
-                client.setAddress(user.getAddress());
-                client.setCity(user.getCity());
-                client.setRegion(user.getRegion());
-                client.setRole(user.getRole());
-                System.out.println("User is a seller, treating as client for cart: " + client.getFullName());
+            if (user.hasRole("admin")) {
+                return ResponseEntity.status(403).body("Only clients and sellers can save a cart");
             }
 
             // Get cart items from request
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> items = (List<Map<String, Object>>) requestData.get("items");
-
-            if (items == null || items.isEmpty()) {
-                return ResponseEntity.badRequest().body("No items in cart");
-            }
-
-            // Check if panier already exists for this client
-            Panier panier = panierService.findByClientId(client.getId());
-            if (panier != null) {
-                System.out.println("Existing panier found for client " + client.getId() + ", clearing items");
-                // Clear existing items
-                panier.getRawItems().clear();
-            } else {
-                System.out.println("Creating new panier for client " + client.getId());
-                // Create new panier
-                panier = new Panier();
-                panier.setClient(client);
-                panier.setClientId(client.getId());
-            }
+            List<CartLine> lines = CartLine.fromPayload(requestData);
 
-            // Process each cart item
-            for (Map<String, Object> itemData : items) {
-                Integer productId = (Integer) itemData.get("productId");
-                Integer quantity = (Integer) itemData.get("quantity");
-                Double price = ((Number) itemData.get("price")).doubleValue();
-
-                // Get the product
-                Product product = productService.getProductById(productId);
-                if (product == null) {
-                    return ResponseEntity.badRequest().body("Product not found: " + productId);
-                }
-
-                // Get the seller from the product using reflection (since it's @JsonIgnore)
-                Seller seller = null;
-                try {
-                    java.lang.reflect.Field sellerField = Product.class.getDeclaredField("seller");
-                    sellerField.setAccessible(true);
-                    seller = (Seller) sellerField.get(product);
-                } catch (Exception e) {
-                    System.out.println("Error accessing seller field: " + e.getMessage());
-                }
+            panierService.checkout(userId, lines);
 
-                if (seller == null) {
-                    return ResponseEntity.badRequest().body("Seller not found for product: " + productId);
-                }
-
-                // Create panier item
-                PanierItem panierItem = new PanierItem();
-                panierItem.setProduct(product);
-                panierItem.setQuantity(quantity);
-                panierItem.setPrice(BigDecimal.valueOf(price));
-                panierItem.setSeller(seller);
-                panierItem.setClient(client);
-                panierItem.setPanier(panier);
-
-                // Add item to panier
-                panier.getRawItems().add(panierItem);
-            }
-
-            // Save the panier
-            panierService.savePanier(panier);
-
-            System.out.println("Cart saved as panier successfully for client: " + client.getFullName());
+            log.debug("Cart saved as panier for user {} ({} items)", userId, lines.size());
             return ResponseEntity.ok("Cart saved successfully");
 
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(409).body(stockConflict(e));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             System.out.println("Error in saveCartAsPanier: " + e.getMessage());
             e.printStackTrace();
@@ -257,7 +193,7 @@ public class PanierController {
             System.out.println("Fetching orders for user ID: " + userId + ", role: " + userRole);
 
             // Get the user (works for both clients and sellers)
-            User user = userService.findById(userId);
+            PrincipalProfile user = userService.getPrincipalProfile((JwtPrincipal) request.getAttribute("principal"));
             if (user == null) {
                 return ResponseEntity.status(404).body("User not found");
             }
@@ -281,70 +217,127 @@ public class PanierController {
 
     @Operation(
         summary = "Get seller orders",
-        description = "Retrieve orders containing products from the current authenticated seller. Shows customer information and order details for products sold by this seller. Requires JWT authentication.",
+        description = "Retrieve orders containing products from the current authenticated seller, newest first. Each order carries the client's details and only this seller's lines. Cursor-paginated: pass the nextCursor of a page to get the following one. Requires JWT authentication.",
         security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Seller orders retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor"),
         @ApiResponse(responseCode = "401", description = "User not authenticated"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/seller-orders")
-    public ResponseEntity<?> getSellerOrders(HttpServletRequest request) {
+    public ResponseEntity<?> getSellerOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
         try {
-            System.out.println("=== GET SELLER ORDERS ENDPOINT CALLED ===");
-
             // Get authenticated user from JWT
             Long userId = (Long) request.getAttribute("userId");
-            String userRole = (String) request.getAttribute("userRole");
 
             if (userId == null) {
                 return ResponseEntity.status(401).body("User not authenticated");
             }
 
-            System.out.println("Fetching seller orders for user ID: " + userId + ", role: " + userRole);
-
-            // Get all paniers and filter for items from this seller
-            List<Panier> allPaniers = panierService.getAllPanier();
-            List<Map<String, Object>> sellerOrders = new ArrayList<>();
-
-            for (Panier panier : allPaniers) {
-                List<Map<String, Object>> sellerItems = new ArrayList<>();
-
-                for (PanierItem item : panier.getRawItems()) {
-                    // Check if this item belongs to the current seller
-                    if (item.getSellerEntity() != null && item.getSellerEntity().getId() == userId.longValue()) {
-                        Map<String, Object> itemInfo = new HashMap<>();
-                        itemInfo.put("product", item.getProduct());
-                        itemInfo.put("quantity", item.getQuantity());
-                        itemInfo.put("price", item.getPrice());
-                        itemInfo.put("client", panier.getClient());
-                        itemInfo.put("orderDate", panier.getDate());
-                        itemInfo.put("orderId", panier.getPanier_id());
-                        sellerItems.add(itemInfo);
-                    }
-                }
+            SellerOrderPage page = panierService.getSellerOrders(userId, cursor, size);
+            return ResponseEntity.ok(page);
 
-                if (!sellerItems.isEmpty()) {
-                    Map<String, Object> orderInfo = new HashMap<>();
-                    orderInfo.put("orderId", panier.getPanier_id());
-                    orderInfo.put("client", panier.getClient());
-                    orderInfo.put("orderDate", panier.getDate());
-                    orderInfo.put("items", sellerItems);
-                    sellerOrders.add(orderInfo);
-                }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Could not load the orders of seller {}", request.getAttribute("userId"), e);
+            return ResponseEntity.status(500).body("Error fetching seller orders: " + e.getMessage());
+        }
+    }
+
+    @Operation(
+        summary = "Get seller sales analytics",
+        description = "Revenue, units sold and order lines of the current authenticated seller per day, week (starting Monday) or month, between from and to (inclusive, ISO dates; default: the last 30 days, 12 weeks or 12 months). Read from pre-aggregated daily rollups. Requires JWT authentication.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sales analytics retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid granularity or period"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated"),
+        @ApiResponse(responseCode = "403", description = "Only sellers have sales analytics"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/seller-analytics")
+    public ResponseEntity<?> getSellerAnalytics(
+            @Parameter(description = "day, week or month") @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        try {
+            Long userId = (Long) request.getAttribute("userId");
+            if (userId == null) {
+                return ResponseEntity.status(401).body("User not authenticated");
+            }
+            if (!"seller".equalsIgnoreCase((String) request.getAttribute("userRole"))) {
+                return ResponseEntity.status(403).body("Access denied. Only sellers have sales analytics.");
             }
 
-            System.out.println("Found " + sellerOrders.size() + " orders containing products from seller: " + userId);
-            return ResponseEntity.ok(sellerOrders);
+            SalesGranularity salesGranularity = SalesGranularity.from(granularity);
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : salesGranularity.defaultFrom(end);
+            SellerSalesReport report = sellerAnalyticsService.getSalesReport(userId, salesGranularity, start, end);
+            return ResponseEntity.ok(report);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            System.out.println("Error in getSellerOrders: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(500).body("Error fetching seller orders: " + e.getMessage());
+            log.error("Could not build the sales report of seller {}", request.getAttribute("userId"), e);
+            return ResponseEntity.status(500).body("Error fetching seller analytics: " + e.getMessage());
+        }
+    }
+
+    @Operation(
+        summary = "Get seller top products",
+        description = "Best-selling products of the current authenticated seller by revenue between from and to (inclusive, ISO dates; default: the last 30 days). Requires JWT authentication.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Top products retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid period"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated"),
+        @ApiResponse(responseCode = "403", description = "Only sellers have sales analytics"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/seller-analytics/top-products")
+    public ResponseEntity<?> getSellerTopProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest request) {
+        try {
+            Long userId = (Long) request.getAttribute("userId");
+            if (userId == null) {
+                return ResponseEntity.status(401).body("User not authenticated");
+            }
+            if (!"seller".equalsIgnoreCase((String) request.getAttribute("userRole"))) {
+                return ResponseEntity.status(403).body("Access denied. Only sellers have sales analytics.");
+            }
+
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : SalesGranularity.DAY.defaultFrom(end);
+            List<SellerTopProduct> products = sellerAnalyticsService.getTopProducts(userId, start, end, limit);
+            return ResponseEntity.ok(products);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Could not load the top products of seller {}", request.getAttribute("userId"), e);
+            return ResponseEntity.status(500).body("Error fetching top products: " + e.getMessage());
         }
     }
 
+    private static Map<String, Object> stockConflict(InsufficientStockException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("message", e.getMessage());
+        body.put("shortages", e.getShortages());
+        return body;
+    }
+
     // Test endpoint to verify controller is working
     @GetMapping("/test")
     public ResponseEntity<String> testEndpoint() {
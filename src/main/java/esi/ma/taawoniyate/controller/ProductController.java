@@ -6,16 +6,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import esi.ma.taawoniyate.dto.ImportJobStatus;
+import esi.ma.taawoniyate.dto.ProductImageStatus;
+import esi.ma.taawoniyate.event.ProductChangedEvent;
 import esi.ma.taawoniyate.model.*;
 import esi.ma.taawoniyate.repository.CategoryRepository;
 import esi.ma.taawoniyate.repository.ProductImageRepository;
 import esi.ma.taawoniyate.repository.ProductRepository;
 import esi.ma.taawoniyate.repository.UserRepository;
-import esi.ma.taawoniyate.service.CloudinaryService;
+import esi.ma.taawoniyate.service.ProductImageService;
+import esi.ma.taawoniyate.service.ProductImportService;
 import esi.ma.taawoniyate.service.UserService;
 import jakarta.servlet.http.HttpSession;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,6 +33,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import static esi.ma.taawoniyate.controller.UserController.session;
 
@@ -35,7 +43,9 @@ import static esi.ma.taawoniyate.controller.UserController.session;
 @Tag(name = "Product Management", description = "APIs for managing products, images, and favorites")
 public class ProductController {
 
-    private final CloudinaryService cloudinaryService;
+    private static final Logger log = LoggerFactory.getLogger(ProductController.class);
+
+    private final ProductImageService productImageService;
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
     private final UserRepository userRepository;
@@ -46,11 +56,17 @@ public class ProductController {
     @Autowired
     CategoryRepository categoryRepository;
 
-    public ProductController(CloudinaryService cloudinaryService,
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    public ProductController(ProductImageService productImageService,
                              ProductRepository productRepository,
                              ProductImageRepository productImageRepository,
                              UserRepository userRepository) {
-        this.cloudinaryService = cloudinaryService;
+        this.productImageService = productImageService;
         this.productRepository = productRepository;
         this.productImageRepository = productImageRepository;
         this.userRepository = userRepository;
@@ -71,16 +87,15 @@ public class ProductController {
         }
 
         try {
-            // Upload to Cloudinary
-            String imageUrl = cloudinaryService.uploadFile(image);
+            // Upload to the image store, with its resized variants
+            ProductImage productImage = productImageService.uploadNow(image);
 
-            // Create and save ProductImage
-            ProductImage productImage = new ProductImage();
-            productImage.setImageUrl(imageUrl);
+            // Save ProductImage
             productImage.setProduct(product);
             productImageRepository.save(productImage);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(product.getId()));
 
-            return ResponseEntity.ok(imageUrl);
+            return ResponseEntity.ok(productImage.getImageUrl());
         } catch (IOException e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -181,23 +196,14 @@ public class ProductController {
         product.setSeller(seller);
         // Save product first to get ID
         Product savedProduct = productRepository.save(product);
-        // Handle images
-        if (images != null && images.length > 0) {
-            for (MultipartFile image : images) {
-                try {
-                    String imageUrl = cloudinaryService.uploadFile(image);
-                    ProductImage productImage = new ProductImage();
-                    productImage.setImageUrl(imageUrl);
-                    productImage.setProduct(savedProduct);
-                    productImageRepository.save(productImage);
-                } catch (IOException e) {
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload image: " + e.getMessage());
-                }
-            }
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct.getId()));
+        // Images are uploaded in the background and attached when done
+        try {
+            productImageService.submit(savedProduct.getId(), seller.getId(), images);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload image: " + e.getMessage());
         }
-        // Optionally reload product with images
-        Product result = productRepository.findById((int)savedProduct.getId()).orElse(savedProduct);
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(savedProduct);
     }
 
     @Operation(
@@ -277,34 +283,14 @@ public class ProductController {
             Product savedProduct = productRepository.save(product);
             System.out.println("Product saved with ID: " + savedProduct.getId());
 
-            // Handle images if provided
-            if (images != null && images.length > 0) {
-                System.out.println("Processing " + images.length + " images...");
-                for (MultipartFile image : images) {
-                    if (!image.isEmpty()) {
-                        try {
-                            String imageUrl = cloudinaryService.uploadFile(image);
-                            System.out.println("Image uploaded to: " + imageUrl);
-
-                            ProductImage productImage = new ProductImage();
-                            productImage.setImageUrl(imageUrl);
-                            productImage.setProduct(savedProduct);
-                            productImageRepository.save(productImage);
-
-                            System.out.println("ProductImage saved to database");
-                        } catch (Exception e) {
-                            System.out.println("Failed to upload image: " + e.getMessage());
-                            // Continue with other images even if one fails
-                        }
-                    }
-                }
-            } else {
-                System.out.println("No images provided");
-            }
+            eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct.getId()));
+
+            // Images are uploaded in the background; progress on /api/products/{id}/images/status
+            int queued = productImageService.submit(savedProduct.getId(), seller.getId(), images);
+            log.debug("Product {}: {} images queued for upload", savedProduct.getId(), queued);
 
             // Return the saved product
-            Product result = productRepository.findById((int)savedProduct.getId()).orElse(savedProduct);
-            return ResponseEntity.ok(result);
+            return ResponseEntity.ok(savedProduct);
 
         } catch (Exception e) {
             System.out.println("Error in addProductWithImagesJWT: " + e.getMessage());
@@ -313,6 +299,87 @@ public class ProductController {
         }
     }
 
+    @Operation(
+        summary = "Bulk import products (JWT)",
+        description = "Import many products from a CSV or NDJSON file (columns/fields: name, description, price, quantity, category, images). The file is processed in the background: the response is the job status, to be polled on /api/products/import/{jobId}. Image URLs are fetched after their product is saved. Only sellers can import products. Requires JWT authentication.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import accepted"),
+        @ApiResponse(responseCode = "400", description = "Missing file or unsupported format"),
+        @ApiResponse(responseCode = "401", description = "User not authenticated"),
+        @ApiResponse(responseCode = "403", description = "Access denied - only sellers can import products"),
+        @ApiResponse(responseCode = "503", description = "Too many imports in progress, retry later")
+    })
+    @PostMapping("/import")
+    public ResponseEntity<?> importProducts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        String userRole = (String) request.getAttribute("userRole");
+
+        if (userId == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        if (!"seller".equalsIgnoreCase(userRole)) {
+            return ResponseEntity.status(403).body("Access denied. Only sellers can import products.");
+        }
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().body("Import file is empty");
+        }
+
+        try {
+            ImportJobStatus job = productImportService.submit(userId, file, format);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "60")
+                    .body("Too many imports in progress, retry later");
+        } catch (IOException e) {
+            log.error("Could not read the import file of seller {}", userId, e);
+            return ResponseEntity.status(500).body("Error reading import file: " + e.getMessage());
+        }
+    }
+
+    @Operation(
+        summary = "Get bulk import status (JWT)",
+        description = "Progress of a bulk import started by the current seller: rows processed, imported and failed, per-row errors and image fetch progress. Requires JWT authentication.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<?> getImportStatus(@PathVariable String jobId, HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        ImportJobStatus job = productImportService.getStatus(jobId, userId);
+        if (job == null) {
+            return ResponseEntity.status(404).body("Import job not found: " + jobId);
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @Operation(
+        summary = "Get product image upload status (JWT)",
+        description = "Images sent with a product are uploaded in the background. This returns how many of the current seller's images for the product are still pending, stored or failed (status NONE when nothing was uploaded recently). Requires JWT authentication.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @GetMapping("/{productId}/images/status")
+    public ResponseEntity<?> getImageStatus(@PathVariable Long productId, HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        if (userId == null) {
+            return ResponseEntity.status(401).body("User not authenticated");
+        }
+        ProductImageStatus status = productImageService.getStatus(productId, userId);
+        if (status == null) {
+            return ResponseEntity.status(403).body("You can only follow uploads of your own products");
+        }
+        return ResponseEntity.ok(status);
+    }
+
     @Operation(
         summary = "Delete product",
         description = "Delete a product by ID. Only the seller who owns the product can delete it. Requires JWT authentication.",
@@ -355,24 +422,17 @@ public class ProductController {
                 return ResponseEntity.status(404).body("Product not found");
             }
 
-            // Get the seller entity to check ownership
-            try {
-                java.lang.reflect.Field sellerField = Product.class.getDeclaredField("seller");
-                sellerField.setAccessible(true);
-                Seller productSeller = (Seller) sellerField.get(product);
-
-                if (productSeller == null || productSeller.getId() != userId) {
-                    return ResponseEntity.status(403).body("You can only delete your own products");
-                }
-            } catch (Exception e) {
-                System.out.println("Error accessing seller information: " + e.getMessage());
-                return ResponseEntity.status(500).body("Error verifying product ownership");
+            // Check ownership
+            Seller productSeller = product.getSellerEntity();
+            if (productSeller == null || productSeller.getId() != userId) {
+                return ResponseEntity.status(403).body("You can only delete your own products");
             }
 
             System.out.println("Deleting product: " + product.getName());
 
             // Delete the product (this will cascade delete related images and panier items)
             productRepository.deleteById(productId.intValue());
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(productId));
 
             return ResponseEntity.ok("Product deleted successfully");
 
@@ -419,17 +479,9 @@ public class ProductController {
             }
 
             // Check ownership
-            try {
-                java.lang.reflect.Field sellerField = Product.class.getDeclaredField("seller");
-                sellerField.setAccessible(true);
-                Seller productSeller = (Seller) sellerField.get(product);
-
-                if (productSeller == null || productSeller.getId() != userId) {
-                    return ResponseEntity.status(403).body("You can only update your own products");
-                }
-            } catch (Exception e) {
-                System.out.println("Error accessing seller information: " + e.getMessage());
-                return ResponseEntity.status(500).body("Error verifying product ownership");
+            Seller productSeller = product.getSellerEntity();
+            if (productSeller == null || productSeller.getId() != userId) {
+                return ResponseEntity.status(403).body("You can only update your own products");
             }
 
             // Find category
@@ -468,24 +520,11 @@ public class ProductController {
                 }
             }
 
-            // Add new images
-            if (newImages != null && newImages.length > 0) {
-                for (MultipartFile image : newImages) {
-                    if (!image.isEmpty()) {
-                        try {
-                            String imageUrl = cloudinaryService.uploadFile(image);
-                            System.out.println("New image uploaded to: " + imageUrl);
-
-                            ProductImage productImage = new ProductImage();
-                            productImage.setImageUrl(imageUrl);
-                            productImage.setProduct(savedProduct);
-                            productImageRepository.save(productImage);
-                        } catch (Exception e) {
-                            System.out.println("Failed to upload new image: " + e.getMessage());
-                        }
-                    }
-                }
-            }
+            eventPublisher.publishEvent(ProductChangedEvent.saved(productId));
+
+            // New images are uploaded in the background and appended after the kept ones
+            int queued = productImageService.submit(productId, userId, newImages);
+            log.debug("Product {}: {} new images queued for upload", productId, queued);
 
             // Return updated product
             Product result = productRepository.findById(productId.intValue()).orElse(savedProduct);
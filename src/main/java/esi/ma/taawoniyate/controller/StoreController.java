@@ -6,11 +6,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,6 +24,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -25,17 +32,24 @@ import org.springframework.web.multipart.MultipartFile;
 
 import esi.ma.taawoniyate.model.Category;
 import esi.ma.taawoniyate.model.Product;
-import esi.ma.taawoniyate.model.ProductImage;
 import esi.ma.taawoniyate.model.Seller;
 import esi.ma.taawoniyate.model.User;
 import esi.ma.taawoniyate.repository.CategoryRepository;
 import esi.ma.taawoniyate.repository.ProductRepository;
-import esi.ma.taawoniyate.repository.ProductImageRepository;
 import esi.ma.taawoniyate.repository.SellerRepository;
+import esi.ma.taawoniyate.service.CatalogIndexService;
+import esi.ma.taawoniyate.service.CatalogSnapshotService;
+import esi.ma.taawoniyate.service.ProductImageService;
+import esi.ma.taawoniyate.service.ProductService;
 import esi.ma.taawoniyate.service.SellerService;
 import esi.ma.taawoniyate.service.UserService;
-import esi.ma.taawoniyate.service.CloudinaryService;
+import esi.ma.taawoniyate.dto.ProductCard;
+import esi.ma.taawoniyate.dto.ProductCardPage;
 import esi.ma.taawoniyate.dto.ProductDetailsResponse;
+import esi.ma.taawoniyate.dto.ProductFilter;
+import esi.ma.taawoniyate.dto.ProductSort;
+import esi.ma.taawoniyate.event.CategoryChangedEvent;
+import esi.ma.taawoniyate.event.ProductChangedEvent;
 import jakarta.servlet.http.HttpServletRequest;
 @CrossOrigin(origins = "http://localhost:8081",allowCredentials = "true")
 @RestController
@@ -43,6 +57,8 @@ import jakarta.servlet.http.HttpServletRequest;
 @Tag(name = "Store (Public)", description = "Public APIs for browsing products, categories, and store information")
 public class StoreController {
 
+    private static final Logger log = LoggerFactory.getLogger(StoreController.class);
+
     @Autowired
     private ProductRepository productRepository;
 
@@ -58,30 +74,85 @@ public class StoreController {
     private UserService userService;
 
     @Autowired
-    private ProductImageRepository productImageRepository;
+    private ProductImageService productImageService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogIndexService catalogIndexService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ApplicationEventPublisher eventPublisher;
 
     @Operation(
         summary = "Get all products",
-        description = "Retrieve all products available in the store. This is a public endpoint that doesn't require authentication."
+        description = "Retrieve all products available in the store. This is a public endpoint that doesn't require authentication. Responses carry an ETag; send it back in If-None-Match to get a 304 while the catalog is unchanged."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Catalog unchanged since the given ETag"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/products")
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = catalogSnapshotService.productsEtag();
+        if (CatalogSnapshotService.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return snapshot(catalogSnapshotService.products());
+    }
+
+    @Operation(
+        summary = "Get a page of products",
+        description = "Cursor-paginated product listing returning lightweight product cards. Pass the nextCursor of a page to get the following one. Sort is one of newest, price_asc or price_desc."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid sort or cursor")
+    })
+    @GetMapping("/products/page")
+    public ResponseEntity<?> getProductPage(
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            ProductCardPage page = productService.getProductCards(ProductSort.from(sort), cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Get all categories
     @GetMapping("/categories")
-    public List<String> getAllCategories() {
-        List<String> categories = new ArrayList<>();
-         categoryRepository.findAll().forEach(category -> categories.add(category.getName()));
-         return categories;
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = catalogSnapshotService.categoriesEtag();
+        if (CatalogSnapshotService.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return snapshot(catalogSnapshotService.categories());
+    }
+
+    // Clients revalidate every time; an unchanged catalog costs a 304 and no body
+    private static ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+    private static ResponseEntity<byte[]> snapshot(CatalogSnapshotService.Snapshot snapshot) {
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getBody());
     }
 
     // Get products by category name
@@ -96,10 +167,49 @@ public class StoreController {
         return productRepository.findByName(name);
     }
 
-    // Get products by partial name (e.g., search)
+    @Operation(
+        summary = "Search products",
+        description = "Full-text search over product name, description, category and seller business name, ranked by relevance. The last word is matched as a prefix so the endpoint can back search-as-you-type. Served from memory."
+    )
     @GetMapping("/products/search")
-    public List<Product> searchProductsByName(@RequestParam String keyword) {
-        return productRepository.findByNameContainingIgnoreCase(keyword);
+    public List<ProductCard> searchProductsByName(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "20") int limit) {
+        return catalogIndexService.search(keyword, limit);
+    }
+
+    @Operation(
+        summary = "Filter products with facet counts",
+        description = "Combines category, seller (business name), city, region, price range and in-stock filters. Repeat a parameter to select several values. Returns one page of products plus per-facet counts for the filter sidebar. Served from memory."
+    )
+    @GetMapping("/products/filter")
+    public ResponseEntity<?> filterProducts(
+            @RequestParam(value = "category", required = false) List<String> categories,
+            @RequestParam(value = "seller", required = false) List<String> sellers,
+            @RequestParam(value = "city", required = false) List<String> cities,
+            @RequestParam(value = "region", required = false) List<String> regions,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            ProductFilter filter = new ProductFilter();
+            filter.setCategories(categories);
+            filter.setSellers(sellers);
+            filter.setCities(cities);
+            filter.setRegions(regions);
+            filter.setMinPrice(minPrice);
+            filter.setMaxPrice(maxPrice);
+            filter.setInStock(inStock);
+            filter.setSort(ProductSort.from(sort));
+            filter.setPage(page);
+            filter.setSize(size);
+            return ResponseEntity.ok(catalogIndexService.filter(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Get a specific category by name
@@ -136,6 +246,7 @@ public class StoreController {
 
         try {
             Product savedProduct = productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct.getId()));
             return ResponseEntity.ok(savedProduct);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error saving product: " + e.getMessage());
@@ -192,6 +303,7 @@ public class StoreController {
             product.setSeller(seller);
 
             Product savedProduct = productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct.getId()));
             return ResponseEntity.ok(savedProduct);
 
         } catch (Exception e) {
@@ -207,6 +319,7 @@ public class StoreController {
         }
 
         Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(saved.getName()));
         return ResponseEntity.ok(saved);
     }
     @DeleteMapping("/deleteProductByName/{name}")
@@ -217,6 +330,7 @@ public class StoreController {
         }
 
         productRepository.deleteAll(products);
+        products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.deleted(product.getId())));
         return ResponseEntity.ok("Deleted " + products.size() + " product(s) named: " + name);
     }
 
@@ -228,32 +342,43 @@ public class StoreController {
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.deleted(name));
         return ResponseEntity.ok("Deleted category named: " + name);
     }
+    @Operation(
+        summary = "Get a seller's storefront",
+        description = "Products of the seller with this business name (case-insensitive), newest first, as cursor-paginated product cards. Pass the nextCursor of a page to get the following one."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+        @ApiResponse(responseCode = "404", description = "No seller with this business name")
+    })
     @GetMapping("/{busnissName}/products")
-    public List<Product> getBusnissNameProducts(@PathVariable String busnissName) {
-        List<Product> products = sellerService.getProductsByBusinessName(busnissName);
-        return products;
+    public ResponseEntity<?> getBusnissNameProducts(
+            @PathVariable String busnissName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            ProductCardPage page = productService.getStorefrontCards(busnissName, cursor, size);
+            // An empty first page is either an empty store or an unknown one
+            if (page.getItems().isEmpty() && cursor == null && !sellerService.existsByBusinessName(busnissName)) {
+                return ResponseEntity.status(404).body("Store not found: " + busnissName);
+            }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Get product details with seller information
     @GetMapping("/products/{productId}")
     public ResponseEntity<?> getProductDetails(@PathVariable Long productId) {
         try {
-            System.out.println("=== GET PRODUCT DETAILS ENDPOINT CALLED ===");
-            System.out.println("Product ID: " + productId);
-
-            Product product = productRepository.findById(productId.intValue()).orElse(null);
-            if (product == null) {
+            ProductDetailsResponse response = productService.getProductDetails(productId);
+            if (response == null) {
                 return ResponseEntity.status(404).body("Product not found");
             }
-
-            System.out.println("Product found: " + product.getName());
-            System.out.println("Seller: " + product.getSellerFullName());
-
-            // Create response with seller information
-            ProductDetailsResponse response = createProductDetailsResponse(product);
-
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             System.out.println("Error in getProductDetails: " + e.getMessage());
@@ -262,34 +387,6 @@ public class StoreController {
         }
     }
 
-    // Helper method to create ProductDetailsResponse with seller info
-    private ProductDetailsResponse createProductDetailsResponse(Product product) {
-        ProductDetailsResponse response = new ProductDetailsResponse();
-        response.setId(product.getId());
-        response.setName(product.getName());
-        response.setDescription(product.getDescription());
-        response.setPrice(product.getPrice());
-        response.setQuantity(product.getQuantity());
-        response.setCategory(product.getCategory());
-        response.setImages(product.getImages());
-
-        // Get seller information using reflection to access the @JsonIgnore field
-        try {
-            java.lang.reflect.Field sellerField = Product.class.getDeclaredField("seller");
-            sellerField.setAccessible(true);
-            Seller seller = (Seller) sellerField.get(product);
-
-            if (seller != null) {
-                ProductDetailsResponse.SellerInfo sellerInfo = new ProductDetailsResponse.SellerInfo(seller);
-                response.setSeller(sellerInfo);
-            }
-        } catch (Exception e) {
-            System.out.println("Error accessing seller information: " + e.getMessage());
-        }
-
-        return response;
-    }
-
     // JWT-authenticated endpoint for adding products with images
     @PostMapping("/addProductWithImages")
     public ResponseEntity<?> addProductWithImages(
@@ -355,30 +452,11 @@ public class StoreController {
             Product savedProduct = productRepository.save(product);
             System.out.println("Product saved with ID: " + savedProduct.getId());
 
-            // Handle images if provided
-            if (images != null && images.length > 0) {
-                System.out.println("Processing " + images.length + " images...");
-                for (MultipartFile image : images) {
-                    if (!image.isEmpty()) {
-                        try {
-                            String imageUrl = cloudinaryService.uploadFile(image);
-                            System.out.println("Image uploaded to: " + imageUrl);
-
-                            ProductImage productImage = new ProductImage();
-                            productImage.setImageUrl(imageUrl);
-                            productImage.setProduct(savedProduct);
-                            productImageRepository.save(productImage);
-
-                            System.out.println("ProductImage saved to database");
-                        } catch (Exception e) {
-                            System.out.println("Failed to upload image: " + e.getMessage());
-                            // Continue with other images even if one fails
-                        }
-                    }
-                }
-            } else {
-                System.out.println("No images provided");
-            }
+            eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct.getId()));
+
+            // Images are uploaded in the background; progress on /api/products/{id}/images/status
+            int queued = productImageService.submit(savedProduct.getId(), seller.getId(), images);
+            log.debug("Product {}: {} images queued for upload", savedProduct.getId(), queued);
 
             return ResponseEntity.ok(savedProduct);
 
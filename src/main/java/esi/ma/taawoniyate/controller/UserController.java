@@ -5,7 +5,11 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -31,14 +35,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import esi.ma.taawoniyate.dto.PrincipalProfile;
+import esi.ma.taawoniyate.dto.UserProfile;
 import esi.ma.taawoniyate.model.Client;
 import esi.ma.taawoniyate.model.Panier;
 import esi.ma.taawoniyate.model.Product;
 import esi.ma.taawoniyate.model.Seller;
 import esi.ma.taawoniyate.model.User;
+import esi.ma.taawoniyate.repository.ProductRepository;
 import esi.ma.taawoniyate.repository.UserRepository;
 import esi.ma.taawoniyate.service.PanierService;
+import esi.ma.taawoniyate.service.PasswordVerifier;
 import esi.ma.taawoniyate.service.UserService;
+import esi.ma.taawoniyate.security.JwtPrincipal;
 import esi.ma.taawoniyate.security.JwtUtil;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpSession;
@@ -51,16 +60,22 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Tag(name = "User Management", description = "APIs for user authentication, registration, and profile management")
 public class UserController {
 
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+
     @Autowired
     private UserService userService;
     @Autowired
     private UserRepository userRepository;
     @Autowired
+    private ProductRepository productRepository;
+    @Autowired
     private PanierService panierService;
     @Autowired
     private JwtUtil jwtUtil;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private PasswordVerifier passwordVerifier;
 
     public static HttpSession session  = new HttpSession() {
         @Override
@@ -147,16 +162,16 @@ public class UserController {
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        User user = userService.findByEmail(email);
+    public ResponseEntity<UserProfile> getUserByEmail(@PathVariable String email) {
+        UserProfile user = userService.getProfileByEmail(email);
         return user != null ?
                 ResponseEntity.ok(user) :
                 ResponseEntity.notFound().build();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable long id) {
-        User user = userService.findById(id);
+    public ResponseEntity<UserProfile> getUserById(@PathVariable long id) {
+        UserProfile user = userService.getProfile(id);
         return user != null ?
                 ResponseEntity.ok(user) :
                 ResponseEntity.notFound().build();
@@ -220,67 +235,51 @@ public class UserController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Authentication successful"),
         @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+        @ApiResponse(responseCode = "429", description = "Too many logins being verified, retry after the Retry-After delay"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/authenticate")
-    public ResponseEntity<Map<String, Object>> authenticateUser(@RequestBody AuthRequest authRequest) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> authenticateUser(@RequestBody AuthRequest authRequest) {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            System.out.println("=== AUTHENTICATION DEBUG ===");
-            System.out.println("Email: " + authRequest.getEmail());
-            System.out.println("Password: " + authRequest.getPassword());
-
-            // Find user by email
+            // Find user by email; the password itself is checked on the hashing pool, not on this thread
             User user = userService.findByEmail(authRequest.getEmail());
-            System.out.println("User found: " + (user != null));
 
-            if (user != null) {
-                System.out.println("User ID: " + user.getId());
-                System.out.println("User Email: " + user.getEmail());
-                System.out.println("User Role: " + user.getRole());
-                System.out.println("Stored Password: " + user.getPassword());
-            }
-
-            // Temporary: Check both hashed and plain text passwords for backward compatibility
-            boolean passwordMatches = false;
-            if (user != null) {
-                // Try plain text comparison first (for existing users)
-                passwordMatches = authRequest.getPassword().equals(user.getPassword());
-                System.out.println("Plain text password match: " + passwordMatches);
-
-                if (!passwordMatches) {
-                    // Try hashed password
-                    try {
-                        passwordMatches = passwordEncoder.matches(authRequest.getPassword(), user.getPassword());
-                        System.out.println("Hashed password match: " + passwordMatches);
-                    } catch (Exception e) {
-                        System.out.println("Password hashing error: " + e.getMessage());
-                    }
+            return passwordVerifier.verify(user, authRequest.getPassword()).handle((passwordMatches, error) -> {
+                if (error != null) {
+                    System.out.println("Authentication exception: " + error.getMessage());
+                    response.put("success", false);
+                    response.put("message", "Authentication failed: " + error.getMessage());
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
                 }
-            }
+                if (user != null && passwordMatches) {
+                    // Generate JWT token
+                    String token = jwtUtil.generateToken(user);
 
-            if (user != null && passwordMatches) {
-                // Generate JWT token
-                String token = jwtUtil.generateToken(user.getEmail(), user.getRole(), user.getId());
+                    response.put("success", true);
+                    response.put("message", "Authentication successful");
+                    response.put("user", user);
+                    response.put("token", token);
 
-                response.put("success", true);
-                response.put("message", "Authentication successful");
-                response.put("user", user);
-                response.put("token", token);
-
-                return ResponseEntity.ok(response);
-            } else {
+                    return ResponseEntity.ok(response);
+                }
                 response.put("success", false);
                 response.put("message", "Invalid email or password");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-            }
+            });
+        } catch (RejectedExecutionException e) {
+            response.put("success", false);
+            response.put("message", "Too many login attempts in progress, retry shortly");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .body(response));
         } catch (Exception e) {
             System.out.println("Authentication exception: " + e.getMessage());
             e.printStackTrace();
             response.put("success", false);
             response.put("message", "Authentication failed: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response));
         }
     }
     @Operation(
@@ -294,11 +293,11 @@ public class UserController {
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/me")
-    public ResponseEntity<User> getCurrentUser(HttpServletRequest request) {
+    public ResponseEntity<UserProfile> getCurrentUser(HttpServletRequest request) {
         try {
             Long userId = (Long) request.getAttribute("userId");
             if (userId != null) {
-                User user = userService.findById(userId);
+                UserProfile user = userService.getProfile(userId);
                 if (user != null) {
                     return ResponseEntity.ok(user);
                 }
@@ -593,8 +592,8 @@ public class UserController {
                 user.setRegion(userInfo.get("region"));
             }
 
-            // Save the updated user
-            User updatedUser = userService.save(user);
+            // Save the updated user; the new profile version invalidates the snapshot in older tokens
+            User updatedUser = userService.updateProfile(user);
 
             System.out.println("User information updated successfully for: " + updatedUser.getFullName());
 
@@ -613,27 +612,19 @@ public class UserController {
         try {
             System.out.println("=== GET SELLER PRODUCTS JWT ENDPOINT CALLED ===");
 
-            // Get authenticated user from JWT
-            Long userId = (Long) request.getAttribute("userId");
-            String userRole = (String) request.getAttribute("userRole");
+            // Get authenticated user from JWT (profile from the token, no user lookup)
+            PrincipalProfile principal = userService.getPrincipalProfile((JwtPrincipal) request.getAttribute("principal"));
 
-            if (userId == null) {
+            if (principal == null) {
                 return ResponseEntity.status(401).body("User not authenticated");
             }
 
-            if (!"seller".equalsIgnoreCase(userRole)) {
+            if (!principal.hasRole("seller")) {
                 return ResponseEntity.status(403).body("Access denied. Only sellers can access this endpoint.");
             }
 
-            // Get the seller
-            User currentUser = userService.findById(userId);
-            if (currentUser == null || !(currentUser instanceof Seller)) {
-                return ResponseEntity.status(404).body("Seller not found");
-            }
-
-            Seller seller = (Seller) currentUser;
-            List<Product> products = seller.getProducts();
-            return ResponseEntity.ok(products != null ? products : new ArrayList<>());
+            List<Product> products = productRepository.findAllWithSellerBySellerId(principal.getId());
+            return ResponseEntity.ok(products);
 
         } catch (Exception e) {
             System.out.println("Error in getSellerProductsJWT: " + e.getMessage());
@@ -648,25 +639,20 @@ public class UserController {
         try {
             System.out.println("=== GET CLIENT ORDERS JWT ENDPOINT CALLED ===");
 
-            // Get authenticated user from JWT
-            Long userId = (Long) request.getAttribute("userId");
-            String userRole = (String) request.getAttribute("userRole");
+            // Get authenticated user from JWT (profile from the token, no user lookup)
+            PrincipalProfile principal = userService.getPrincipalProfile((JwtPrincipal) request.getAttribute("principal"));
 
-            if (userId == null) {
+            if (principal == null) {
                 return ResponseEntity.status(401).body("User not authenticated");
             }
 
-            if (!"client".equalsIgnoreCase(userRole)) {
+            if (!principal.hasRole("client")) {
                 return ResponseEntity.status(403).body("Access denied. Only clients can access this endpoint.");
             }
 
-            // Get the client
-            User currentUser = userService.findById(userId);
-            if (currentUser == null || !(currentUser instanceof Client)) {
-                return ResponseEntity.status(404).body("Client not found");
-            }
-
-            Client client = (Client) currentUser;
+            // Paniers are looked up by client id only
+            Client client = new Client();
+            client.setId(principal.getId());
             List<Panier> orders = panierService.getAllPanierByClient(client);
             return ResponseEntity.ok(orders != null ? orders : new ArrayList<>());
 
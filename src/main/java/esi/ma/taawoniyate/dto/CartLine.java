@@ -0,0 +1,47 @@
+package esi.ma.taawoniyate.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// One line of a cart submitted at checkout
+public class CartLine {
+    private long productId;
+    private int quantity;
+
+    public CartLine() {}
+
+    public CartLine(long productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Reads the lines of a /api/panier/save-cart body: {"items": [{"productId": 1, "quantity": 2}, ...]}.
+     * Other item fields (price) are ignored; the price is always taken from the product.
+     *
+     * @throws IllegalArgumentException if there are no items or an item lacks a numeric productId/quantity
+     */
+    public static List<CartLine> fromPayload(Map<String, Object> payload) {
+        if (!(payload.get("items") instanceof List<?> items) || items.isEmpty()) {
+            throw new IllegalArgumentException("No items in cart");
+        }
+        List<CartLine> lines = new ArrayList<>(items.size());
+        for (Object item : items) {
+            if (!(item instanceof Map<?, ?> itemData)
+                    || !(itemData.get("productId") instanceof Number productId)
+                    || !(itemData.get("quantity") instanceof Number quantity)) {
+                throw new IllegalArgumentException("Invalid cart item: " + item);
+            }
+            lines.add(new CartLine(productId.longValue(), quantity.intValue()));
+        }
+        return lines;
+    }
+
+    // Getters and setters
+    public long getProductId() { return productId; }
+    public void setProductId(long productId) { this.productId = productId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+}
@@ -0,0 +1,20 @@
+package esi.ma.taawoniyate.dto;
+
+public class FacetCount {
+    private String value;
+    private long count;
+
+    public FacetCount() {}
+
+    public FacetCount(String value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    // Getters and setters
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
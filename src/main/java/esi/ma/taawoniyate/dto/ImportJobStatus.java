@@ -0,0 +1,93 @@
+package esi.ma.taawoniyate.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ImportJobStatus {
+    private String jobId;
+    private String status;
+    private String format;
+    private long bytesRead;
+    private long totalBytes;
+    private int processed;
+    private int imported;
+    private int failed;
+    private int imagesPending;
+    private int imagesStored;
+    private int imagesFailed;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static class RowError {
+        private int row;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        // Getters and setters
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    public ImportJobStatus() {}
+
+    // Getters and setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public long getBytesRead() { return bytesRead; }
+    public void setBytesRead(long bytesRead) { this.bytesRead = bytesRead; }
+
+    public long getTotalBytes() { return totalBytes; }
+    public void setTotalBytes(long totalBytes) { this.totalBytes = totalBytes; }
+
+    public int getProcessed() { return processed; }
+    public void setProcessed(int processed) { this.processed = processed; }
+
+    public int getImported() { return imported; }
+    public void setImported(int imported) { this.imported = imported; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public int getImagesPending() { return imagesPending; }
+    public void setImagesPending(int imagesPending) { this.imagesPending = imagesPending; }
+
+    public int getImagesStored() { return imagesStored; }
+    public void setImagesStored(int imagesStored) { this.imagesStored = imagesStored; }
+
+    public int getImagesFailed() { return imagesFailed; }
+    public void setImagesFailed(int imagesFailed) { this.imagesFailed = imagesFailed; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,47 @@
+package esi.ma.taawoniyate.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Answer of /api/admin/statistics. Clients include sellers (a seller is a client that also sells).
+public class PlatformStatistics {
+    private long totalUsers;
+    private long totalClients;
+    private long totalSellers;
+    private long totalOrders;
+    private long totalOrderLines;
+    private BigDecimal grossMerchandiseValue;
+    private long activeSellers;
+    private int activeSellerDays;
+    private LocalDateTime reconciledAt;
+
+    public PlatformStatistics() {}
+
+    // Getters and setters
+    public long getTotalUsers() { return totalUsers; }
+    public void setTotalUsers(long totalUsers) { this.totalUsers = totalUsers; }
+
+    public long getTotalClients() { return totalClients; }
+    public void setTotalClients(long totalClients) { this.totalClients = totalClients; }
+
+    public long getTotalSellers() { return totalSellers; }
+    public void setTotalSellers(long totalSellers) { this.totalSellers = totalSellers; }
+
+    public long getTotalOrders() { return totalOrders; }
+    public void setTotalOrders(long totalOrders) { this.totalOrders = totalOrders; }
+
+    public long getTotalOrderLines() { return totalOrderLines; }
+    public void setTotalOrderLines(long totalOrderLines) { this.totalOrderLines = totalOrderLines; }
+
+    public BigDecimal getGrossMerchandiseValue() { return grossMerchandiseValue; }
+    public void setGrossMerchandiseValue(BigDecimal grossMerchandiseValue) { this.grossMerchandiseValue = grossMerchandiseValue; }
+
+    public long getActiveSellers() { return activeSellers; }
+    public void setActiveSellers(long activeSellers) { this.activeSellers = activeSellers; }
+
+    public int getActiveSellerDays() { return activeSellerDays; }
+    public void setActiveSellerDays(int activeSellerDays) { this.activeSellerDays = activeSellerDays; }
+
+    public LocalDateTime getReconciledAt() { return reconciledAt; }
+    public void setReconciledAt(LocalDateTime reconciledAt) { this.reconciledAt = reconciledAt; }
+}
@@ -0,0 +1,42 @@
+package esi.ma.taawoniyate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Who is making the request: the part of the profile that authenticated endpoints need for
+// checks and display. Built from the token claims when the token's profile version is current,
+// otherwise from the cached UserProfile.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class PrincipalProfile {
+    private final long id;
+    private final String role;
+    private final String fullName;
+    private final String businessName;
+    private final int profileVersion;
+
+    public PrincipalProfile(long id, String role, String fullName, String businessName, int profileVersion) {
+        this.id = id;
+        this.role = role;
+        this.fullName = fullName;
+        this.businessName = businessName;
+        this.profileVersion = profileVersion;
+    }
+
+    public static PrincipalProfile of(UserProfile profile, int profileVersion) {
+        return new PrincipalProfile(profile.getId(), profile.getRole(), profile.getFullName(),
+                profile.getBusinessName(), profileVersion);
+    }
+
+    public boolean hasRole(String role) {
+        return role.equalsIgnoreCase(this.role);
+    }
+
+    public long getId() { return id; }
+
+    public String getRole() { return role; }
+
+    public String getFullName() { return fullName; }
+
+    public String getBusinessName() { return businessName; }
+
+    public int getProfileVersion() { return profileVersion; }
+}
@@ -0,0 +1,53 @@
+package esi.ma.taawoniyate.dto;
+
+// Flat read model used by the catalog listing. Built directly by a JPQL
+// constructor expression so no Product entity (and no lazy association) is loaded.
+public class ProductCard {
+    private long id;
+    private String name;
+    private double price;
+    private int quantity;
+    private String category;
+    private String seller;
+    private String image;
+    private String thumbnail;
+
+    public ProductCard() {}
+
+    public ProductCard(long id, String name, double price, int quantity,
+                       String category, String seller, String image, String thumbnail) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.quantity = quantity;
+        this.category = category;
+        this.seller = seller;
+        this.image = image;
+        this.thumbnail = thumbnail != null ? thumbnail : image;
+    }
+
+    // Getters and setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public double getPrice() { return price; }
+    public void setPrice(double price) { this.price = price; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getSeller() { return seller; }
+    public void setSeller(String seller) { this.seller = seller; }
+
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; }
+
+    public String getThumbnail() { return thumbnail; }
+    public void setThumbnail(String thumbnail) { this.thumbnail = thumbnail; }
+}
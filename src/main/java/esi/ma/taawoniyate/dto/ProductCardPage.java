@@ -0,0 +1,27 @@
+package esi.ma.taawoniyate.dto;
+
+import java.util.List;
+
+public class ProductCardPage {
+    private List<ProductCard> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ProductCardPage() {}
+
+    public ProductCardPage(List<ProductCard> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // Getters and setters
+    public List<ProductCard> getItems() { return items; }
+    public void setItems(List<ProductCard> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
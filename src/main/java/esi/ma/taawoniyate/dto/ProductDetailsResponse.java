@@ -13,6 +13,7 @@ public class ProductDetailsResponse {
     private int quantity;
     private String category;
     private List<String> images;
+    private List<ProductImageVariants> imageVariants;
     private SellerInfo seller;
 
     public static class SellerInfo {
@@ -74,19 +75,11 @@ public class ProductDetailsResponse {
         this.quantity = product.getQuantity();
         this.category = product.getCategory();
         this.images = product.getImages();
-        
-        // Get the seller entity using reflection or a custom method
-        // Since seller is @JsonIgnore, we need to access it directly
-        try {
-            java.lang.reflect.Field sellerField = Product.class.getDeclaredField("seller");
-            sellerField.setAccessible(true);
-            Seller sellerEntity = (Seller) sellerField.get(product);
-            if (sellerEntity != null) {
-                this.seller = new SellerInfo(sellerEntity);
-            }
-        } catch (Exception e) {
-            // Handle reflection error
-            this.seller = null;
+        this.imageVariants = product.getImageEntities().stream().map(ProductImageVariants::new).toList();
+
+        Seller sellerEntity = product.getSellerEntity();
+        if (sellerEntity != null) {
+            this.seller = new SellerInfo(sellerEntity);
         }
     }
 
@@ -112,6 +105,9 @@ public class ProductDetailsResponse {
     public List<String> getImages() { return images; }
     public void setImages(List<String> images) { this.images = images; }
 
+    public List<ProductImageVariants> getImageVariants() { return imageVariants; }
+    public void setImageVariants(List<ProductImageVariants> imageVariants) { this.imageVariants = imageVariants; }
+
     public SellerInfo getSeller() { return seller; }
     public void setSeller(SellerInfo seller) { this.seller = seller; }
 }
@@ -0,0 +1,50 @@
+package esi.ma.taawoniyate.dto;
+
+import java.util.List;
+
+// Criteria for /store/products/filter. Values inside one list are OR-ed, the lists are AND-ed.
+public class ProductFilter {
+    private List<String> categories = List.of();
+    private List<String> sellers = List.of();
+    private List<String> cities = List.of();
+    private List<String> regions = List.of();
+    private Double minPrice;
+    private Double maxPrice;
+    private boolean inStock;
+    private ProductSort sort = ProductSort.NEWEST;
+    private int page;
+    private int size = 20;
+
+    public ProductFilter() {}
+
+    // Getters and setters
+    public List<String> getCategories() { return categories; }
+    public void setCategories(List<String> categories) { this.categories = categories != null ? categories : List.of(); }
+
+    public List<String> getSellers() { return sellers; }
+    public void setSellers(List<String> sellers) { this.sellers = sellers != null ? sellers : List.of(); }
+
+    public List<String> getCities() { return cities; }
+    public void setCities(List<String> cities) { this.cities = cities != null ? cities : List.of(); }
+
+    public List<String> getRegions() { return regions; }
+    public void setRegions(List<String> regions) { this.regions = regions != null ? regions : List.of(); }
+
+    public Double getMinPrice() { return minPrice; }
+    public void setMinPrice(Double minPrice) { this.minPrice = minPrice; }
+
+    public Double getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(Double maxPrice) { this.maxPrice = maxPrice; }
+
+    public boolean isInStock() { return inStock; }
+    public void setInStock(boolean inStock) { this.inStock = inStock; }
+
+    public ProductSort getSort() { return sort; }
+    public void setSort(ProductSort sort) { this.sort = sort != null ? sort : ProductSort.NEWEST; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
@@ -0,0 +1,42 @@
+package esi.ma.taawoniyate.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductFilterResult {
+    private List<ProductCard> items;
+    private long total;
+    private int page;
+    private int size;
+    // Facet name (category, seller, city, region, price, inStock) -> value counts. Each facet is
+    // counted with every other active filter applied, but not its own, so the sidebar can offer
+    // alternatives to the current selection.
+    private Map<String, List<FacetCount>> facets;
+
+    public ProductFilterResult() {}
+
+    public ProductFilterResult(List<ProductCard> items, long total, int page, int size,
+                               Map<String, List<FacetCount>> facets) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.facets = facets;
+    }
+
+    // Getters and setters
+    public List<ProductCard> getItems() { return items; }
+    public void setItems(List<ProductCard> items) { this.items = items; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public Map<String, List<FacetCount>> getFacets() { return facets; }
+    public void setFacets(Map<String, List<FacetCount>> facets) { this.facets = facets; }
+}
@@ -0,0 +1,38 @@
+package esi.ma.taawoniyate.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ProductImageStatus {
+    private long productId;
+    private String status; // NONE, PENDING, DONE
+    private int pending;
+    private int stored;
+    private int failed;
+    private List<String> errors;
+    private LocalDateTime updatedAt;
+
+    public ProductImageStatus() {}
+
+    // Getters and setters
+    public long getProductId() { return productId; }
+    public void setProductId(long productId) { this.productId = productId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getPending() { return pending; }
+    public void setPending(int pending) { this.pending = pending; }
+
+    public int getStored() { return stored; }
+    public void setStored(int stored) { this.stored = stored; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<String> getErrors() { return errors; }
+    public void setErrors(List<String> errors) { this.errors = errors; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
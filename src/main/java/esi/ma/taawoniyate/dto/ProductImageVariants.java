@@ -0,0 +1,37 @@
+package esi.ma.taawoniyate.dto;
+
+import esi.ma.taawoniyate.model.ProductImage;
+
+// One product image in every size; a size that was not generated falls back to the original
+public class ProductImageVariants {
+    private String original;
+    private String thumbnail;
+    private String detail;
+    private String zoom;
+
+    public ProductImageVariants() {}
+
+    public ProductImageVariants(ProductImage image) {
+        this.original = image.getImageUrl();
+        this.thumbnail = orOriginal(image.getThumbnailUrl());
+        this.detail = orOriginal(image.getDetailUrl());
+        this.zoom = orOriginal(image.getZoomUrl());
+    }
+
+    private String orOriginal(String url) {
+        return url != null ? url : original;
+    }
+
+    // Getters and setters
+    public String getOriginal() { return original; }
+    public void setOriginal(String original) { this.original = original; }
+
+    public String getThumbnail() { return thumbnail; }
+    public void setThumbnail(String thumbnail) { this.thumbnail = thumbnail; }
+
+    public String getDetail() { return detail; }
+    public void setDetail(String detail) { this.detail = detail; }
+
+    public String getZoom() { return zoom; }
+    public void setZoom(String zoom) { this.zoom = zoom; }
+}
@@ -0,0 +1,15 @@
+package esi.ma.taawoniyate.dto;
+
+public enum ProductSort {
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC;
+
+    // Accepts "newest", "price_asc", "price-asc", ... (case-insensitive)
+    public static ProductSort from(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        return ProductSort.valueOf(value.trim().replace('-', '_').toUpperCase());
+    }
+}
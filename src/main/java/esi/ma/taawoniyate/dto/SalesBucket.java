@@ -0,0 +1,44 @@
+package esi.ma.taawoniyate.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// A seller's sales over one day, week or month (JPQL constructor projection for days)
+public class SalesBucket {
+    private LocalDate start;
+    private long units;
+    private BigDecimal revenue;
+    private long orderLines;
+
+    public SalesBucket() {}
+
+    public SalesBucket(LocalDate start) {
+        this(start, 0L, BigDecimal.ZERO, 0L);
+    }
+
+    public SalesBucket(LocalDate start, Long units, BigDecimal revenue, Long orderLines) {
+        this.start = start;
+        this.units = units != null ? units : 0;
+        this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+        this.orderLines = orderLines != null ? orderLines : 0;
+    }
+
+    public void add(SalesBucket other) {
+        units += other.units;
+        revenue = revenue.add(other.revenue);
+        orderLines += other.orderLines;
+    }
+
+    // Getters and setters
+    public LocalDate getStart() { return start; }
+    public void setStart(LocalDate start) { this.start = start; }
+
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+
+    public long getOrderLines() { return orderLines; }
+    public void setOrderLines(long orderLines) { this.orderLines = orderLines; }
+}
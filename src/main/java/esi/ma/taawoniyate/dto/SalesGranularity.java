@@ -0,0 +1,44 @@
+package esi.ma.taawoniyate.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+public enum SalesGranularity {
+    DAY,
+    WEEK,
+    MONTH;
+
+    // Accepts "day", "week", "month" (case-insensitive)
+    public static SalesGranularity from(String value) {
+        if (value == null || value.isBlank()) {
+            return DAY;
+        }
+        return SalesGranularity.valueOf(value.trim().toUpperCase());
+    }
+
+    // First day of the bucket holding the day; weeks start on Monday
+    public LocalDate bucketStart(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(DayOfWeek.MONDAY);
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    // Start of a default report ending on the given day: 30 days, 12 weeks or 12 months
+    public LocalDate defaultFrom(LocalDate to) {
+        return switch (this) {
+            case DAY -> to.minusDays(29);
+            case WEEK -> bucketStart(to).minusWeeks(11);
+            case MONTH -> bucketStart(to).minusMonths(11);
+        };
+    }
+
+    public LocalDate next(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package esi.ma.taawoniyate.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// An order as seen by one seller: only the lines of that seller's products
+public class SellerOrder {
+    private int orderId;
+    private LocalDateTime orderDate;
+    private ClientInfo client;
+    private List<Item> items = new ArrayList<>();
+    private BigDecimal total = BigDecimal.ZERO;
+
+    public static class ClientInfo {
+        private long id;
+        private String fullName;
+        private String email;
+        private String phone;
+        private String address;
+        private String city;
+        private String region;
+
+        public ClientInfo() {}
+
+        public ClientInfo(SellerOrderLine line) {
+            this.id = line.getClientId();
+            this.fullName = line.getClientFullName();
+            this.email = line.getClientEmail();
+            this.phone = line.getClientPhone();
+            this.address = line.getClientAddress();
+            this.city = line.getClientCity();
+            this.region = line.getClientRegion();
+        }
+
+        // Getters and setters
+        public long getId() { return id; }
+        public void setId(long id) { this.id = id; }
+
+        public String getFullName() { return fullName; }
+        public void setFullName(String fullName) { this.fullName = fullName; }
+
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+
+        public String getPhone() { return phone; }
+        public void setPhone(String phone) { this.phone = phone; }
+
+        public String getAddress() { return address; }
+        public void setAddress(String address) { this.address = address; }
+
+        public String getCity() { return city; }
+        public void setCity(String city) { this.city = city; }
+
+        public String getRegion() { return region; }
+        public void setRegion(String region) { this.region = region; }
+    }
+
+    public static class Item {
+        private ProductRef product;
+        private int quantity;
+        private BigDecimal price;
+
+        public Item() {}
+
+        public Item(SellerOrderLine line) {
+            this.product = new ProductRef(line.getProductId(), line.getProductName());
+            this.quantity = line.getQuantity();
+            this.price = line.getPrice();
+        }
+
+        // Getters and setters
+        public ProductRef getProduct() { return product; }
+        public void setProduct(ProductRef product) { this.product = product; }
+
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+
+        public BigDecimal getPrice() { return price; }
+        public void setPrice(BigDecimal price) { this.price = price; }
+    }
+
+    public static class ProductRef {
+        private Long id;
+        private String name;
+
+        public ProductRef() {}
+
+        public ProductRef(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        // Getters and setters
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+    }
+
+    public SellerOrder() {}
+
+    public SellerOrder(SellerOrderLine first) {
+        this.orderId = first.getOrderId();
+        this.orderDate = first.getOrderDate();
+        this.client = new ClientInfo(first);
+    }
+
+    public void addLine(SellerOrderLine line) {
+        items.add(new Item(line));
+        if (line.getPrice() != null) {
+            total = total.add(line.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+        }
+    }
+
+    // Getters and setters
+    public int getOrderId() { return orderId; }
+    public void setOrderId(int orderId) { this.orderId = orderId; }
+
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+
+    public ClientInfo getClient() { return client; }
+    public void setClient(ClientInfo client) { this.client = client; }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+}
@@ -0,0 +1,66 @@
+package esi.ma.taawoniyate.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One order line of a seller, flattened with its order and client (JPQL constructor projection)
+public class SellerOrderLine {
+    private final int orderId;
+    private final LocalDateTime orderDate;
+    private final long clientId;
+    private final String clientFullName;
+    private final String clientEmail;
+    private final String clientPhone;
+    private final String clientAddress;
+    private final String clientCity;
+    private final String clientRegion;
+    private final Long productId;
+    private final String productName;
+    private final int quantity;
+    private final BigDecimal price;
+
+    public SellerOrderLine(int orderId, LocalDateTime orderDate,
+                           long clientId, String clientFullName, String clientEmail, String clientPhone,
+                           String clientAddress, String clientCity, String clientRegion,
+                           Long productId, String productName, Integer quantity, BigDecimal price) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+        this.clientId = clientId;
+        this.clientFullName = clientFullName;
+        this.clientEmail = clientEmail;
+        this.clientPhone = clientPhone;
+        this.clientAddress = clientAddress;
+        this.clientCity = clientCity;
+        this.clientRegion = clientRegion;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity != null ? quantity : 0;
+        this.price = price;
+    }
+
+    public int getOrderId() { return orderId; }
+
+    public LocalDateTime getOrderDate() { return orderDate; }
+
+    public long getClientId() { return clientId; }
+
+    public String getClientFullName() { return clientFullName; }
+
+    public String getClientEmail() { return clientEmail; }
+
+    public String getClientPhone() { return clientPhone; }
+
+    public String getClientAddress() { return clientAddress; }
+
+    public String getClientCity() { return clientCity; }
+
+    public String getClientRegion() { return clientRegion; }
+
+    public Long getProductId() { return productId; }
+
+    public String getProductName() { return productName; }
+
+    public int getQuantity() { return quantity; }
+
+    public BigDecimal getPrice() { return price; }
+}
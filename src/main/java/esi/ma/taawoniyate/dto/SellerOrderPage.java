@@ -0,0 +1,27 @@
+package esi.ma.taawoniyate.dto;
+
+import java.util.List;
+
+public class SellerOrderPage {
+    private List<SellerOrder> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public SellerOrderPage() {}
+
+    public SellerOrderPage(List<SellerOrder> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // Getters and setters
+    public List<SellerOrder> getItems() { return items; }
+    public void setItems(List<SellerOrder> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
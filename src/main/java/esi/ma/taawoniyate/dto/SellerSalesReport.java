@@ -0,0 +1,48 @@
+package esi.ma.taawoniyate.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// A seller's sales between two days (inclusive), one bucket per day, week or month, empty ones included
+public class SellerSalesReport {
+    private SalesGranularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private long totalUnits;
+    private BigDecimal totalRevenue;
+    private List<SalesBucket> buckets;
+
+    public SellerSalesReport() {}
+
+    public SellerSalesReport(SalesGranularity granularity, LocalDate from, LocalDate to, List<SalesBucket> buckets) {
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+        this.totalRevenue = BigDecimal.ZERO;
+        for (SalesBucket bucket : buckets) {
+            totalUnits += bucket.getUnits();
+            totalRevenue = totalRevenue.add(bucket.getRevenue());
+        }
+    }
+
+    // Getters and setters
+    public SalesGranularity getGranularity() { return granularity; }
+    public void setGranularity(SalesGranularity granularity) { this.granularity = granularity; }
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public long getTotalUnits() { return totalUnits; }
+    public void setTotalUnits(long totalUnits) { this.totalUnits = totalUnits; }
+
+    public BigDecimal getTotalRevenue() { return totalRevenue; }
+    public void setTotalRevenue(BigDecimal totalRevenue) { this.totalRevenue = totalRevenue; }
+
+    public List<SalesBucket> getBuckets() { return buckets; }
+    public void setBuckets(List<SalesBucket> buckets) { this.buckets = buckets; }
+}
@@ -0,0 +1,33 @@
+package esi.ma.taawoniyate.dto;
+
+import java.math.BigDecimal;
+
+// A product's sales for its seller over a period (JPQL constructor projection); name is null once deleted
+public class SellerTopProduct {
+    private long productId;
+    private String name;
+    private long units;
+    private BigDecimal revenue;
+
+    public SellerTopProduct() {}
+
+    public SellerTopProduct(long productId, String name, Long units, BigDecimal revenue) {
+        this.productId = productId;
+        this.name = name;
+        this.units = units != null ? units : 0;
+        this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+    }
+
+    // Getters and setters
+    public long getProductId() { return productId; }
+    public void setProductId(long productId) { this.productId = productId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+}
@@ -0,0 +1,31 @@
+package esi.ma.taawoniyate.dto;
+
+// A cart line that could not be reserved (JPQL constructor projection): the units it needed beyond what
+// the client's panier already held, and the units left
+public class StockShortage {
+    private long productId;
+    private String productName;
+    private int requested;
+    private int available;
+
+    public StockShortage() {}
+
+    public StockShortage(long productId, String productName, Integer available) {
+        this.productId = productId;
+        this.productName = productName;
+        this.available = available != null ? available : 0;
+    }
+
+    // Getters and setters
+    public long getProductId() { return productId; }
+    public void setProductId(long productId) { this.productId = productId; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public int getRequested() { return requested; }
+    public void setRequested(int requested) { this.requested = requested; }
+
+    public int getAvailable() { return available; }
+    public void setAvailable(int available) { this.available = available; }
+}
@@ -0,0 +1,57 @@
+package esi.ma.taawoniyate.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import esi.ma.taawoniyate.model.Seller;
+import esi.ma.taawoniyate.model.User;
+
+// Immutable snapshot of a user's public profile. This is what gets cached and returned by
+// /api/users/me: no password, no lazy collections, safe to share between requests.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class UserProfile {
+    private final long id;
+    private final String fullName;
+    private final String email;
+    private final String role;
+    private final String city;
+    private final String region;
+    private final String address;
+    private final String phone;
+    private final String businessName;
+
+    public UserProfile(long id, String fullName, String email, String role, String city,
+                       String region, String address, String phone, String businessName) {
+        this.id = id;
+        this.fullName = fullName;
+        this.email = email;
+        this.role = role;
+        this.city = city;
+        this.region = region;
+        this.address = address;
+        this.phone = phone;
+        this.businessName = businessName;
+    }
+
+    public static UserProfile of(User user) {
+        String businessName = user instanceof Seller ? ((Seller) user).getBusinessName() : null;
+        return new UserProfile(user.getId(), user.getFullName(), user.getEmail(), user.getRole(),
+                user.getCity(), user.getRegion(), user.getAddress(), user.getPhone(), businessName);
+    }
+
+    public long getId() { return id; }
+
+    public String getFullName() { return fullName; }
+
+    public String getEmail() { return email; }
+
+    public String getRole() { return role; }
+
+    public String getCity() { return city; }
+
+    public String getRegion() { return region; }
+
+    public String getAddress() { return address; }
+
+    public String getPhone() { return phone; }
+
+    public String getBusinessName() { return businessName; }
+}
@@ -0,0 +1,38 @@
+package esi.ma.taawoniyate.event;
+
+// Published by the controllers after a category has been created or deleted.
+public class CategoryChangedEvent {
+
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+
+    private final String name;
+    private final Type type;
+
+    public CategoryChangedEvent(String name, Type type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public static CategoryChangedEvent saved(String name) {
+        return new CategoryChangedEvent(name, Type.SAVED);
+    }
+
+    public static CategoryChangedEvent deleted(String name) {
+        return new CategoryChangedEvent(name, Type.DELETED);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isDeleted() {
+        return type == Type.DELETED;
+    }
+}
@@ -0,0 +1,81 @@
+package esi.ma.taawoniyate.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Published by PanierService when a panier's lines were written: a new order, or the client's latest
+// panier whose lines a checkout replaced. Carries the lines before and after the write, so listeners
+// keeping running totals apply the difference instead of re-reading the order history.
+public class OrderSavedEvent {
+
+    private final int panierId;
+    private final boolean created;
+    private final List<Line> removed;
+    private final List<Line> added;
+
+    public OrderSavedEvent(int panierId, boolean created, List<Line> removed, List<Line> added) {
+        this.panierId = panierId;
+        this.created = created;
+        this.removed = List.copyOf(removed);
+        this.added = List.copyOf(added);
+    }
+
+    public int getPanierId() {
+        return panierId;
+    }
+
+    // False when the lines of an existing panier were replaced
+    public boolean isCreated() {
+        return created;
+    }
+
+    public List<Line> getRemoved() {
+        return removed;
+    }
+
+    public List<Line> getAdded() {
+        return added;
+    }
+
+    // One order line as written; productId is null for lines whose product is unknown
+    public static final class Line {
+        private final long sellerId;
+        private final Long productId;
+        private final int quantity;
+        private final BigDecimal price;
+        private final LocalDate day;
+
+        public Line(long sellerId, Long productId, int quantity, BigDecimal price, LocalDate day) {
+            this.sellerId = sellerId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.price = price;
+            this.day = day;
+        }
+
+        public long getSellerId() {
+            return sellerId;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public BigDecimal getAmount() {
+            return price.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+}
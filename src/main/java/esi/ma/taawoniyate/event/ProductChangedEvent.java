@@ -0,0 +1,39 @@
+package esi.ma.taawoniyate.event;
+
+// Published by the controllers after a product (or one of its images) has been written.
+// Listeners keep their in-memory views of the catalog in sync from it.
+public class ProductChangedEvent {
+
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+
+    private final long productId;
+    private final Type type;
+
+    public ProductChangedEvent(long productId, Type type) {
+        this.productId = productId;
+        this.type = type;
+    }
+
+    public static ProductChangedEvent saved(long productId) {
+        return new ProductChangedEvent(productId, Type.SAVED);
+    }
+
+    public static ProductChangedEvent deleted(long productId) {
+        return new ProductChangedEvent(productId, Type.DELETED);
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isDeleted() {
+        return type == Type.DELETED;
+    }
+}
@@ -0,0 +1,16 @@
+package esi.ma.taawoniyate.event;
+
+// Published by the user services when a seller's profile has been saved or the seller deleted.
+// Listeners holding denormalized seller data (business name, contact details) refresh from it.
+public class SellerChangedEvent {
+
+    private final long sellerId;
+
+    public SellerChangedEvent(long sellerId) {
+        this.sellerId = sellerId;
+    }
+
+    public long getSellerId() {
+        return sellerId;
+    }
+}
@@ -0,0 +1,30 @@
+package esi.ma.taawoniyate.event;
+
+import esi.ma.taawoniyate.model.User;
+
+// Published by the user services when an account was created (delta 1) or deleted (delta -1). The
+// type is the entity class, so a seller also counts as a client, as in the users table.
+public class UserCountChangedEvent {
+
+    private final long userId;
+    private final Class<? extends User> type;
+    private final int delta;
+
+    public UserCountChangedEvent(long userId, Class<? extends User> type, int delta) {
+        this.userId = userId;
+        this.type = type;
+        this.delta = delta;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public Class<? extends User> getType() {
+        return type;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+}
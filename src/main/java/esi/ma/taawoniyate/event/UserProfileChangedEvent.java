@@ -0,0 +1,22 @@
+package esi.ma.taawoniyate.event;
+
+// Published by UserService when a user's profile version was bumped (or the user deleted, with a
+// null version). Tokens carrying an older version stop being trusted for their profile claims.
+public class UserProfileChangedEvent {
+
+    private final long userId;
+    private final Integer profileVersion;
+
+    public UserProfileChangedEvent(long userId, Integer profileVersion) {
+        this.userId = userId;
+        this.profileVersion = profileVersion;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public Integer getProfileVersion() {
+        return profileVersion;
+    }
+}
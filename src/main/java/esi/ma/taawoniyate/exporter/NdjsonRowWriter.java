@@ -0,0 +1,65 @@
+package esi.ma.taawoniyate.exporter;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * One JSON object per line, keyed by the header columns. Rows go straight through a streaming
+ * generator, so no map or tree is built per row. Dates are written as ISO-8601 strings.
+ */
+public class NdjsonRowWriter implements RowWriter {
+
+    private final JsonGenerator generator;
+    private String[] columns;
+
+    public NdjsonRowWriter(OutputStream out, JsonFactory jsonFactory) throws IOException {
+        this.generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        // Rows end with their own newline instead of the default space between root values
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void writeHeader(String[] columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            generator.writeFieldName(columns[i]);
+            writeValue(values[i]);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (value instanceof BigInteger integer) {
+            generator.writeNumber(integer);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.doubleValue());
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
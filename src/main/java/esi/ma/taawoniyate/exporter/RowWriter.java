@@ -0,0 +1,55 @@
+package esi.ma.taawoniyate.exporter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * Writes export rows to a stream as they come, without keeping them. Values are the scalar
+ * columns of a query row (strings, numbers, booleans, dates or null), in header order.
+ * The writer never closes the underlying stream; the caller flushes it at the end.
+ */
+public interface RowWriter {
+
+    enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+
+        public String getExtension() { return extension; }
+
+        // NDJSON by default; "jsonl" and "json" are accepted as aliases
+        public static Format of(String format) {
+            if (format == null || format.isBlank()) {
+                return NDJSON;
+            }
+            String value = format.trim().toUpperCase(Locale.ROOT);
+            if (value.equals("JSONL") || value.equals("JSON")) {
+                return NDJSON;
+            }
+            return Format.valueOf(value);
+        }
+    }
+
+    void writeHeader(String[] columns) throws IOException;
+
+    void writeRow(Object[] values) throws IOException;
+
+    // Pushes buffered rows to the client; called periodically so long exports show progress
+    void flush() throws IOException;
+
+    static RowWriter open(Format format, OutputStream out, JsonFactory jsonFactory) throws IOException {
+        return format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out, jsonFactory);
+    }
+}
@@ -0,0 +1,156 @@
+package esi.ma.taawoniyate.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV: comma separated, fields optionally quoted, "" for a quote inside a quoted field,
+ * quoted fields may span lines. The first record is the header; columns are matched by name
+ * (case-insensitive, any order) and unknown columns are ignored.
+ */
+public class CsvProductRowReader implements ProductRowReader {
+
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final String[] REQUIRED_COLUMNS = {"name", "price", "quantity", "category"};
+
+    private final BufferedReader in;
+    private Map<String, Integer> columns;
+    private int row;
+
+    public CsvProductRowReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+        row++;
+
+        String name = field(fields, "name");
+        String description = field(fields, "description");
+        String category = field(fields, "category");
+        List<String> images = ProductRowReader.splitImageUrls(field(fields, "images"));
+        Double price;
+        Integer quantity;
+        try {
+            price = parseDouble(field(fields, "price"));
+        } catch (NumberFormatException e) {
+            return ProductImportRow.invalid(row, "Invalid price: " + field(fields, "price"));
+        }
+        try {
+            quantity = parseInt(field(fields, "quantity"));
+        } catch (NumberFormatException e) {
+            return ProductImportRow.invalid(row, "Invalid quantity: " + field(fields, "quantity"));
+        }
+        return ProductImportRow.of(row, name, description, price, quantity, category, images);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IOException("Empty file");
+        }
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+            // Byte order mark left by spreadsheet exports
+            if (i == 0 && column.startsWith("\uFEFF")) {
+                column = column.substring(1);
+            }
+            columns.putIfAbsent(column, i);
+        }
+        List<String> missing = new ArrayList<>();
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                missing.add(required);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IOException("Missing CSV column(s): " + String.join(", ", missing));
+        }
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // One record, or null at the end of the input
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int length = 0;
+        int c;
+        while ((c = in.read()) != -1) {
+            read = true;
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new IOException("CSV record longer than " + MAX_RECORD_LENGTH + " characters after row " + row);
+            }
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    in.mark(1);
+                    int following = in.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (following != -1) {
+                            in.reset();
+                        }
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Double parseDouble(String value) {
+        return value == null ? null : Double.valueOf(value.replace(',', '.'));
+    }
+
+    private static Integer parseInt(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+}
@@ -0,0 +1,87 @@
+package esi.ma.taawoniyate.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Newline-delimited JSON: one product object per line, blank lines skipped
+public class NdjsonProductRowReader implements ProductRowReader {
+
+    private final BufferedReader in;
+    private final ObjectMapper objectMapper;
+    private int row;
+
+    public NdjsonProductRowReader(BufferedReader in, ObjectMapper objectMapper) {
+        this.in = in;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        row++;
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return ProductImportRow.invalid(row, "Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            return ProductImportRow.invalid(row, "Expected a JSON object");
+        }
+
+        Double price;
+        Integer quantity;
+        try {
+            price = node.hasNonNull("price") ? Double.valueOf(node.get("price").asText().replace(',', '.')) : null;
+        } catch (NumberFormatException e) {
+            return ProductImportRow.invalid(row, "Invalid price: " + node.get("price"));
+        }
+        try {
+            quantity = node.hasNonNull("quantity") ? Integer.valueOf(node.get("quantity").asText()) : null;
+        } catch (NumberFormatException e) {
+            return ProductImportRow.invalid(row, "Invalid quantity: " + node.get("quantity"));
+        }
+
+        List<String> images = new ArrayList<>();
+        JsonNode imagesNode = node.get("images");
+        if (imagesNode != null && imagesNode.isArray()) {
+            imagesNode.forEach(url -> {
+                if (url.isTextual() && !url.asText().isBlank()) {
+                    images.add(url.asText().trim());
+                }
+            });
+        } else if (imagesNode != null && imagesNode.isTextual()) {
+            images.addAll(ProductRowReader.splitImageUrls(imagesNode.asText()));
+        }
+
+        return ProductImportRow.of(row, text(node, "name"), text(node, "description"), price, quantity,
+                text(node, "category"), images);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+}
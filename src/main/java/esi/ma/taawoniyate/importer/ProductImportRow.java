@@ -0,0 +1,57 @@
+package esi.ma.taawoniyate.importer;
+
+import java.util.List;
+
+// One record of an import file. Rows that could not be parsed carry an error instead of values.
+public class ProductImportRow {
+    private final int row;
+    private final String name;
+    private final String description;
+    private final Double price;
+    private final Integer quantity;
+    private final String category;
+    private final List<String> imageUrls;
+    private final String error;
+
+    private ProductImportRow(int row, String name, String description, Double price, Integer quantity,
+                             String category, List<String> imageUrls, String error) {
+        this.row = row;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.category = category;
+        this.imageUrls = imageUrls;
+        this.error = error;
+    }
+
+    public static ProductImportRow of(int row, String name, String description, Double price, Integer quantity,
+                                      String category, List<String> imageUrls) {
+        return new ProductImportRow(row, name, description, price, quantity, category,
+                imageUrls != null ? imageUrls : List.of(), null);
+    }
+
+    public static ProductImportRow invalid(int row, String error) {
+        return new ProductImportRow(row, null, null, null, null, null, List.of(), error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    public int getRow() { return row; }
+
+    public String getName() { return name; }
+
+    public String getDescription() { return description; }
+
+    public Double getPrice() { return price; }
+
+    public Integer getQuantity() { return quantity; }
+
+    public String getCategory() { return category; }
+
+    public List<String> getImageUrls() { return imageUrls; }
+
+    public String getError() { return error; }
+}
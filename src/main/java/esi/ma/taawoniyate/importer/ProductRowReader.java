@@ -0,0 +1,66 @@
+package esi.ma.taawoniyate.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams the rows of a product import file, one record in memory at a time.
+ *
+ * Both formats carry the same fields: name, description, price, quantity, category and images
+ * (image URLs; in CSV separated by '|', ';' or whitespace).
+ */
+public interface ProductRowReader extends Closeable {
+
+    enum Format {
+        CSV,
+        NDJSON;
+
+        // Explicit format first, then the file extension, then the content type; CSV by default
+        public static Format detect(String format, String filename, String contentType) {
+            if (format != null && !format.isBlank()) {
+                String value = format.trim().toUpperCase(Locale.ROOT);
+                if (value.equals("JSONL") || value.equals("JSON")) {
+                    return NDJSON;
+                }
+                return Format.valueOf(value);
+            }
+            String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+            String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")
+                    || type.contains("ndjson") || type.contains("json")) {
+                return NDJSON;
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * The next row, or null at the end of the input. A malformed record yields a row with an
+     * error; an input that cannot be read at all (e.g. a CSV without the required columns)
+     * throws.
+     */
+    ProductImportRow next() throws IOException;
+
+    static ProductRowReader open(Format format, BufferedReader in, ObjectMapper objectMapper) {
+        return format == Format.NDJSON ? new NdjsonProductRowReader(in, objectMapper) : new CsvProductRowReader(in);
+    }
+
+    static List<String> splitImageUrls(String value) {
+        List<String> urls = new ArrayList<>();
+        if (value == null) {
+            return urls;
+        }
+        for (String url : value.split("[|;\\s]+")) {
+            if (!url.isBlank()) {
+                urls.add(url.trim());
+            }
+        }
+        return urls;
+    }
+}
@@ -45,6 +45,11 @@ public class Panier {
         return formatter.format(date);
     }
 
+    @JsonIgnore
+    public LocalDateTime getRawDate() {
+        return date;
+    }
+
     public void setDate(LocalDateTime date) {
         this.date = date;
     }
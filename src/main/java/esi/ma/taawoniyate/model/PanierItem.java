@@ -6,10 +6,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "panier_item")
+@Table(name = "panier_item", indexes = {
+        @Index(name = "idx_panier_item_seller_panier", columnList = "seller_id, panier_id")
+})
 public class PanierItem {
+    // Sequence ids (allocated 50 at a time) so a checkout's lines go out as one JDBC batch;
+    // IDENTITY would force a round trip per insert to read the generated key.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "panier_item_seq")
+    @SequenceGenerator(name = "panier_item_seq", sequenceName = "panier_item_sequence", allocationSize = 50)
     private long id;
 
     @Column(nullable = false)
@@ -74,6 +79,11 @@ public class PanierItem {
         return product != null ? product.getName() : null;
     }
 
+    @JsonIgnore
+    public Product getProductEntity() {
+        return product;
+    }
+
     public void setProduct(Product product) {
         this.product = product;
     }
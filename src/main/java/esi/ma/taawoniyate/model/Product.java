@@ -12,6 +12,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -19,7 +20,10 @@ import jakarta.persistence.Table;
 import lombok.Data;
 
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, product_id"),
+        @Index(name = "idx_product_seller_id", columnList = "seller_id, product_id")
+})
 @Data
 public class Product {
     @Id
@@ -121,6 +125,22 @@ public class Product {
         this.images = images;
     }
 
+    // Listing-size copy of each image, in the same order as getImages()
+    public List<String> getThumbnails() {
+        List<String> thumbnails = new ArrayList<>();
+        if (this.images != null) {
+            this.images.forEach(image -> thumbnails.add(
+                    image.getThumbnailUrl() != null ? image.getThumbnailUrl() : image.getImageUrl()));
+        }
+        return thumbnails;
+    }
+
+    // The image entities themselves, with every size; getImages() only exposes the original URLs to JSON
+    @JsonIgnore
+    public List<ProductImage> getImageEntities() {
+        return images != null ? images : new ArrayList<>();
+    }
+
     public String getSeller() {
         return seller.getBusinessName();
     }
@@ -128,6 +148,12 @@ public class Product {
         return seller.getFullName();
     }
 
+    // The seller entity itself; getSeller() only exposes the business name to JSON
+    @JsonIgnore
+    public Seller getSellerEntity() {
+        return seller;
+    }
+
     public void setSeller(Seller seller) {
         this.seller = seller;
     }
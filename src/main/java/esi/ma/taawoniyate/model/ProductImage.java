@@ -3,7 +3,9 @@ package esi.ma.taawoniyate.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "product_images")
+@Table(name = "product_images", indexes = {
+        @Index(name = "idx_product_images_product_id", columnList = "product_id, id")
+})
 public class ProductImage {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -12,6 +14,16 @@ public class ProductImage {
     @Column(nullable = false)
     private String imageUrl; // URL from Firebase Storage
 
+    // Resized copies (see ImageVariant); null when the original is already that small or could not be resized
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    @Column(name = "detail_url")
+    private String detailUrl;
+
+    @Column(name = "zoom_url")
+    private String zoomUrl;
+
     @ManyToOne
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
@@ -35,6 +47,30 @@ public class ProductImage {
         this.imageUrl = imageUrl;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getDetailUrl() {
+        return detailUrl;
+    }
+
+    public void setDetailUrl(String detailUrl) {
+        this.detailUrl = detailUrl;
+    }
+
+    public String getZoomUrl() {
+        return zoomUrl;
+    }
+
+    public void setZoomUrl(String zoomUrl) {
+        this.zoomUrl = zoomUrl;
+    }
+
     public Product getProduct() {
         return product;
     }
@@ -0,0 +1,108 @@
+package esi.ma.taawoniyate.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Rollup of order lines per seller, product and day, for seller analytics. Written by
+// SellerAnalyticsService only (upserts at checkout, rebuilt by its backfill), never through JPA.
+@Entity
+@Table(name = "seller_product_daily_sales", indexes = {
+        @Index(name = "idx_seller_daily_sales_seller_day", columnList = "seller_id, sale_day")
+})
+@IdClass(SellerDailySales.Key.class)
+public class SellerDailySales {
+    @Id
+    @Column(name = "seller_id")
+    private long sellerId;
+
+    @Id
+    @Column(name = "product_id")
+    private long productId;
+
+    @Id
+    @Column(name = "sale_day")
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "order_lines", nullable = false)
+    private long orderLines;
+
+    public SellerDailySales() {
+    }
+
+    public long getSellerId() {
+        return sellerId;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getOrderLines() {
+        return orderLines;
+    }
+
+    public static class Key implements Serializable {
+        private long sellerId;
+        private long productId;
+        private LocalDate day;
+
+        public Key() {
+        }
+
+        public Key(long sellerId, long productId, LocalDate day) {
+            this.sellerId = sellerId;
+            this.productId = productId;
+            this.day = day;
+        }
+
+        public long getSellerId() {
+            return sellerId;
+        }
+
+        public long getProductId() {
+            return productId;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return sellerId == key.sellerId && productId == key.productId && Objects.equals(day, key.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sellerId, productId, day);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package esi.ma.taawoniyate.model;
 //import jakarta.persistence.Entity;
 //import jakarta.persistence.GeneratedValue;
 //import jakarta.persistence.Id;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "users")
@@ -31,6 +33,11 @@ public abstract class User {
     private String phone;
     @Column(nullable = false)
     private String role; // client, admin, seller
+    // Bumped on every profile change, so tokens carrying an older snapshot are recognized as stale.
+    // The default lets ddl-auto add the column to a populated table (same as V8).
+    @Column(name = "profile_version", nullable = false)
+    @ColumnDefault("0")
+    private int profileVersion;
 
     public User(String fullName, String email, String region, String password, String city, String address, String phone, String role) {
         this.fullName = fullName;
@@ -117,4 +124,13 @@ public abstract class User {
     public void setRole(String role) {
         this.role = role;
     }
+
+    @JsonIgnore
+    public int getProfileVersion() {
+        return profileVersion;
+    }
+
+    public void setProfileVersion(int profileVersion) {
+        this.profileVersion = profileVersion;
+    }
 }
@@ -0,0 +1,22 @@
+package esi.ma.taawoniyate.monitoring;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Puts InstrumentedDataSource in front of the connection pool, for SQL metrics (app.sql.monitoring.enabled, on by
+// default) and for the db phase of Server-Timing (app.server-timing.enabled)
+@Component
+@ConditionalOnExpression("${app.sql.monitoring.enabled:true} or ${app.server-timing.enabled:false}")
+public class DataSourceInstrumenter implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+            return new InstrumentedDataSource(dataSource);
+        }
+        return bean;
+    }
+}
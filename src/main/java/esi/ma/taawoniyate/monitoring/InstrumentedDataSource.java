@@ -0,0 +1,114 @@
+package esi.ma.taawoniyate.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times every statement execution (execute*, one round trip each, a batch included) and reports
+ * it to SqlStatistics. Connections and statements are wrapped in JDK proxies; when no scope is
+ * open on the thread the cost is a ThreadLocal read per execution. Rows fetched later through
+ * ResultSet.next() are not timed.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    public InstrumentedDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(), new ConnectionHandler());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(username, password), new ConnectionHandler());
+    }
+
+    private static <T> T wrap(Class<T> type, T target, Handler handler) {
+        handler.target = target;
+        return type.cast(Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private abstract static class Handler implements InvocationHandler {
+        Object target;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handle(method, args);
+            }
+        }
+
+        abstract Object handle(Method method, Object[] args) throws Throwable;
+
+        Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class ConnectionHandler extends Handler {
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return wrap(Statement.class, (Statement) result, new StatementHandler(null));
+                case "prepareStatement":
+                    return wrap(PreparedStatement.class, (PreparedStatement) result, new StatementHandler((String) args[0]));
+                case "prepareCall":
+                    return wrap(CallableStatement.class, (CallableStatement) result, new StatementHandler((String) args[0]));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private static final class StatementHandler extends Handler {
+        // Prepared SQL, or for a plain Statement the last SQL passed to execute*/addBatch
+        private String sql;
+
+        private StatementHandler(String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && args[0] instanceof String batchSql) {
+                sql = batchSql;
+            }
+            if (!name.startsWith("execute")) {
+                return call(method, args);
+            }
+            if (args != null && args.length > 0 && args[0] instanceof String executedSql) {
+                sql = executedSql;
+            }
+            long start = System.nanoTime();
+            try {
+                return call(method, args);
+            } finally {
+                SqlStatistics.record(sql, System.nanoTime() - start);
+            }
+        }
+    }
+}
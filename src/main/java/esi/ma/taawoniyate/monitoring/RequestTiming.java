@@ -0,0 +1,82 @@
+package esi.ma.taawoniyate.monitoring;
+
+import java.util.Locale;
+
+/**
+ * Where the time of the current request went, for the Server-Timing header (see ServerTimingFilter):
+ *   auth      - JwtAuthenticationFilter (token verification, security context)
+ *   db        - JDBC statements, from the request's SqlStatistics
+ *   external  - calls to the image store
+ *   serialize - writing the JSON body, minus the lazy loads it triggered (those count as db)
+ *   total     - from the start of the request to the moment the header is written
+ *
+ * The record* methods are no-ops on threads without an open timing, so instrumented code pays a
+ * ThreadLocal read when the header is off. Phases run on other threads are not included.
+ */
+public final class RequestTiming implements AutoCloseable {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<RequestTiming> current = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final SqlStatistics sql;
+    private long authNanos;
+    private long externalNanos;
+    private long serializeNanos;
+
+    private RequestTiming(SqlStatistics sql) {
+        this.sql = sql;
+    }
+
+    static RequestTiming start(SqlStatistics sql) {
+        RequestTiming timing = new RequestTiming(sql);
+        current.set(timing);
+        return timing;
+    }
+
+    static RequestTiming current() {
+        return current.get();
+    }
+
+    public static void recordAuth(long nanos) {
+        RequestTiming timing = current.get();
+        if (timing != null) {
+            timing.authNanos += nanos;
+        }
+    }
+
+    public static void recordExternal(long nanos) {
+        RequestTiming timing = current.get();
+        if (timing != null) {
+            timing.externalNanos += nanos;
+        }
+    }
+
+    void recordSerialize(long nanos) {
+        serializeNanos += Math.max(0, nanos);
+    }
+
+    long dbNanos() {
+        return sql.getNanos();
+    }
+
+    @Override
+    public void close() {
+        if (current.get() == this) {
+            current.remove();
+        }
+    }
+
+    String header() {
+        return metric("auth", authNanos)
+                + ", " + metric("db", sql.getNanos()) + ";desc=\"" + sql.getStatements() + " queries\""
+                + ", " + metric("external", externalNanos)
+                + ", " + metric("serialize", serializeNanos)
+                + ", " + metric("total", System.nanoTime() - startNanos);
+    }
+
+    private static String metric(String name, long nanos) {
+        return String.format(Locale.ROOT, "%s;dur=%.2f", name, nanos / 1_000_000.0);
+    }
+}
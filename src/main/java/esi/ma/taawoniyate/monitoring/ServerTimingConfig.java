@@ -0,0 +1,66 @@
+package esi.ma.taawoniyate.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.function.LongSupplier;
+
+// With Server-Timing on, JSON is written through a converter that times serialization (replaces Boot's default one)
+@Configuration
+@ConditionalOnProperty(name = "app.server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJsonConverter(objectMapper);
+    }
+
+    // Serializes into memory, records the time, then writes the bytes (which commits the Server-Timing header)
+    static class TimedJsonConverter extends MappingJackson2HttpMessageConverter {
+
+        private final LongSupplier nanoClock;
+
+        TimedJsonConverter(ObjectMapper objectMapper) {
+            this(objectMapper, System::nanoTime);
+        }
+
+        TimedJsonConverter(ObjectMapper objectMapper, LongSupplier nanoClock) {
+            super(objectMapper);
+            this.nanoClock = nanoClock;
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+            RequestTiming timing = RequestTiming.current();
+            if (timing == null) {
+                super.writeInternal(object, type, outputMessage);
+                return;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(8 * 1024);
+            long dbBefore = timing.dbNanos();
+            long start = nanoClock.getAsLong();
+            super.writeInternal(object, type, new HttpOutputMessage() {
+                @Override
+                public OutputStream getBody() {
+                    return buffer;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return outputMessage.getHeaders();
+                }
+            });
+            timing.recordSerialize(nanoClock.getAsLong() - start - (timing.dbNanos() - dbBefore));
+            buffer.writeTo(outputMessage.getBody());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package esi.ma.taawoniyate.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Adds a Server-Timing header (see RequestTiming) to every response when app.server-timing.enabled
+ * is set. Headers cannot follow the body, so the header is written when the response is about to
+ * commit: when the body is first opened, on an error or redirect, or at the end of the request.
+ * JSON bodies are serialized into a buffer first (ServerTimingConfig) so their serialization time
+ * is known by then. Responses finished on an async dispatch report the initial dispatch only.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStatistics sql = SqlStatistics.start();
+             RequestTiming timing = RequestTiming.start(sql)) {
+            TimingResponse timedResponse = new TimingResponse(response, timing);
+            chain.doFilter(request, timedResponse);
+            timedResponse.writeHeader();
+        }
+    }
+
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+        private final RequestTiming timing;
+        private boolean written;
+
+        private TimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        private void writeHeader() {
+            if (!written && !isCommitted()) {
+                setHeader(RequestTiming.HEADER, timing.header());
+            }
+            written = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package esi.ma.taawoniyate.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a SqlStatistics scope around each HTTP request and publishes, per endpoint (method and
+ * URI pattern, as in http.server.requests):
+ *   http.server.requests.sql.statements - JDBC round trips per request
+ *   http.server.requests.sql.time        - time spent executing them
+ *   http.server.requests.sql.distinct    - distinct statement shapes per request
+ *   http.server.requests.sql.over.budget - requests above their statement budget
+ *
+ * Budgets come from app.sql.budget.default and app.sql.budget.endpoints ("GET /store/products/{productId}=4;...").
+ * A request over budget is logged with its repeated statement shapes, which is how an N+1 (for
+ * instance lazy associations read while Jackson writes the response) shows up.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsFilter.class);
+
+    static final int MAX_LOGGED_SHAPES = 5;
+    static final int MAX_LOGGED_SQL_LENGTH = 300;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.sql.budget.default:25}")
+    private int defaultBudget;
+
+    @Value("${app.sql.budget.endpoints:}")
+    private String endpointBudgets;
+
+    private final Map<String, Integer> budgets = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        for (String entry : endpointBudgets.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int eq = entry.lastIndexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Invalid app.sql.budget.endpoints entry: " + entry);
+            }
+            budgets.put(entry.substring(0, eq).trim().replaceAll("\\s+", " "), Integer.parseInt(entry.substring(eq + 1).trim()));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            statistics.close();
+            record(request, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("JDBC statements executed per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        Timer.builder("http.server.requests.sql.time")
+                .description("Time spent executing JDBC statements per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("http.server.requests.sql.distinct")
+                .description("Distinct statement shapes per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getDistinctStatements());
+
+        int budget = budgets.getOrDefault(method + " " + uri, defaultBudget);
+        if (statistics.getStatements() > budget) {
+            Counter.builder("http.server.requests.sql.over.budget")
+                    .description("Requests that executed more statements than their budget")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} {} ran {} SQL statements (budget {}), {} ms in the database; repeated: {}",
+                    method, uri, statistics.getStatements(), budget,
+                    statistics.getTime(TimeUnit.MILLISECONDS), describe(statistics.getRepeated()));
+        }
+    }
+
+    private static String describe(List<SqlStatistics.Shape> repeated) {
+        if (repeated.isEmpty()) {
+            return "none";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (SqlStatistics.Shape shape : repeated.subList(0, Math.min(MAX_LOGGED_SHAPES, repeated.size()))) {
+            String sql = shape.getSql();
+            if (sql.length() > MAX_LOGGED_SQL_LENGTH) {
+                sql = sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+            }
+            sb.append(System.lineSeparator()).append("  ").append(shape.getCount()).append(" x ").append(sql);
+        }
+        if (repeated.size() > MAX_LOGGED_SHAPES) {
+            sb.append(System.lineSeparator()).append("  and ").append(repeated.size() - MAX_LOGGED_SHAPES).append(" more");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package esi.ma.taawoniyate.monitoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Reduces a SQL statement to its shape, so the same query with other values counts as one:
+ * string and number literals become ?, IN lists of any length become (?...), whitespace is collapsed.
+ * Hibernate sends a small set of distinct strings, so results are cached by statement text.
+ */
+public final class SqlNormalizer {
+
+    private static final Cache<String, String> shapes = Caffeine.newBuilder()
+            .maximumSize(2_000)
+            .build();
+
+    private SqlNormalizer() {
+    }
+
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        return shapes.get(sql, SqlNormalizer::shape);
+    }
+
+    static String shape(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int i = 0;
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // String literal, '' being an escaped quote
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                out.append('?');
+            } else if (Character.isDigit(c) && !partOfIdentifier(out)) {
+                while (i < n && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (out.length() > 0) {
+                    out.append(' ');
+                }
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return collapseInLists(out.toString().trim());
+    }
+
+    // A digit right after a letter, digit or _ belongs to a name (p1_0, t2), not to a number
+    private static boolean partOfIdentifier(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char previous = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '"';
+    }
+
+    // "in (?,?,?)" and "in (?, ?)" -> "in (?...)"
+    private static String collapseInLists(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '(') {
+                int j = i + 1;
+                int placeholders = 0;
+                while (j < sql.length()) {
+                    char c = sql.charAt(j);
+                    if (c == '?') {
+                        placeholders++;
+                    } else if (c != ',' && c != ' ') {
+                        break;
+                    }
+                    j++;
+                }
+                if (placeholders > 1 && j < sql.length() && sql.charAt(j) == ')') {
+                    out.append("(?...)");
+                    i = j + 1;
+                    continue;
+                }
+            }
+            out.append(sql.charAt(i));
+            i++;
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package esi.ma.taawoniyate.monitoring;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC statements executed on the current thread between start() and close(): how many round
+ * trips, how long they took and which distinct shapes (see SqlNormalizer) they had.
+ *
+ * InstrumentedDataSource records into the innermost open scope and its enclosing ones, so a test
+ * can measure one call inside a request that is itself measured. Work handed to other threads
+ * (async pools, streamed responses) is not counted. A scope is confined to its thread.
+ */
+public final class SqlStatistics implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatistics> current = new ThreadLocal<>();
+
+    private final SqlStatistics enclosing;
+    private final Map<String, Shape> shapes = new HashMap<>();
+    private int statements;
+    private long nanos;
+    private boolean closed;
+
+    private SqlStatistics(SqlStatistics enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics(current.get());
+        current.set(statistics);
+        return statistics;
+    }
+
+    // The innermost open scope on this thread, or null when nothing is being measured
+    public static SqlStatistics current() {
+        return current.get();
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        SqlStatistics statistics = current.get();
+        if (statistics == null) {
+            return;
+        }
+        String shape = SqlNormalizer.normalize(sql);
+        for (SqlStatistics scope = statistics; scope != null; scope = scope.enclosing) {
+            scope.statements++;
+            scope.nanos += elapsedNanos;
+            scope.shapes.computeIfAbsent(shape, Shape::new).add(elapsedNanos);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (current.get() == this) {
+            if (enclosing != null) {
+                current.set(enclosing);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getTime(TimeUnit unit) {
+        return unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public int getDistinctStatements() {
+        return shapes.size();
+    }
+
+    // Every shape, most executed first
+    public List<Shape> getShapes() {
+        List<Shape> sorted = new ArrayList<>(shapes.values());
+        sorted.sort(Comparator.comparingInt(Shape::getCount).reversed().thenComparing(Shape::getSql));
+        return sorted;
+    }
+
+    // Shapes executed more than once: the usual sign of an N+1 (one query per row of a previous result)
+    public List<Shape> getRepeated() {
+        return getShapes().stream().filter(shape -> shape.getCount() > 1).toList();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder()
+                .append(statements).append(" statements, ")
+                .append(shapes.size()).append(" distinct, ")
+                .append(getTime(TimeUnit.MILLISECONDS)).append(" ms");
+        for (Shape shape : getShapes()) {
+            sb.append(System.lineSeparator()).append("  ").append(shape);
+        }
+        return sb.toString();
+    }
+
+    public static final class Shape {
+        private final String sql;
+        private int count;
+        private long nanos;
+
+        private Shape(String sql) {
+            this.sql = sql;
+        }
+
+        private void add(long elapsedNanos) {
+            count++;
+            nanos += elapsedNanos;
+        }
+
+        public String getSql() { return sql; }
+
+        public int getCount() { return count; }
+
+        public long getNanos() { return nanos; }
+
+        @Override
+        public String toString() {
+            return count + " x " + sql;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package esi.ma.taawoniyate.perf;
+
+import java.util.List;
+import java.util.Random;
+
+// Vocabulary of the synthetic catalog, shared with the load scenarios so searches hit real terms
+public final class PerfCatalog {
+
+    public static final String EMAIL_DOMAIN = "perf.taawoniyate.ma";
+    public static final String PASSWORD = "perf-password";
+
+    // Category -> product names sold in it
+    static final List<List<String>> PRODUCTS = List.of(
+            List.of("Huiles", "Huile d'argan", "Huile d'olive", "Huile de figue de barbarie", "Huile de nigelle"),
+            List.of("Cosmétiques", "Savon noir", "Ghassoul", "Eau de rose", "Khôl", "Crème à l'argan"),
+            List.of("Miel", "Miel de thym", "Miel d'euphorbe", "Miel de jujubier", "Amlou"),
+            List.of("Épices", "Ras el hanout", "Safran de Taliouine", "Cumin", "Paprika fumé"),
+            List.of("Tapis", "Tapis berbère", "Kilim", "Boucherouite", "Tapis Beni Ouarain"),
+            List.of("Poterie", "Tajine", "Plat à couscous", "Vase de Safi", "Bol en terre cuite"),
+            List.of("Textile", "Caftan", "Djellaba", "Babouches", "Foulard en soie de cactus"),
+            List.of("Bijoux", "Collier berbère", "Bracelet en argent", "Boucles d'oreilles", "Fibule"),
+            List.of("Épicerie", "Dattes Mejhoul", "Couscous roulé main", "Amandes", "Thé à la menthe")
+    );
+
+    static final List<String> QUALIFIERS = List.of(
+            "bio", "artisanal", "traditionnel", "fait main", "premium", "de coopérative", "naturel", "du terroir");
+
+    // City, region
+    static final List<String[]> PLACES = List.of(
+            new String[]{"Agadir", "Souss-Massa"}, new String[]{"Taroudant", "Souss-Massa"},
+            new String[]{"Essaouira", "Marrakech-Safi"}, new String[]{"Marrakech", "Marrakech-Safi"},
+            new String[]{"Safi", "Marrakech-Safi"}, new String[]{"Fès", "Fès-Meknès"},
+            new String[]{"Meknès", "Fès-Meknès"}, new String[]{"Chefchaouen", "Tanger-Tétouan-Al Hoceïma"},
+            new String[]{"Tétouan", "Tanger-Tétouan-Al Hoceïma"}, new String[]{"Rabat", "Rabat-Salé-Kénitra"},
+            new String[]{"Casablanca", "Casablanca-Settat"}, new String[]{"Ouarzazate", "Drâa-Tafilalet"},
+            new String[]{"Errachidia", "Drâa-Tafilalet"}, new String[]{"Oujda", "Oriental"});
+
+    // Search keywords: whole words, Arabizi and accent-free spellings, and prefixes as typed
+    public static final List<String> SEARCH_TERMS = List.of(
+            "argan", "huile argan", "miel", "miel thym", "amlou", "savon noir", "ghassoul", "tajine",
+            "tapis berbere", "kilim", "caftan", "babouche", "safran", "ras el hanout", "dattes", "the menthe",
+            "bio", "artisanal", "agadir", "souss", "arg", "tap", "huile d'ol", "cooperative ar");
+
+    private PerfCatalog() {
+    }
+
+    public static String sellerEmail(int n) {
+        return "seller" + n + "@" + EMAIL_DOMAIN;
+    }
+
+    public static String clientEmail(int n) {
+        return "client" + n + "@" + EMAIL_DOMAIN;
+    }
+
+    static String[] place(Random random) {
+        return PLACES.get(random.nextInt(PLACES.size()));
+    }
+}
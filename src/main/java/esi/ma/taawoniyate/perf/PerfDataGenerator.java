@@ -0,0 +1,298 @@
+package esi.ma.taawoniyate.perf;
+
+import esi.ma.taawoniyate.model.Category;
+import esi.ma.taawoniyate.model.Client;
+import esi.ma.taawoniyate.model.Panier;
+import esi.ma.taawoniyate.model.PanierItem;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.model.Seller;
+import esi.ma.taawoniyate.model.User;
+import esi.ma.taawoniyate.repository.CategoryRepository;
+import esi.ma.taawoniyate.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Fills an empty database with a synthetic marketplace for load tests (perf profile only).
+ *
+ * Volumes come from app.perf.seed.*. Popularity is skewed with Zipf draws: a few sellers own most
+ * of the catalog, a few products take most of the order lines and a few clients place most of the
+ * orders. Product popularity rank is insertion order, so the load scenarios can aim at the same
+ * hot set by id. Rows are inserted through JPA in batches, one transaction per batch, like the
+ * product import. Every account shares the password PerfCatalog.PASSWORD, hashed once.
+ *
+ * Runs before the catalog indexes are built (ApplicationReadyEvent), so they include the seed.
+ * Does nothing if the database already has users.
+ */
+@Component
+@Profile("perf")
+public class PerfDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfDataGenerator.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.perf.seed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.perf.seed.sellers:20000}")
+    private int sellerCount;
+
+    @Value("${app.perf.seed.clients:100000}")
+    private int clientCount;
+
+    @Value("${app.perf.seed.products:2000000}")
+    private int productCount;
+
+    @Value("${app.perf.seed.orders:2000000}")
+    private int orderCount;
+
+    @Value("${app.perf.seed.max-lines-per-order:4}")
+    private int maxLinesPerOrder;
+
+    @Value("${app.perf.seed.order-days:365}")
+    private int orderDays;
+
+    @Value("${app.perf.seed.skew:1.1}")
+    private double skew;
+
+    @Value("${app.perf.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${app.perf.seed.batch-size:1000}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        if (userRepository.count() > 0) {
+            log.info("Perf seed skipped: the database already has users");
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Random random = new Random(randomSeed);
+        long start = System.currentTimeMillis();
+
+        List<Long> categories = seedCategories();
+        String password = passwordEncoder.encode(PerfCatalog.PASSWORD);
+        long[] sellers = seedUsers(sellerCount, true, password, random);
+        long[] clients = seedUsers(clientCount, false, password, random);
+        SeededProducts products = seedProducts(categories, sellers, random);
+        long lines = seedOrders(products, clients, random);
+
+        log.info("Perf seed done in {} s: {} sellers, {} clients, {} products, {} orders, {} order lines",
+                (System.currentTimeMillis() - start) / 1000, sellers.length, clients.length,
+                products.ids.length, orderCount, lines);
+    }
+
+    // Category ids in PerfCatalog.PRODUCTS order, creating the missing ones
+    private List<Long> seedCategories() {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (List<String> entry : PerfCatalog.PRODUCTS) {
+                Category category = categoryRepository.findByName(entry.get(0));
+                if (category == null) {
+                    category = new Category();
+                    category.setName(entry.get(0));
+                    category = categoryRepository.save(category);
+                }
+                ids.add(category.getId());
+            }
+            return ids;
+        });
+    }
+
+    // User number n (1-based) gets PerfCatalog.sellerEmail(n) / clientEmail(n)
+    private long[] seedUsers(int count, boolean sellers, String password, Random random) {
+        long[] ids = new long[count];
+        for (int from = 0; from < count; from += batchSize) {
+            int to = Math.min(count, from + batchSize);
+            int batchStart = from;
+            List<Long> batch = transactionTemplate.execute(status -> {
+                List<User> users = new ArrayList<>(to - batchStart);
+                for (int i = batchStart; i < to; i++) {
+                    int n = i + 1;
+                    Client user;
+                    if (sellers) {
+                        Seller seller = new Seller();
+                        seller.setEmail(PerfCatalog.sellerEmail(n));
+                        seller.setFullName("Vendeur " + n);
+                        seller.setBusinessName("Coopérative " + n);
+                        user = seller;
+                    } else {
+                        user = new Client();
+                        user.setEmail(PerfCatalog.clientEmail(n));
+                        user.setFullName("Client " + n);
+                    }
+                    String[] place = PerfCatalog.place(random);
+                    user.setCity(place[0]);
+                    user.setRegion(place[1]);
+                    user.setAddress(n + " rue de la coopérative, " + place[0]);
+                    user.setPhone(String.format("06%08d", n));
+                    user.setPassword(password);
+                    entityManager.persist(user);
+                    users.add(user);
+                }
+                entityManager.flush();
+                List<Long> userIds = users.stream().map(User::getId).toList();
+                entityManager.clear();
+                return userIds;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                ids[batchStart + i] = batch.get(i);
+            }
+            progress(sellers ? "sellers" : "clients", batchStart, to, count);
+        }
+        return ids;
+    }
+
+    private SeededProducts seedProducts(List<Long> categories, long[] sellers, Random random) {
+        ZipfDistribution sellerPopularity = new ZipfDistribution(sellers.length, skew);
+        SeededProducts products = new SeededProducts(productCount);
+        for (int from = 0; from < productCount; from += batchSize) {
+            int to = Math.min(productCount, from + batchSize);
+            int batchStart = from;
+            List<Long> batch = transactionTemplate.execute(status -> {
+                List<Product> rows = new ArrayList<>(to - batchStart);
+                for (int i = batchStart; i < to; i++) {
+                    int categoryIndex = random.nextInt(PerfCatalog.PRODUCTS.size());
+                    List<String> names = PerfCatalog.PRODUCTS.get(categoryIndex);
+                    String name = names.get(1 + random.nextInt(names.size() - 1));
+                    String qualifier = PerfCatalog.QUALIFIERS.get(random.nextInt(PerfCatalog.QUALIFIERS.size()));
+                    String[] place = PerfCatalog.place(random);
+                    long sellerId = sellers[sellerPopularity.sample(random)];
+                    double price = BigDecimal.valueOf(10 + random.nextDouble() * 990)
+                            .setScale(2, RoundingMode.HALF_UP).doubleValue();
+
+                    Product product = new Product();
+                    product.setName(name + " " + qualifier + " " + (i + 1));
+                    product.setDescription(name + " " + qualifier + ", préparé à " + place[0] + " (" + place[1]
+                            + ") par une coopérative locale. Référence " + (i + 1) + ".");
+                    product.setPrice(price);
+                    product.setQuantity(10_000 + random.nextInt(90_000));
+                    product.setCategory(entityManager.getReference(Category.class, categories.get(categoryIndex)));
+                    product.setSeller(entityManager.getReference(Seller.class, sellerId));
+                    entityManager.persist(product);
+                    rows.add(product);
+                    products.sellers[i] = sellerId;
+                    products.prices[i] = price;
+                }
+                entityManager.flush();
+                List<Long> productIds = rows.stream().map(Product::getId).toList();
+                entityManager.clear();
+                return productIds;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                products.ids[batchStart + i] = batch.get(i);
+            }
+            progress("products", batchStart, to, productCount);
+        }
+        return products;
+    }
+
+    private long seedOrders(SeededProducts products, long[] clients, Random random) {
+        ZipfDistribution productPopularity = new ZipfDistribution(products.ids.length, skew);
+        ZipfDistribution clientActivity = new ZipfDistribution(clients.length, skew);
+        LocalDateTime now = LocalDateTime.now();
+        long lines = 0;
+        // Orders carry several lines, so fewer orders per transaction keeps batches comparable
+        int ordersPerBatch = Math.max(1, batchSize / maxLinesPerOrder);
+        for (int from = 0; from < orderCount; from += ordersPerBatch) {
+            int to = Math.min(orderCount, from + ordersPerBatch);
+            int batchStart = from;
+            Integer batchLines = transactionTemplate.execute(status -> {
+                int inserted = 0;
+                for (int i = batchStart; i < to; i++) {
+                    Client client = entityManager.getReference(Client.class, clients[clientActivity.sample(random)]);
+                    Panier panier = new Panier();
+                    panier.setClient(client);
+                    panier.setDate(now.minusMinutes(random.nextInt(orderDays * 24 * 60)));
+
+                    Set<PanierItem> items = new HashSet<>();
+                    Set<Integer> picked = new HashSet<>();
+                    int lineCount = 1 + random.nextInt(maxLinesPerOrder);
+                    while (picked.size() < lineCount) {
+                        int rank = productPopularity.sample(random);
+                        if (!picked.add(rank)) {
+                            continue;
+                        }
+                        PanierItem item = new PanierItem();
+                        item.setPanier(panier);
+                        item.setClient(client);
+                        item.setProduct(entityManager.getReference(Product.class, products.ids[rank]));
+                        item.setSeller(entityManager.getReference(Seller.class, products.sellers[rank]));
+                        item.setQuantity(1 + random.nextInt(3));
+                        item.setPrice(BigDecimal.valueOf(products.prices[rank]));
+                        items.add(item);
+                    }
+                    panier.setItems(items);
+                    entityManager.persist(panier);
+                    inserted += items.size();
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return inserted;
+            });
+            lines += batchLines;
+            progress("orders", batchStart, to, orderCount);
+        }
+        return lines;
+    }
+
+    // Logs every 100,000 rows
+    private static void progress(String what, int from, int done, int total) {
+        if (done == total || done / 100_000 != from / 100_000) {
+            log.info("Perf seed: {} / {} {}", done, total, what);
+        }
+    }
+
+    // Per product, by popularity rank: id, owning seller and price (order lines copy them)
+    private static final class SeededProducts {
+        private final long[] ids;
+        private final long[] sellers;
+        private final double[] prices;
+
+        private SeededProducts(int count) {
+            ids = new long[count];
+            sellers = new long[count];
+            prices = new double[count];
+        }
+    }
+}
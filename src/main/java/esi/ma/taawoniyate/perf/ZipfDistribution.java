@@ -0,0 +1,44 @@
+package esi.ma.taawoniyate.perf;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Ranks 0..n-1 drawn with probability proportional to 1 / (rank + 1)^exponent: a few items take
+ * most of the draws, as with product popularity or seller catalog sizes. The cumulative weights
+ * are computed once, each draw is a binary search.
+ */
+public final class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    public ZipfDistribution(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        cumulative = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+
+    // Share of the draws that fall on the first "ranks" ranks
+    public double headShare(int ranks) {
+        return ranks <= 0 ? 0 : cumulative[Math.min(ranks, cumulative.length) - 1];
+    }
+}
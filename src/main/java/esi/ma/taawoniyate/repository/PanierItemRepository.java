@@ -1,9 +1,40 @@
 package esi.ma.taawoniyate.repository;
 
+import esi.ma.taawoniyate.dto.SellerOrderLine;
 import esi.ma.taawoniyate.model.Panier;
 import esi.ma.taawoniyate.model.PanierItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface PanierItemRepository extends JpaRepository<PanierItem, Long> {
     PanierItem findByPanier(Panier panier);
+
+    // Seller order history: first one page of the seller's order ids, newest first by order date
+    // then id (keyset on both, read through the (seller_id, panier_id) index), then that seller's
+    // lines of those orders in the same order.
+    @Query("SELECT o.panier_id FROM PanierItem i JOIN i.panier o WHERE i.seller.id = :sellerId " +
+            "AND (o.date < :beforeDate OR (o.date = :beforeDate AND o.panier_id < :beforeOrderId)) " +
+            "GROUP BY o.panier_id, o.date ORDER BY o.date DESC, o.panier_id DESC")
+    List<Integer> findSellerOrderIds(@Param("sellerId") long sellerId, @Param("beforeDate") LocalDateTime beforeDate,
+                                     @Param("beforeOrderId") int beforeOrderId, Pageable limit);
+
+    @Query("SELECT new esi.ma.taawoniyate.dto.SellerOrderLine(o.panier_id, o.date, c.id, c.fullName, c.email, c.phone, c.Address, c.city, c.region, " +
+            "p.id, p.name, i.quantity, i.price) " +
+            "FROM PanierItem i JOIN i.panier o JOIN o.client c LEFT JOIN i.product p " +
+            "WHERE i.seller.id = :sellerId AND o.panier_id IN :orderIds ORDER BY o.date DESC, o.panier_id DESC, i.id")
+    List<SellerOrderLine> findSellerOrderLines(@Param("sellerId") long sellerId, @Param("orderIds") Collection<Integer> orderIds);
+
+    // Platform statistics reconciliation (PlatformStatisticsService)
+    @Query("SELECT COALESCE(SUM(i.price * i.quantity), 0) FROM PanierItem i")
+    BigDecimal sumAmounts();
+
+    @Query("SELECT DISTINCT i.seller.id FROM PanierItem i WHERE i.panier.date >= :since")
+    List<Long> findSellerIdsWithSalesSince(@Param("since") LocalDateTime since);
 }
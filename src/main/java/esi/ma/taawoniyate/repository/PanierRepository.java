@@ -9,6 +9,8 @@ import java.util.List;
 
 public interface PanierRepository extends JpaRepository<Panier, Integer> {
     Panier findByClient(Client client);
+    // A client can have several paniers (/api/panier/save adds one each time); this is the latest
+    Panier findFirstByClientOrderByDateDesc(Client client);
     List<Panier> findAllByClient(Client client);
     
     @Query("SELECT DISTINCT p FROM Panier p LEFT JOIN FETCH p.items i LEFT JOIN FETCH i.product LEFT JOIN FETCH i.seller")
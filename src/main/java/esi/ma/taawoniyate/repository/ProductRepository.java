@@ -1,12 +1,21 @@
 package esi.ma.taawoniyate.repository;
 
+import esi.ma.taawoniyate.dto.ProductCard;
+import esi.ma.taawoniyate.dto.StockShortage;
 import esi.ma.taawoniyate.model.Product;
 import esi.ma.taawoniyate.model.Category;
 import esi.ma.taawoniyate.model.Seller;
+import esi.ma.taawoniyate.search.ProductDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer> {
@@ -29,4 +38,58 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     // Find products by seller
     List<Product> findBySeller(Seller seller);
 
+    // A seller's products by seller id, the seller fetched in the same statement (no user lookup first)
+    @Query("SELECT p FROM Product p JOIN FETCH p.seller s WHERE s.id = :sellerId ORDER BY p.id")
+    List<Product> findAllWithSellerBySellerId(@Param("sellerId") long sellerId);
+
+    // Catalog listing (keyset pagination). Each query reads one page of flat cards in a
+    // single statement: category, seller and the first image (original and thumbnail) are joined.
+    String FIRST_IMAGE = "LEFT JOIN ProductImage fi ON fi.product = p AND fi.id = (SELECT MIN(i2.id) FROM ProductImage i2 WHERE i2.product = p) ";
+
+    String PRODUCT_CARD = "SELECT new esi.ma.taawoniyate.dto.ProductCard(p.id, p.name, p.price, p.quantity, c.name, s.businessName, " +
+            "fi.imageUrl, fi.thumbnailUrl) " +
+            "FROM Product p LEFT JOIN p.category c JOIN p.seller s " + FIRST_IMAGE;
+
+    // Newest first: ids come from a sequence, so id order is insertion order
+    @Query(PRODUCT_CARD + "WHERE p.id < :afterId ORDER BY p.id DESC")
+    List<ProductCard> findCardsNewest(@Param("afterId") long afterId, Pageable limit);
+
+    // The leading "p.price >= :price" keeps the predicate sargable on (price, product_id)
+    @Query(PRODUCT_CARD + "WHERE p.price >= :price AND (p.price > :price OR p.id > :afterId) ORDER BY p.price ASC, p.id ASC")
+    List<ProductCard> findCardsByPriceAsc(@Param("price") double price, @Param("afterId") long afterId, Pageable limit);
+
+    @Query(PRODUCT_CARD + "WHERE p.price <= :price AND (p.price < :price OR p.id < :afterId) ORDER BY p.price DESC, p.id DESC")
+    List<ProductCard> findCardsByPriceDesc(@Param("price") double price, @Param("afterId") long afterId, Pageable limit);
+
+    // Storefront: newest first, the seller resolved by LOWER(business_name) in the same statement
+    @Query(PRODUCT_CARD + "WHERE LOWER(s.businessName) = :businessName AND p.id < :afterId ORDER BY p.id DESC")
+    List<ProductCard> findStorefrontCards(@Param("businessName") String businessName, @Param("afterId") long afterId, Pageable limit);
+
+    // Checkout: every product of a cart with its seller, in one statement
+    @Query("SELECT p FROM Product p JOIN FETCH p.seller WHERE p.id IN :ids")
+    List<Product> findAllWithSellerByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Stock left for the lines a checkout could not reserve
+    @Query("SELECT new esi.ma.taawoniyate.dto.StockShortage(p.id, p.name, p.quantity) FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<StockShortage> findStockShortages(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.businessName FROM Product p JOIN p.seller s WHERE p.id = :id")
+    String findBusinessNameByProductId(@Param("id") long id);
+
+    // Catalog index documents: same single-statement shape as the cards, plus description and seller location
+    String PRODUCT_DOCUMENT = "SELECT new esi.ma.taawoniyate.search.ProductDocument(p.id, p.name, p.description, p.price, p.quantity, c.name, s.businessName, s.city, s.region, " +
+            "fi.imageUrl, fi.thumbnailUrl) " +
+            "FROM Product p LEFT JOIN p.category c JOIN p.seller s " + FIRST_IMAGE;
+
+    @Query(PRODUCT_DOCUMENT + "WHERE p.id = :id")
+    ProductDocument findDocumentById(@Param("id") long id);
+
+    // Must be consumed inside a transaction
+    @Query(PRODUCT_DOCUMENT + "ORDER BY p.id")
+    Stream<ProductDocument> streamAllDocuments();
+
+    // Product details page: seller, category and images fetched with the product in one statement
+    @Query("SELECT p FROM Product p JOIN FETCH p.seller LEFT JOIN FETCH p.category LEFT JOIN FETCH p.images WHERE p.id = :id")
+    Optional<Product> findDetailsById(@Param("id") long id);
+
 }
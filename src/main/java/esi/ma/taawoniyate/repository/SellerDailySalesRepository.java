@@ -0,0 +1,29 @@
+package esi.ma.taawoniyate.repository;
+
+import esi.ma.taawoniyate.dto.SalesBucket;
+import esi.ma.taawoniyate.dto.SellerTopProduct;
+import esi.ma.taawoniyate.model.SellerDailySales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Reads of the seller analytics rollup, through the (seller_id, sale_day) index: at most one row
+// per product and day of the range, whatever the order history behind them.
+public interface SellerDailySalesRepository extends JpaRepository<SellerDailySales, SellerDailySales.Key> {
+
+    @Query("SELECT new esi.ma.taawoniyate.dto.SalesBucket(s.day, SUM(s.units), SUM(s.revenue), SUM(s.orderLines)) " +
+            "FROM SellerDailySales s WHERE s.sellerId = :sellerId AND s.day BETWEEN :from AND :to " +
+            "GROUP BY s.day ORDER BY s.day")
+    List<SalesBucket> findDailySales(@Param("sellerId") long sellerId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new esi.ma.taawoniyate.dto.SellerTopProduct(s.productId, p.name, SUM(s.units), SUM(s.revenue)) " +
+            "FROM SellerDailySales s LEFT JOIN Product p ON p.id = s.productId " +
+            "WHERE s.sellerId = :sellerId AND s.day BETWEEN :from AND :to " +
+            "GROUP BY s.productId, p.name ORDER BY SUM(s.revenue) DESC, s.productId")
+    List<SellerTopProduct> findTopProducts(@Param("sellerId") long sellerId, @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to, Pageable limit);
+}
@@ -1,7 +1,12 @@
 package esi.ma.taawoniyate.repository;
 
 import esi.ma.taawoniyate.model.Seller;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface SellerRepository extends JpaRepository<Seller, Integer> {
 //    Seller findById(long id);
@@ -9,4 +14,17 @@ public interface SellerRepository extends JpaRepository<Seller, Integer> {
 //    Seller findByProductId(int productId);
 //    Seller findByUserId(long userId);
     Seller findSelllerByBusinessName(String businessName);
+
+    // Business-name lookups compare LOWER(business_name), which is what the V4 migration indexes
+    // (btree text_pattern_ops for equality/prefix, pg_trgm GIN for substring). Callers pass the
+    // name already lower-cased and the LIKE patterns escaped with '!'.
+    @Query("SELECT COUNT(s) > 0 FROM Seller s WHERE LOWER(s.businessName) = :name")
+    boolean existsByBusinessNameKey(@Param("name") String name);
+
+    // Exact matches first, then prefix matches, then the rest
+    @Query("SELECT s FROM Seller s WHERE LOWER(s.businessName) LIKE :pattern ESCAPE '!' " +
+            "ORDER BY CASE WHEN LOWER(s.businessName) = :name THEN 0 " +
+            "WHEN LOWER(s.businessName) LIKE :prefix ESCAPE '!' THEN 1 ELSE 2 END, s.businessName")
+    List<Seller> searchByBusinessName(@Param("name") String name, @Param("prefix") String prefix,
+                                      @Param("pattern") String pattern, Pageable limit);
 }
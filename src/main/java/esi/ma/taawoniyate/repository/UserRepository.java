@@ -2,8 +2,10 @@ package esi.ma.taawoniyate.repository;
 
 import esi.ma.taawoniyate.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -24,4 +26,14 @@ public interface UserRepository extends JpaRepository<User, Integer> {
         Optional<User> user = this.findByEmailAndPassword(email, password);
         return user.orElse(null);
     }
+
+    @Query("SELECT u.profileVersion FROM User u WHERE u.id = :id")
+    Integer findProfileVersion(@Param("id") long id);
+
+    // Swaps the stored password only if nobody changed it meanwhile; returns the rows updated
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int replacePassword(@Param("id") long id, @Param("oldPassword") String oldPassword,
+                        @Param("newPassword") String newPassword);
 }
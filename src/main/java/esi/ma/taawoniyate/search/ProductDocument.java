@@ -0,0 +1,59 @@
+package esi.ma.taawoniyate.search;
+
+import esi.ma.taawoniyate.dto.ProductCard;
+
+// What the catalog indexes keep per product: searchable text, facet values and enough to render a card.
+public class ProductDocument {
+    private final long id;
+    private final String name;
+    private final String description;
+    private final double price;
+    private final int quantity;
+    private final String category;
+    private final String seller;
+    private final String city;
+    private final String region;
+    private final String image;
+    private final String thumbnail;
+
+    public ProductDocument(long id, String name, String description, double price, int quantity,
+                           String category, String seller, String city, String region, String image, String thumbnail) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.category = category;
+        this.seller = seller;
+        this.city = city;
+        this.region = region;
+        this.image = image;
+        this.thumbnail = thumbnail;
+    }
+
+    public ProductCard toCard() {
+        return new ProductCard(id, name, price, quantity, category, seller, image, thumbnail);
+    }
+
+    public long getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getDescription() { return description; }
+
+    public double getPrice() { return price; }
+
+    public int getQuantity() { return quantity; }
+
+    public String getCategory() { return category; }
+
+    public String getSeller() { return seller; }
+
+    public String getCity() { return city; }
+
+    public String getRegion() { return region; }
+
+    public String getImage() { return image; }
+
+    public String getThumbnail() { return thumbnail; }
+}
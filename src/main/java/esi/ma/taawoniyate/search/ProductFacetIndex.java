@@ -0,0 +1,334 @@
+package esi.ma.taawoniyate.search;
+
+import esi.ma.taawoniyate.dto.FacetCount;
+import esi.ma.taawoniyate.dto.ProductCard;
+import esi.ma.taawoniyate.dto.ProductFilter;
+import esi.ma.taawoniyate.dto.ProductFilterResult;
+import esi.ma.taawoniyate.dto.ProductSort;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory facet index: one bitset per facet value over dense product ordinals.
+ *
+ * A filter is the intersection of one bitset per active facet (values of the same facet are
+ * OR-ed first). Facet counts use the intersection of every other facet, so each count is a
+ * single AND + popcount, or a scan of the candidate set when a facet has too many values for
+ * that to be cheaper (sellers, cities). Ordinals of removed products are reused to keep the
+ * bitsets dense.
+ */
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String SELLER = "seller";
+    public static final String CITY = "city";
+    public static final String REGION = "region";
+    public static final String PRICE = "price";
+    public static final String IN_STOCK = "inStock";
+
+    // Lower bounds of the price buckets (MAD); the last bucket is open-ended
+    static final double[] PRICE_BOUNDS = {0, 50, 100, 200, 500, 1000};
+
+    private static final int MAX_FACET_VALUES = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Deepest result a page may reach: paging keeps every result up to the requested page in memory
+    static final int MAX_RESULT_WINDOW = MAX_PAGE_SIZE * 100;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private ProductDocument[] documents = new ProductDocument[1024];
+    private int ordinalLimit;
+
+    private final BitSet live = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final BitSet[] priceBuckets = new BitSet[PRICE_BOUNDS.length];
+    private final Map<String, Dimension> dimensions = new LinkedHashMap<>();
+
+    public ProductFacetIndex() {
+        for (int i = 0; i < priceBuckets.length; i++) {
+            priceBuckets[i] = new BitSet();
+        }
+        dimensions.put(CATEGORY, new Dimension(ProductDocument::getCategory));
+        dimensions.put(SELLER, new Dimension(ProductDocument::getSeller));
+        dimensions.put(CITY, new Dimension(ProductDocument::getCity));
+        dimensions.put(REGION, new Dimension(ProductDocument::getRegion));
+    }
+
+    public void index(ProductDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.getId());
+            Integer free = freeOrdinals.poll();
+            int ordinal = free != null ? free : ordinalLimit++;
+            if (ordinal >= documents.length) {
+                documents = Arrays.copyOf(documents, documents.length * 2);
+            }
+            documents[ordinal] = document;
+            ordinals.put(document.getId(), ordinal);
+
+            live.set(ordinal);
+            if (document.getQuantity() > 0) {
+                inStock.set(ordinal);
+            }
+            priceBuckets[bucketOf(document.getPrice())].set(ordinal);
+            for (Dimension dimension : dimensions.values()) {
+                String label = dimension.accessor.apply(document);
+                if (label != null && !label.isBlank()) {
+                    dimension.values.computeIfAbsent(key(label), k -> new FacetValue(label.trim())).bits.set(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductFilterResult filter(ProductFilter filter) {
+        int size = Math.max(1, Math.min(filter.getSize(), MAX_PAGE_SIZE));
+        int page = Math.max(0, filter.getPage());
+        if (((long) page + 1) * size > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Page too deep: only the first " + MAX_RESULT_WINDOW + " results can be paged through");
+        }
+
+        lock.readLock().lock();
+        try {
+            // One constraint per facet, null when that facet is not filtered
+            Map<String, BitSet> constraints = new LinkedHashMap<>();
+            constraints.put(CATEGORY, anyOf(CATEGORY, filter.getCategories()));
+            constraints.put(SELLER, anyOf(SELLER, filter.getSellers()));
+            constraints.put(CITY, anyOf(CITY, filter.getCities()));
+            constraints.put(REGION, anyOf(REGION, filter.getRegions()));
+            constraints.put(PRICE, priceRange(filter.getMinPrice(), filter.getMaxPrice()));
+            constraints.put(IN_STOCK, filter.isInStock() ? inStock : null);
+
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            for (Map.Entry<String, Dimension> dimension : dimensions.entrySet()) {
+                BitSet base = intersect(constraints, dimension.getKey());
+                facets.put(dimension.getKey(), countValues(dimension.getValue(), base));
+            }
+            facets.put(PRICE, countPrices(intersect(constraints, PRICE)));
+            BitSet stocked = intersect(constraints, IN_STOCK);
+            stocked.and(inStock);
+            facets.put(IN_STOCK, List.of(new FacetCount("true", stocked.cardinality())));
+
+            BitSet matches = intersect(constraints, null);
+            List<ProductCard> items = page(matches, filter.getSort(), page, size);
+            return new ProductFilterResult(items, matches.cardinality(), page, size, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        ProductDocument document = documents[ordinal];
+        live.clear(ordinal);
+        inStock.clear(ordinal);
+        priceBuckets[bucketOf(document.getPrice())].clear(ordinal);
+        for (Dimension dimension : dimensions.values()) {
+            String label = dimension.accessor.apply(document);
+            if (label == null || label.isBlank()) {
+                continue;
+            }
+            String key = key(label);
+            FacetValue value = dimension.values.get(key);
+            if (value != null) {
+                value.bits.clear(ordinal);
+                if (value.bits.isEmpty()) {
+                    dimension.values.remove(key);
+                }
+            }
+        }
+        documents[ordinal] = null;
+        freeOrdinals.push(ordinal);
+    }
+
+    private BitSet anyOf(String dimension, List<String> labels) {
+        if (labels.isEmpty()) {
+            return null;
+        }
+        Map<String, FacetValue> values = dimensions.get(dimension).values;
+        BitSet result = new BitSet();
+        for (String label : labels) {
+            FacetValue value = values.get(key(label));
+            if (value != null) {
+                result.or(value.bits);
+            }
+        }
+        return result;
+    }
+
+    // Whole buckets inside [min, max] are OR-ed as is; only the boundary buckets are checked per product
+    private BitSet priceRange(Double min, Double max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        double low = min != null ? min : Double.NEGATIVE_INFINITY;
+        double high = max != null ? max : Double.POSITIVE_INFINITY;
+        BitSet result = new BitSet();
+        for (int i = 0; i < priceBuckets.length; i++) {
+            double bucketLow = i == 0 ? Double.NEGATIVE_INFINITY : PRICE_BOUNDS[i];
+            double bucketHigh = i + 1 < PRICE_BOUNDS.length ? PRICE_BOUNDS[i + 1] : Double.POSITIVE_INFINITY;
+            if (bucketHigh <= low || bucketLow > high) {
+                continue;
+            }
+            if (bucketLow >= low && bucketHigh <= high) {
+                result.or(priceBuckets[i]);
+                continue;
+            }
+            BitSet bucket = priceBuckets[i];
+            for (int ordinal = bucket.nextSetBit(0); ordinal >= 0; ordinal = bucket.nextSetBit(ordinal + 1)) {
+                double price = documents[ordinal].getPrice();
+                if (price >= low && price <= high) {
+                    result.set(ordinal);
+                }
+            }
+        }
+        return result;
+    }
+
+    private BitSet intersect(Map<String, BitSet> constraints, String excluded) {
+        BitSet result = (BitSet) live.clone();
+        for (Map.Entry<String, BitSet> constraint : constraints.entrySet()) {
+            if (constraint.getValue() != null && !constraint.getKey().equals(excluded)) {
+                result.and(constraint.getValue());
+            }
+        }
+        return result;
+    }
+
+    private List<FacetCount> countValues(Dimension dimension, BitSet base) {
+        List<FacetCount> counts = new ArrayList<>();
+        long bitsetCost = (long) dimension.values.size() * (ordinalLimit / Long.SIZE + 1);
+        if (bitsetCost > base.cardinality()) {
+            // Many values (sellers, cities): cheaper to walk the candidates once
+            Map<String, Long> byKey = new HashMap<>();
+            for (int ordinal = base.nextSetBit(0); ordinal >= 0; ordinal = base.nextSetBit(ordinal + 1)) {
+                String label = dimension.accessor.apply(documents[ordinal]);
+                if (label != null && !label.isBlank()) {
+                    byKey.merge(key(label), 1L, Long::sum);
+                }
+            }
+            byKey.forEach((key, count) -> counts.add(new FacetCount(dimension.values.get(key).label, count)));
+        } else {
+            for (FacetValue value : dimension.values.values()) {
+                BitSet matching = (BitSet) value.bits.clone();
+                matching.and(base);
+                int count = matching.cardinality();
+                if (count > 0) {
+                    counts.add(new FacetCount(value.label, count));
+                }
+            }
+        }
+        counts.sort(Comparator.comparingLong(FacetCount::getCount).reversed()
+                .thenComparing(FacetCount::getValue));
+        return counts.size() > MAX_FACET_VALUES ? new ArrayList<>(counts.subList(0, MAX_FACET_VALUES)) : counts;
+    }
+
+    private List<FacetCount> countPrices(BitSet base) {
+        List<FacetCount> counts = new ArrayList<>(priceBuckets.length);
+        for (int i = 0; i < priceBuckets.length; i++) {
+            BitSet matching = (BitSet) priceBuckets[i].clone();
+            matching.and(base);
+            String label = i + 1 < PRICE_BOUNDS.length
+                    ? formatBound(PRICE_BOUNDS[i]) + "-" + formatBound(PRICE_BOUNDS[i + 1])
+                    : formatBound(PRICE_BOUNDS[i]) + "+";
+            counts.add(new FacetCount(label, matching.cardinality()));
+        }
+        return counts;
+    }
+
+    // Keeps the (page + 1) * size best products in a bounded heap instead of sorting every match
+    private List<ProductCard> page(BitSet matches, ProductSort sort, int page, int size) {
+        Comparator<ProductDocument> order = comparator(sort);
+        int keep = (page + 1) * size;
+        PriorityQueue<ProductDocument> heap = new PriorityQueue<>(keep + 1, order.reversed());
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            heap.offer(documents[ordinal]);
+            if (heap.size() > keep) {
+                heap.poll();
+            }
+        }
+        ProductDocument[] best = new ProductDocument[heap.size()];
+        for (int i = best.length - 1; i >= 0; i--) {
+            best[i] = heap.poll();
+        }
+        List<ProductCard> items = new ArrayList<>(size);
+        for (int i = page * size; i < best.length; i++) {
+            items.add(best[i].toCard());
+        }
+        return items;
+    }
+
+    private static Comparator<ProductDocument> comparator(ProductSort sort) {
+        switch (sort) {
+            case PRICE_ASC:
+                return Comparator.comparingDouble(ProductDocument::getPrice)
+                        .thenComparingLong(ProductDocument::getId);
+            case PRICE_DESC:
+                return Comparator.comparingDouble(ProductDocument::getPrice).reversed()
+                        .thenComparing(Comparator.comparingLong(ProductDocument::getId).reversed());
+            default:
+                return Comparator.comparingLong(ProductDocument::getId).reversed();
+        }
+    }
+
+    static int bucketOf(double price) {
+        for (int i = PRICE_BOUNDS.length - 1; i > 0; i--) {
+            if (price >= PRICE_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static String formatBound(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+
+    private static String key(String label) {
+        return label.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Dimension {
+        private final Function<ProductDocument, String> accessor;
+        private final Map<String, FacetValue> values = new HashMap<>();
+
+        private Dimension(Function<ProductDocument, String> accessor) {
+            this.accessor = accessor;
+        }
+    }
+
+    private static final class FacetValue {
+        private final String label;
+        private final BitSet bits = new BitSet();
+
+        private FacetValue(String label) {
+            this.label = label;
+        }
+    }
+}
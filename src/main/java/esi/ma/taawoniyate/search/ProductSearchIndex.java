@@ -0,0 +1,263 @@
+package esi.ma.taawoniyate.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over products, ranked with BM25.
+ *
+ * Fields are folded into a single weighted term frequency per document (name counts more than
+ * description), which keeps one posting list per term. Postings are primitive arrays ordered by
+ * document ordinal; re-indexing a product gives it a new ordinal so lists stay append-only and
+ * removals are a binary search. Once half the ordinals belong to removed products, live ones are
+ * renumbered in order, so memory follows the catalog size rather than the number of edits.
+ * Reads share a lock, writes (rare) take it exclusively.
+ */
+public class ProductSearchIndex {
+
+    static final float NAME_WEIGHT = 3.0f;
+    static final float CATEGORY_WEIGHT = 2.0f;
+    static final float SELLER_WEIGHT = 1.5f;
+    static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_BOOST = 0.8f;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    // Fewest removed ordinals worth a compaction
+    private static final int MIN_COMPACTION = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private double totalLength;
+    private int removedEntries;
+
+    public void index(ProductDocument document) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += addField(frequencies, document.getName(), NAME_WEIGHT);
+        length += addField(frequencies, document.getCategory(), CATEGORY_WEIGHT);
+        length += addField(frequencies, document.getSeller(), SELLER_WEIGHT);
+        length += addField(frequencies, document.getDescription(), DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.getId());
+            int ordinal = entries.size();
+            entries.add(new Entry(document, frequencies.keySet().toArray(new String[0]), length));
+            ordinals.put(document.getId(), ordinal);
+            for (Map.Entry<String, Float> term : frequencies.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new Postings()).add(ordinal, term.getValue());
+            }
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ordinals in use, live or removed
+    int slots() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best matching products, best first. Every query term is matched exactly,
+     * except the last one which is also expanded as a prefix while the user is still typing.
+     */
+    public List<ProductDocument> search(String query, int limit) {
+        List<String> terms = TextNormalizer.tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean expandLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            int documentCount = ordinals.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            float averageLength = (float) (totalLength / documentCount);
+            Map<Integer, Float> scores = new HashMap<>();
+
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                if (expandLast && i == terms.size() - 1) {
+                    NavigableMap<String, Postings> expansions =
+                            postings.subMap(term, true, term + Character.MAX_VALUE, true);
+                    int expanded = 0;
+                    for (Map.Entry<String, Postings> expansion : expansions.entrySet()) {
+                        float boost = expansion.getKey().equals(term) ? 1.0f : PREFIX_BOOST;
+                        accumulate(scores, expansion.getValue(), boost, documentCount, averageLength);
+                        if (++expanded == MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                    }
+                } else {
+                    Postings list = postings.get(term);
+                    if (list != null) {
+                        accumulate(scores, list, 1.0f, documentCount, averageLength);
+                    }
+                }
+            }
+            return topHits(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void accumulate(Map<Integer, Float> scores, Postings list, float boost,
+                            int documentCount, float averageLength) {
+        int df = list.size;
+        float idf = (float) Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        for (int p = 0; p < list.size; p++) {
+            int ordinal = list.ordinals[p];
+            float tf = list.frequencies[p];
+            float norm = K1 * (1 - B + B * entries.get(ordinal).length / averageLength);
+            float score = boost * idf * (tf * (K1 + 1)) / (tf + norm);
+            scores.merge(ordinal, score, Float::sum);
+        }
+    }
+
+    private List<ProductDocument> topHits(Map<Integer, Float> scores, int limit) {
+        // Min-heap of the best "limit" ordinals; ties go to the most recently indexed product
+        PriorityQueue<Map.Entry<Integer, Float>> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byScore = Float.compare(a.getValue(), b.getValue());
+            return byScore != 0 ? byScore : Integer.compare(a.getKey(), b.getKey());
+        });
+        for (Map.Entry<Integer, Float> score : scores.entrySet()) {
+            heap.offer(score);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        ProductDocument[] hits = new ProductDocument[heap.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            hits[i] = entries.get(heap.poll().getKey()).document;
+        }
+        return Arrays.asList(hits);
+    }
+
+    private void removeLocked(long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        Entry entry = entries.get(ordinal);
+        for (String term : entry.terms) {
+            Postings list = postings.get(term);
+            if (list != null) {
+                list.remove(ordinal);
+                if (list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= entry.length;
+        entries.set(ordinal, null);
+        removedEntries++;
+        if (removedEntries >= MIN_COMPACTION && removedEntries * 2 >= entries.size()) {
+            compactLocked();
+        }
+    }
+
+    // Renumbers live entries in their current order, which keeps posting lists sorted and ties ranked by recency
+    private void compactLocked() {
+        int[] renumbered = new int[entries.size()];
+        List<Entry> live = new ArrayList<>(ordinals.size());
+        for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+            Entry entry = entries.get(ordinal);
+            if (entry != null) {
+                renumbered[ordinal] = live.size();
+                live.add(entry);
+            }
+        }
+        for (Postings list : postings.values()) {
+            for (int p = 0; p < list.size; p++) {
+                list.ordinals[p] = renumbered[list.ordinals[p]];
+            }
+        }
+        ordinals.replaceAll((productId, ordinal) -> renumbered[ordinal]);
+        entries.clear();
+        entries.addAll(live);
+        removedEntries = 0;
+    }
+
+    private static float addField(Map<String, Float> frequencies, String text, float weight) {
+        List<String> terms = TextNormalizer.tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Float::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private static final class Entry {
+        private final ProductDocument document;
+        private final String[] terms;
+        private final float length;
+
+        private Entry(ProductDocument document, String[] terms, float length) {
+            this.document = document;
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    // Posting list: parallel arrays sorted by ordinal (ordinals are only ever appended)
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        private void add(int ordinal, float frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        private void remove(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index >= 0) {
+                System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+                System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}
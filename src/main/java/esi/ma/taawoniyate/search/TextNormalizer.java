@@ -0,0 +1,203 @@
+package esi.ma.taawoniyate.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns product text into index terms. The same pipeline runs on documents and on queries,
+ * so any folding done here only has to be consistent, not linguistically exact.
+ *
+ * French: lower-casing, accent folding, ligatures, light plural stripping.
+ * Arabic: diacritics (harakat) and tatweel removed, alef/yaa/taa marbuta variants folded,
+ * Arabic-Indic digits mapped to ASCII, the definite article stripped.
+ * Darija written in Latin script: the usual digit letters (3, 7, 9, ...) spelled out and a
+ * few spelling variants (ou/u, sh/ch, doubled letters) collapsed. Only digits between letters,
+ * or a single one opening a word (3assel), are letters: quantities such as 2kg or 250ml are kept
+ * as they are, and also indexed as their number so "250 ml" finds "250ml".
+ */
+public final class TextNormalizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            // French
+            "le", "la", "les", "l", "de", "des", "du", "d", "et", "en", "un", "une",
+            "au", "aux", "a", "pour", "avec", "sur", "par",
+            // Arabic, in folded form (على -> علي, إلى -> الي)
+            "في", "من", "علي", "الي", "عن", "مع", "و"
+    );
+
+    private static final Set<String> UNITS = Set.of("g", "gr", "kg", "mg", "l", "cl", "dl", "ml", "m", "cm", "mm");
+
+    private static final String[] ARABIC_ARTICLES = {"وال", "بال", "كال", "فال", "لل", "ال"};
+
+    private TextNormalizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = folded.substring(start, i);
+                int digits = leadingDigits(token);
+                if (isQuantity(token, digits)) {
+                    // The whole quantity last: a query's last term is expanded as a prefix, "2kg" must not match "250ml"
+                    terms.add(token.substring(0, digits));
+                    terms.add(token);
+                } else {
+                    String term = normalizeToken(token);
+                    if (term != null) {
+                        terms.add(term);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Character-level folding shared by every script: case, accents, diacritics, letter variants
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK || c == 'ـ') {
+                // Latin accents, Arabic harakat/shadda/sukun, tatweel
+                continue;
+            }
+            switch (c) {
+                case 'œ': out.append("oe"); break;
+                case 'æ': out.append("ae"); break;
+                case 'ß': out.append("ss"); break;
+                case 'أ': case 'إ': case 'آ': case 'ٱ': out.append('ا'); break; // أ إ آ ٱ -> ا
+                case 'ى': case 'ئ': out.append('ي'); break; // ى ئ -> ي
+                case 'ة': out.append('ه'); break; // ة -> ه
+                case 'ؤ': out.append('و'); break; // ؤ -> و
+                default:
+                    if (c >= '٠' && c <= '٩') {
+                        out.append((char) ('0' + (c - '٠')));
+                    } else if (c >= '۰' && c <= '۹') {
+                        out.append((char) ('0' + (c - '۰')));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.toString();
+    }
+
+    private static int leadingDigits(String token) {
+        int digits = 0;
+        while (digits < token.length() && token.charAt(digits) >= '0' && token.charAt(digits) <= '9') {
+            digits++;
+        }
+        return digits;
+    }
+
+    // A number followed by letters (250ml, 12pcs), unless it is one Arabizi digit opening a word
+    // (3assel, 9ahwa): then the letters must be a unit (2kg, 5l)
+    private static boolean isQuantity(String token, int digits) {
+        if (digits == 0 || digits == token.length()) {
+            return false;
+        }
+        for (int i = digits; i < token.length(); i++) {
+            if (token.charAt(i) < 'a' || token.charAt(i) > 'z') {
+                return false;
+            }
+        }
+        return digits > 1 || UNITS.contains(token.substring(digits));
+    }
+
+    private static String normalizeToken(String token) {
+        if (STOP_WORDS.contains(token)) {
+            return null;
+        }
+        String term;
+        if (isArabic(token)) {
+            term = stripArabicArticle(token);
+        } else {
+            term = foldLatin(token);
+        }
+        return term.isEmpty() || STOP_WORDS.contains(term) ? null : term;
+    }
+
+    private static boolean isArabic(String token) {
+        char first = token.charAt(0);
+        return first >= '؀' && first <= 'ۿ';
+    }
+
+    private static String stripArabicArticle(String token) {
+        for (String article : ARABIC_ARTICLES) {
+            if (token.startsWith(article) && token.length() - article.length() >= 2) {
+                return token.substring(article.length());
+            }
+        }
+        return token;
+    }
+
+    private static String foldLatin(String token) {
+        boolean hasLetter = false;
+        boolean hasDigit = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            hasLetter |= Character.isLetter(c);
+            hasDigit |= Character.isDigit(c);
+        }
+        if (!hasLetter) {
+            // Plain numbers (sizes, weights) are kept verbatim
+            return token;
+        }
+
+        StringBuilder sb = new StringBuilder(token.length() + 4);
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (hasDigit && isArabiziDigit(token, i)) {
+                // Arabizi: digits standing for Arabic letters (3sel, l7em, 9ahwa, 5obz)
+                switch (c) {
+                    case '2': case '3': sb.append('a'); continue;
+                    case '5': sb.append("kh"); continue;
+                    case '7': sb.append('h'); continue;
+                    case '8': sb.append("gh"); continue;
+                    case '9': sb.append('q'); continue;
+                    default: break;
+                }
+            }
+            sb.append(c);
+        }
+        String term = sb.toString()
+                .replace("sh", "ch")
+                .replace("ou", "u");
+
+        // Collapse doubled letters (zitt -> zit, kaab -> kab)
+        StringBuilder collapsed = new StringBuilder(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (i == 0 || c != term.charAt(i - 1) || !Character.isLetter(c)) {
+                collapsed.append(c);
+            }
+        }
+        term = collapsed.toString();
+
+        // Light plural stripping (huiles -> huile, bijoux -> bijou)
+        if (term.length() > 3 && (term.endsWith("s") || term.endsWith("x"))) {
+            term = term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+
+    // A digit followed by a letter, and either opening the token or preceded by a letter
+    private static boolean isArabiziDigit(String token, int i) {
+        return i + 1 < token.length() && Character.isLetter(token.charAt(i + 1))
+                && (i == 0 || Character.isLetter(token.charAt(i - 1)));
+    }
+}
@@ -1,5 +1,6 @@
 package esi.ma.taawoniyate.security;
 
+import esi.ma.taawoniyate.monitoring.RequestTiming;
 import esi.ma.taawoniyate.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -7,14 +8,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -29,16 +28,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
+        long start = System.nanoTime();
         final String requestTokenHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
+        JwtPrincipal principal = null;
 
-        // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
+        // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token.
+        // One verification (signature, expiration, claims); repeated tokens come from the cache.
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwtToken);
+                principal = jwtUtil.verify(jwtToken);
             } catch (IllegalArgumentException e) {
                 logger.warn("Unable to get JWT Token");
             } catch (Exception e) {
@@ -46,27 +46,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
-        // Once we get the token validate it.
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (principal != null && principal.getUsername() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // if token is valid configure Spring Security to manually set authentication
-            if (jwtUtil.validateToken(jwtToken, username)) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    principal.getUsername(), null, principal.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                String role = jwtUtil.extractRole(jwtToken);
-                Long userId = jwtUtil.extractUserId(jwtToken);
+            // Store user info in request attributes for easy access
+            request.setAttribute("userId", principal.getUserId());
+            request.setAttribute("userRole", principal.getRole());
+            request.setAttribute("username", principal.getUsername());
+            request.setAttribute("principal", principal);
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())));
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                // Store user info in request attributes for easy access
-                request.setAttribute("userId", userId);
-                request.setAttribute("userRole", role);
-                request.setAttribute("username", username);
-                
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
+        RequestTiming.recordAuth(System.nanoTime() - start);
         chain.doFilter(request, response);
     }
 }
@@ -0,0 +1,51 @@
+package esi.ma.taawoniyate.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collections;
+import java.util.List;
+
+// Everything a request needs from a verified token. Immutable, so one instance is shared by
+// every request that presents the same token. fullName, businessName and profileVersion are the
+// profile snapshot taken at login; they are null in tokens issued before snapshots existed.
+public final class JwtPrincipal {
+    private final String username;
+    private final String role;
+    private final Long userId;
+    private final String fullName;
+    private final String businessName;
+    private final Integer profileVersion;
+    private final long expiresAtMillis;
+    private final List<GrantedAuthority> authorities;
+
+    public JwtPrincipal(String username, String role, Long userId, String fullName, String businessName,
+                        Integer profileVersion, long expiresAtMillis) {
+        this.username = username;
+        this.role = role;
+        this.userId = userId;
+        this.fullName = fullName;
+        this.businessName = businessName;
+        this.profileVersion = profileVersion;
+        this.expiresAtMillis = expiresAtMillis;
+        this.authorities = role == null
+                ? Collections.emptyList()
+                : Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
+    }
+
+    public String getUsername() { return username; }
+
+    public String getRole() { return role; }
+
+    public Long getUserId() { return userId; }
+
+    public String getFullName() { return fullName; }
+
+    public String getBusinessName() { return businessName; }
+
+    public Integer getProfileVersion() { return profileVersion; }
+
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+
+    public List<GrantedAuthority> getAuthorities() { return authorities; }
+}
@@ -1,14 +1,25 @@
 package esi.ma.taawoniyate.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import esi.ma.taawoniyate.model.Seller;
+import esi.ma.taawoniyate.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -20,8 +31,63 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // Verified tokens kept per SHA-256 of the token, each until the token itself expires. 0 disables the cache.
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    // Key and parser are immutable and thread-safe: built once, not per call
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, JwtPrincipal> principals;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        if (cacheMaximumSize > 0) {
+            principals = Caffeine.newBuilder()
+                    .maximumSize(cacheMaximumSize)
+                    .expireAfter(new UntilTokenExpires())
+                    .build();
+        }
+    }
+
+    /**
+     * Verifies the signature and expiration of a token and returns its claims as a principal.
+     * The token is parsed once; later calls with the same token are served from the cache
+     * until it expires.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public JwtPrincipal verify(String token) {
+        if (principals == null) {
+            return parse(token);
+        }
+        String key = digest(token);
+        JwtPrincipal principal = principals.getIfPresent(key);
+        if (principal != null && principal.getExpiresAtMillis() > System.currentTimeMillis()) {
+            return principal;
+        }
+        // Only successfully verified tokens are cached; a bad token throws and leaves no entry
+        principal = parse(token);
+        principals.put(key, principal);
+        return principal;
+    }
+
+    private JwtPrincipal parse(String token) {
+        Claims claims = extractAllClaims(token);
+        Date expiresAt = claims.getExpiration();
+        return new JwtPrincipal(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("userId", Long.class),
+                claims.get("name", String.class),
+                claims.get("businessName", String.class),
+                claims.get("profileVersion", Integer.class),
+                expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE);
     }
 
     public String extractUsername(String token) {
@@ -38,11 +104,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -56,13 +118,27 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    // Also embeds the profile snapshot (display name, business name, version) so requests carrying
+    // the token need no user lookup until the profile changes
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", user.getRole());
+        claims.put("userId", user.getId());
+        claims.put("name", user.getFullName());
+        if (user instanceof Seller seller) {
+            claims.put("businessName", seller.getBusinessName());
+        }
+        claims.put("profileVersion", user.getProfileVersion());
+        return createToken(claims, user.getEmail());
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -78,4 +154,32 @@ public class JwtUtil {
     public Long extractUserId(String token) {
         return extractClaim(token, claims -> claims.get("userId", Long.class));
     }
+
+    // The cache holds digests rather than the bearer tokens themselves
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class UntilTokenExpires implements Expiry<String, JwtPrincipal> {
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+            long remainingMillis = principal.getExpiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
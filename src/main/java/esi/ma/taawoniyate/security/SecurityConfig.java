@@ -1,5 +1,6 @@
 package esi.ma.taawoniyate.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -41,6 +42,8 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Streamed responses finish on an async dispatch; the request was authorized already
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Public endpoints
                 .requestMatchers("/api/users/authenticate", "/api/users/register/**").permitAll()
                 .requestMatchers("/store/products", "/store/categories", "/store/addProductSimple", "/store/addCategory").permitAll()
@@ -53,7 +56,11 @@ public class SecurityConfig {
                 .requestMatchers("/api/products/**").authenticated()
                 .requestMatchers("/api/users/me", "/api/users/seller/**", "/api/users/client/**", "/api/users/update-info").authenticated()
                 .requestMatchers("/api/panier/**").authenticated()
+                .requestMatchers("/api/admin/export/**", "/api/admin/analytics/**").authenticated()
                 .requestMatchers("/store/addProduct").hasRole("SELLER")
+                // Actuator: health for probes, the rest (metrics, cache contents and eviction) for admins
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Allow all other requests for now (you can restrict later)
                 .anyRequest().permitAll()
             )
@@ -69,7 +76,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Server-Timing"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
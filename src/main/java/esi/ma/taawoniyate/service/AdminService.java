@@ -1,5 +1,6 @@
 package esi.ma.taawoniyate.service;
 
+import esi.ma.taawoniyate.dto.PlatformStatistics;
 import esi.ma.taawoniyate.model.Client;
 import esi.ma.taawoniyate.model.Seller;
 import esi.ma.taawoniyate.model.User;
@@ -7,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -22,6 +24,9 @@ public class AdminService {
     @Autowired
     private SellerService sellerService;
 
+    @Autowired
+    private PlatformStatisticsService platformStatisticsService;
+
     // User management
     public Page<User> getAllUsers(Pageable pageable) {
         return userService.findAll(pageable);
@@ -50,16 +55,24 @@ public class AdminService {
         sellerService.deleteById(sellerId);
     }
 
-    // Statistics
+    // Statistics: in-memory counters, no transaction needed
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PlatformStatistics getStatistics() {
+        return platformStatisticsService.getStatistics();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public long getTotalUsers() {
-        return getAllUsers(Pageable.unpaged()).getTotalElements();
+        return platformStatisticsService.getTotalUsers();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public long getTotalClients() {
-        return getAllClients(Pageable.unpaged()).getTotalElements();
+        return platformStatisticsService.getTotalClients();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public long getTotalSellers() {
-        return getAllSellers(Pageable.unpaged()).getTotalElements();
+        return platformStatisticsService.getTotalSellers();
     }
 }
\ No newline at end of file
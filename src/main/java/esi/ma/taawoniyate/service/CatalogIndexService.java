@@ -0,0 +1,87 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.ProductCard;
+import esi.ma.taawoniyate.dto.ProductFilter;
+import esi.ma.taawoniyate.dto.ProductFilterResult;
+import esi.ma.taawoniyate.event.ProductChangedEvent;
+import esi.ma.taawoniyate.repository.ProductRepository;
+import esi.ma.taawoniyate.search.ProductDocument;
+import esi.ma.taawoniyate.search.ProductFacetIndex;
+import esi.ma.taawoniyate.search.ProductSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+// Owns the in-memory catalog indexes (full-text search and facets). Both are fed from the same
+// ProductDocument so a product write costs a single projection query.
+@Service
+public class CatalogIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIndexService.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final ProductFacetIndex facetIndex = new ProductFacetIndex();
+
+    // Loads the whole catalog once at startup; afterwards the indexes follow ProductChangedEvents
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try (Stream<ProductDocument> documents = productRepository.streamAllDocuments()) {
+            documents.forEach(this::index);
+        }
+        log.info("Catalog indexes built with {} products in {} ms",
+                searchIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getProductId());
+            return;
+        }
+        ProductDocument document = productRepository.findDocumentById(event.getProductId());
+        if (document != null) {
+            index(document);
+        } else {
+            remove(event.getProductId());
+        }
+    }
+
+    public List<ProductCard> search(String keyword, int limit) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return searchIndex.search(keyword, size).stream()
+                .map(ProductDocument::toCard)
+                .toList();
+    }
+
+    public ProductFilterResult filter(ProductFilter filter) {
+        return facetIndex.filter(filter);
+    }
+
+    private void index(ProductDocument document) {
+        searchIndex.index(document);
+        facetIndex.index(document);
+    }
+
+    private void remove(long productId) {
+        searchIndex.remove(productId);
+        facetIndex.remove(productId);
+    }
+}
@@ -0,0 +1,174 @@
+package esi.ma.taawoniyate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import esi.ma.taawoniyate.event.CategoryChangedEvent;
+import esi.ma.taawoniyate.event.ProductChangedEvent;
+import esi.ma.taawoniyate.event.SellerChangedEvent;
+import esi.ma.taawoniyate.repository.CategoryRepository;
+import esi.ma.taawoniyate.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serialized snapshots of the public catalog listings, tagged with a catalog version.
+ *
+ * Every product, category or seller write bumps the version, so a client holding the current ETag can be
+ * answered 304 from the counter alone. Otherwise the JSON body is built once per version and
+ * reused until the next write. The version is read before the data is loaded: a write racing a
+ * rebuild can only leave a snapshot tagged older than its content, which costs one extra refetch.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Seeded with the start time so ETags handed out before a restart never match afterwards
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    private volatile Snapshot products;
+    private volatile Snapshot categories;
+    // One rebuild at a time. A lock rather than synchronized: the rebuild queries the database, and a
+    // virtual thread blocking inside a monitor would pin its carrier thread.
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    // Product JSON embeds the seller's names
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSellerChanged(SellerChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public String productsEtag() {
+        return etag("products", version.get());
+    }
+
+    public String categoriesEtag() {
+        return etag("categories", version.get());
+    }
+
+    @Transactional(readOnly = true)
+    public Snapshot products() {
+        Snapshot current = products;
+        long v = version.get();
+        if (current != null && current.getVersion() == v) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            current = products;
+            v = version.get();
+            if (current == null || current.getVersion() != v) {
+                current = new Snapshot(v, etag("products", v), serialize(productRepository.findAll()));
+                products = current;
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Snapshot categories() {
+        Snapshot current = categories;
+        long v = version.get();
+        if (current != null && current.getVersion() == v) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            current = categories;
+            v = version.get();
+            if (current == null || current.getVersion() != v) {
+                List<String> names = new ArrayList<>();
+                categoryRepository.findAll().forEach(category -> names.add(category.getName()));
+                current = new Snapshot(v, etag("categories", v), serialize(names));
+                categories = current;
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * If-None-Match check: a list of entity tags or "*". The weak comparison applies (RFC 9110
+     * 13.1.2), so a W/ prefix added by a proxy still matches.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(String resource, long version) {
+        return "\"" + resource + "-" + Long.toString(version, 36) + "\"";
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog snapshot", e);
+        }
+    }
+
+    public static final class Snapshot {
+        private final long version;
+        private final String etag;
+        private final byte[] body;
+
+        private Snapshot(long version, String etag, byte[] body) {
+            this.version = version;
+            this.etag = etag;
+            this.body = body;
+        }
+
+        public long getVersion() { return version; }
+
+        public String getEtag() { return etag; }
+
+        public byte[] getBody() { return body; }
+    }
+}
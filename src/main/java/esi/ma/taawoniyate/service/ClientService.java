@@ -1,13 +1,14 @@
 package esi.ma.taawoniyate.service;
 
+import esi.ma.taawoniyate.event.UserCountChangedEvent;
+import esi.ma.taawoniyate.event.UserProfileChangedEvent;
 import esi.ma.taawoniyate.model.Client;
 import esi.ma.taawoniyate.model.Panier;
 import esi.ma.taawoniyate.model.Product;
 import esi.ma.taawoniyate.repository.ClientRepository;
 import esi.ma.taawoniyate.repository.PanierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,12 +26,16 @@ public class ClientService {
     @Autowired
     private PanierRepository panierRepository;
 
-    @Cacheable(value = "clients", key = "#email")
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Client findByEmail(String email) {
         return (Client) clientRepository.findByEmail(email);
     }
 
-    @Cacheable(value = "clients", key = "#id")
     public Client findById(long id) {
         return (Client) clientRepository.findById(id);
     }
@@ -48,29 +53,41 @@ public class ClientService {
     }
 
     @Transactional
-    @CacheEvict(value = {"clients", "users"}, key = "#client.id")
     public Client save(Client client) {
         if (client.getRole() == null) {
             client.setRole("client");
         }
-        return clientRepository.save(client);
+        boolean created = client.getId() == 0;
+        Client saved = clientRepository.save(client);
+        userProfileCache.evict(saved.getId(), saved.getEmail());
+        if (created) {
+            eventPublisher.publishEvent(new UserCountChangedEvent(saved.getId(), saved.getClass(), 1));
+        }
+        return saved;
     }
 
     public Panier getClientPanier(Client client) {
-         return panierRepository.findByClient(client);
+         return panierRepository.findFirstByClientOrderByDateDesc(client);
 
     }
 
     @Transactional
-    @CacheEvict(value = {"clients", "users"}, key = "#client.id")
     public Client update(Client client) {
-        return clientRepository.save(client);
+        Client saved = clientRepository.save(client);
+        userProfileCache.evict(saved.getId(), saved.getEmail());
+        return saved;
     }
 
     @Transactional
-    @CacheEvict(value = {"clients", "users"}, key = "#id")
     public void deleteById(Long id) {
+        // Loaded anyway by deleteById, which then finds it in the persistence context
+        Client client = findById(id);
         clientRepository.deleteById(id);
+        userProfileCache.evict(id);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id, null));
+        if (client != null) {
+            eventPublisher.publishEvent(new UserCountChangedEvent(id, client.getClass(), -1));
+        }
     }
 
     // Favorite products management
@@ -2,15 +2,17 @@ package esi.ma.taawoniyate.service;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import esi.ma.taawoniyate.monitoring.RequestTiming;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
 
 @Service
-public class CloudinaryService {
+@ConditionalOnProperty(name = "app.images.store", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryService implements ImageStore {
 
     private final Cloudinary cloudinary;
 
@@ -18,11 +20,31 @@ public class CloudinaryService {
         this.cloudinary = cloudinary;
     }
 
-    public String uploadFile(MultipartFile file) throws IOException {
-        File uploadedFile = File.createTempFile("temp", file.getOriginalFilename());
-        file.transferTo(uploadedFile);
+    // The public id is the content hash: a photo already on Cloudinary is not stored a second time
+    @Override
+    public String store(Path file, String originalFilename) throws IOException {
+        String publicId = ImageStore.sha256(file);
+        long start = System.nanoTime();
+        try {
+            Map uploadResult = cloudinary.uploader().upload(file.toFile(), ObjectUtils.asMap(
+                    "public_id", publicId,
+                    "overwrite", false,
+                    "unique_filename", false));
+            return uploadResult.get("secure_url").toString();
+        } finally {
+            RequestTiming.recordExternal(System.nanoTime() - start);
+        }
+    }
 
-        Map uploadResult = cloudinary.uploader().upload(uploadedFile, ObjectUtils.emptyMap());
-        return uploadResult.get("secure_url").toString();
+    // Cloudinary downloads the remote image itself; nothing goes through this server
+    @Override
+    public String storeFromUrl(String url) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Map uploadResult = cloudinary.uploader().upload(url, ObjectUtils.emptyMap());
+            return uploadResult.get("secure_url").toString();
+        } finally {
+            RequestTiming.recordExternal(System.nanoTime() - start);
+        }
     }
 }
@@ -0,0 +1,132 @@
+package esi.ma.taawoniyate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import esi.ma.taawoniyate.exporter.RowWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+/**
+ * Admin exports of the catalog, the users and the order lines.
+ *
+ * Each export is one read-only transaction over a forward-only JDBC cursor: the driver pulls
+ * fetch-size rows per round trip and each row is written out before the next one is read, so
+ * memory stays flat however large the table is. Queries select scalar columns only (no entity
+ * is loaded, no eager association fires); the persistence context is still cleared every few
+ * thousand rows, which is also when the output is flushed to the client.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    public enum Dataset {
+        PRODUCTS(new String[]{"id", "name", "description", "price", "quantity", "category", "sellerId", "businessName"},
+                "SELECT p.id, p.name, p.description, p.price, p.quantity, c.name, s.id, s.businessName " +
+                        "FROM Product p JOIN p.seller s LEFT JOIN p.category c ORDER BY p.id"),
+        // No password column, ever
+        USERS(new String[]{"id", "fullName", "email", "role", "phone", "address", "city", "region"},
+                "SELECT u.id, u.fullName, u.email, u.role, u.phone, u.Address, u.city, u.region " +
+                        "FROM User u ORDER BY u.id"),
+        ORDERS(new String[]{"orderId", "date", "clientId", "lineId", "productId", "productName", "sellerId", "businessName", "quantity", "price"},
+                "SELECT o.panier_id, o.date, o.client.id, i.id, p.id, p.name, s.id, s.businessName, i.quantity, i.price " +
+                        "FROM PanierItem i JOIN i.panier o JOIN i.seller s LEFT JOIN i.product p " +
+                        "ORDER BY o.panier_id, i.id");
+
+        private final String[] columns;
+        private final String query;
+
+        Dataset(String[] columns, String query) {
+            this.columns = columns;
+            this.query = query;
+        }
+
+        public static Dataset of(String name) {
+            return Dataset.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+
+        public String fileName(RowWriter.Format format) {
+            return name().toLowerCase(Locale.ROOT) + "." + format.getExtension();
+        }
+    }
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.export.clear-every:5000}")
+    private int clearEvery;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        // Read-only also lets the Postgres driver stream: cursors only work with autocommit off
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Writes the whole dataset to the stream and returns the number of rows. Runs on the thread
+     * that writes the response; a client going away surfaces as the IOException.
+     */
+    public long export(Dataset dataset, RowWriter.Format format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        RowWriter writer = RowWriter.open(format, out, objectMapper.getFactory());
+        writer.writeHeader(dataset.columns);
+        long rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> scroll(dataset, writer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Exported {} {} rows as {} in {} ms", rows, dataset, format, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private long scroll(Dataset dataset, RowWriter writer) {
+        Session session = entityManager.unwrap(Session.class);
+        try (ScrollableResults<Object[]> results = session.createQuery(dataset.query, Object[].class)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .setFetchSize(fetchSize)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            long count = 0;
+            while (results.next()) {
+                writer.writeRow(results.get());
+                if (++count % clearEvery == 0) {
+                    session.clear();
+                    writer.flush();
+                }
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
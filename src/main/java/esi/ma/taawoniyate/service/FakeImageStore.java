@@ -0,0 +1,71 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.monitoring.RequestTiming;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline stand-in for a real store (app.images.store=fake): reads the file, optionally waits
+ * app.images.fake-latency to mimic a remote upload, and returns a URL on a reserved domain.
+ * Nothing is stored. Counters let tests check what went through.
+ */
+@Component
+@ConditionalOnProperty(name = "app.images.store", havingValue = "fake")
+public class FakeImageStore implements ImageStore {
+
+    static final String BASE_URL = "https://images.invalid/";
+
+    @Value("${app.images.fake-latency:0ms}")
+    private Duration latency;
+
+    private final AtomicInteger uploads = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+
+    @Override
+    public String store(Path file, String originalFilename) throws IOException {
+        bytes.addAndGet(Files.size(file));
+        simulateLatency();
+        uploads.incrementAndGet();
+        return BASE_URL + ImageStore.sha256(file);
+    }
+
+    @Override
+    public String storeFromUrl(String url) throws IOException {
+        simulateLatency();
+        uploads.incrementAndGet();
+        return BASE_URL + UUID.randomUUID();
+    }
+
+    public int getUploads() {
+        return uploads.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    private void simulateLatency() throws IOException {
+        if (latency == null || latency.isZero()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrupted", e);
+        } finally {
+            // Reported like a real remote store would be
+            RequestTiming.recordExternal(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package esi.ma.taawoniyate.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Makes the listing, detail and zoom sizes of an uploaded image (see ImageVariant).
+ *
+ * The original is decoded once, and only as much as needed: when it is at least twice the
+ * largest size wanted, the decoder skips source pixels (ImageIO subsampling) so a 50-megapixel
+ * photo never exists in memory at full size. Sizes are then made from largest to smallest, each
+ * from the previous one, halving at most per bilinear pass to avoid aliasing. The EXIF
+ * orientation of phone photos is applied to the derivatives. Variants at least as large as the
+ * original are not made (the original is used instead), and formats ImageIO cannot read (WebP)
+ * get no variants. A semaphore bounds how many images are decoded at once.
+ */
+@Component
+public class ImageResizer {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageResizer.class);
+
+    // Decompression bomb guard: larger images keep their original only
+    static final long MAX_PIXELS = 100_000_000L;
+    static final float JPEG_QUALITY = 0.82f;
+
+    private final Semaphore permits;
+
+    public ImageResizer(@Value("${app.images.resize-concurrency:2}") int concurrency) {
+        this.permits = new Semaphore(Math.max(1, concurrency));
+    }
+
+    /**
+     * Temp files for the variants smaller than the original, by variant; the caller deletes them.
+     * Empty when the image cannot be decoded.
+     */
+    public Map<ImageVariant, Path> createVariants(Path original) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to resize", e);
+        }
+        try {
+            return resize(original);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Map<ImageVariant, Path> resize(Path original) throws IOException {
+        Map<ImageVariant, Path> variants = new EnumMap<>(ImageVariant.class);
+        BufferedImage decoded;
+        int longEdge;
+        List<ImageVariant> wanted = new ArrayList<>();
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return variants;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    log.warn("Image {} is {}x{}, too large to resize", original, width, height);
+                    return variants;
+                }
+                longEdge = Math.max(width, height);
+                for (ImageVariant variant : ImageVariant.values()) {
+                    if (variant.getSize() < longEdge) {
+                        wanted.add(variant);
+                    }
+                }
+                if (wanted.isEmpty()) {
+                    return variants;
+                }
+                int largest = wanted.get(wanted.size() - 1).getSize();
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longEdge / largest);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        int orientation = exifOrientation(original);
+        boolean alpha = decoded.getColorModel().hasAlpha();
+        BufferedImage current = decoded;
+        try {
+            for (int i = wanted.size() - 1; i >= 0; i--) {
+                ImageVariant variant = wanted.get(i);
+                current = scale(current, variant.getSize(), alpha);
+                variants.put(variant, write(orient(current, orientation), alpha));
+            }
+        } catch (IOException | RuntimeException e) {
+            variants.values().forEach(ImageResizer::deleteQuietly);
+            throw e;
+        }
+        return variants;
+    }
+
+    // Scales so the longest edge is "size", keeping the aspect ratio
+    static BufferedImage scale(BufferedImage source, int size, boolean alpha) {
+        int sourceLong = Math.max(source.getWidth(), source.getHeight());
+        int targetWidth = Math.max(1, Math.round((float) source.getWidth() * size / sourceLong));
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * size / sourceLong));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            // Bilinear sampling only looks at 2x2 source pixels, so shrink by at most half per pass
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Applies an EXIF orientation (1-8) so the pixels are stored upright
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);  // mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h); // upside down
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);  // flipped vertically
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);   // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);  // rotated 90 clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w); // transversed
+            default -> new AffineTransform(0, -1, 1, 0, 0, w); // 8: rotated 90 counter-clockwise
+        };
+        boolean swap = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swap ? h : w, swap ? w : h, image.getType());
+        Graphics2D g = oriented.createGraphics();
+        try {
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return oriented;
+    }
+
+    // Orientation tag of a JPEG's EXIF block, 1 (upright) when absent or unreadable
+    static int exifOrientation(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (marker == 0xFFE1) {
+                    byte[] segment = in.readNBytes(length);
+                    int orientation = orientationTag(segment);
+                    if (orientation > 0) {
+                        return orientation;
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    // APP1 payload: "Exif\0\0", then a TIFF header and IFD0 whose entries are 12 bytes each
+    private static int orientationTag(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return 0;
+        }
+        int tiff = 6;
+        boolean littleEndian = segment[tiff] == 'I';
+        int ifd = tiff + (int) read(segment, tiff + 4, 4, littleEndian);
+        int entries = (int) read(segment, ifd, 2, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (read(segment, entry, 2, littleEndian) == 0x0112) {
+                int value = (int) read(segment, entry + 8, 2, littleEndian);
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static long read(byte[] data, int offset, int length, boolean littleEndian) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int b = data[offset + (littleEndian ? length - 1 - i : i)] & 0xFF;
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+
+    private static Path write(BufferedImage image, boolean alpha) throws IOException {
+        Path file = Files.createTempFile("product-image-variant-", alpha ? ".png" : ".jpg");
+        try {
+            if (alpha) {
+                ImageIO.write(image, "png", file.toFile());
+                return file;
+            }
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file);
+        }
+    }
+}
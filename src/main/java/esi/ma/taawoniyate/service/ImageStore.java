@@ -0,0 +1,43 @@
+package esi.ma.taawoniyate.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Where product images are kept, selected with app.images.store:
+ * cloudinary (default, CloudinaryService), local (LocalImageStore, files on this server served
+ * by ImageController) or fake (FakeImageStore, stores nothing; for offline runs and tests).
+ *
+ * Stores address images by the SHA-256 of their bytes, so the same photo uploaded again (for
+ * another listing, say) is kept once and gets the same URL.
+ */
+public interface ImageStore {
+
+    // Stores a local file and returns the public URL of the image. The caller deletes the file afterwards.
+    String store(Path file, String originalFilename) throws IOException;
+
+    // Stores a remote image and returns the public URL of the stored copy
+    String storeFromUrl(String url) throws IOException;
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,16 @@
+package esi.ma.taawoniyate.service;
+
+// Derivatives made from every uploaded product image, by longest edge in pixels
+public enum ImageVariant {
+    THUMBNAIL(320),
+    DETAIL(1080),
+    ZOOM(2048);
+
+    private final int size;
+
+    ImageVariant(int size) {
+        this.size = size;
+    }
+
+    public int getSize() { return size; }
+}
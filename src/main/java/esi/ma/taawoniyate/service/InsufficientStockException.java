@@ -0,0 +1,20 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.StockShortage;
+
+import java.util.List;
+
+// Thrown by PanierService when some lines of a cart exceed the stock left; nothing was reserved
+public class InsufficientStockException extends RuntimeException {
+
+    private final List<StockShortage> shortages;
+
+    public InsufficientStockException(List<StockShortage> shortages) {
+        super("Insufficient stock for products: " + shortages.stream().map(StockShortage::getProductId).toList());
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<StockShortage> getShortages() {
+        return shortages;
+    }
+}
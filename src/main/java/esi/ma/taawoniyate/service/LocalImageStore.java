@@ -0,0 +1,214 @@
+package esi.ma.taawoniyate.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Images kept on this server's disk (app.images.store=local), served by ImageController.
+ *
+ * Files are content-addressed: the name is the SHA-256 of the bytes plus the detected format,
+ * spread over two directory levels (ab/cd/abcd...jpg) to keep directories small. Storing a photo
+ * that is already there costs one hash and no write. New files are written to a staging name in
+ * the same directory tree and renamed into place, so readers never see a partial image. Only
+ * JPEG, PNG, GIF and WebP are accepted, whatever the upload claims to be.
+ */
+@Service
+@ConditionalOnProperty(name = "app.images.store", havingValue = "local")
+public class LocalImageStore implements ImageStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalImageStore.class);
+
+    private static final Pattern NAME = Pattern.compile("([0-9a-f]{64})\\.([a-z]{3,4})");
+
+    private static final Set<Integer> REDIRECTS = Set.of(301, 302, 303, 307, 308);
+    private static final int MAX_REDIRECTS = 5;
+
+    @Value("${app.images.local.root:./data/images}")
+    private Path root;
+
+    // Public URL prefix of ImageController, e.g. https://api.example.com/images/
+    @Value("${app.images.local.base-url:http://localhost:8080/images/}")
+    private String baseUrl;
+
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxImageSize;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    @PostConstruct
+    void init() throws IOException {
+        root = root.toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        if (!baseUrl.endsWith("/")) {
+            baseUrl = baseUrl + "/";
+        }
+        log.info("Local image store in {}", root);
+    }
+
+    @Override
+    public String store(Path file, String originalFilename) throws IOException {
+        ImageType type = ImageType.detect(file);
+        if (type == null) {
+            throw new IOException("Unsupported image format" + (originalFilename != null ? ": " + originalFilename : ""));
+        }
+        String name = ImageStore.sha256(file) + "." + type.getExtension();
+        Path target = resolve(name);
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Path staging = Files.createTempFile(target.getParent(), ".staging-", ".tmp");
+            try {
+                Files.copy(file, staging, StandardCopyOption.REPLACE_EXISTING);
+                // Same content under the same name, so a concurrent store of the same photo is harmless
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(staging);
+            }
+        }
+        return baseUrl + name;
+    }
+
+    /**
+     * Downloads an image named in an import file. The URL comes from a seller, so only public
+     * addresses are fetched: the host is resolved and loopback, link-local, private and wildcard
+     * addresses are refused. Redirects are followed by hand, checking every hop the same way.
+     */
+    @Override
+    public String storeFromUrl(String url) throws IOException {
+        Files.createDirectories(root);
+        Path download = Files.createTempFile(root, ".download-", ".tmp");
+        try {
+            URI uri = URI.create(url);
+            for (int redirects = 0; ; redirects++) {
+                checkPublic(uri);
+                HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+                HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream in = response.body()) {
+                    Optional<String> location = response.headers().firstValue("Location");
+                    if (REDIRECTS.contains(response.statusCode()) && location.isPresent()) {
+                        if (redirects == MAX_REDIRECTS) {
+                            throw new IOException("Too many redirects");
+                        }
+                        uri = uri.resolve(location.get());
+                        continue;
+                    }
+                    if (response.statusCode() != 200) {
+                        throw new IOException("HTTP " + response.statusCode());
+                    }
+                    // Capped copy: a huge or endless response is cut off instead of filling the disk
+                    long copied = Files.copy(new LimitedInputStream(in, maxImageSize.toBytes() + 1), download,
+                            StandardCopyOption.REPLACE_EXISTING);
+                    if (copied > maxImageSize.toBytes()) {
+                        throw new IOException("Image larger than " + maxImageSize);
+                    }
+                }
+                return store(download, url);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid image URL: " + url, e);
+        } finally {
+            Files.deleteIfExists(download);
+        }
+    }
+
+    // The HTTP client resolves the host again; a name re-pointed in between is not caught here
+    static void checkPublic(URI uri) throws IOException {
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            throw new IOException("Only http and https image URLs are accepted");
+        }
+        if (uri.getHost() == null) {
+            throw new IOException("Image URL without a host");
+        }
+        for (InetAddress address : InetAddress.getAllByName(uri.getHost())) {
+            if (!isPublic(address)) {
+                throw new IOException("Image URL points to a non-public address");
+            }
+        }
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        // IPv6 unique local addresses (fc00::/7), the private ranges isSiteLocalAddress() misses
+        return !(address instanceof Inet6Address) || (address.getAddress()[0] & 0xfe) != 0xfc;
+    }
+
+    /**
+     * The file behind a stored image name ("<sha256>.<ext>"), or null when the name is not one
+     * this store could have produced or the file does not exist.
+     */
+    public Path find(String name) {
+        if (!NAME.matcher(name).matches()) {
+            return null;
+        }
+        Path file = resolve(name);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private Path resolve(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+    }
+
+    private static final class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+    }
+}
@@ -1,27 +1,269 @@
 package esi.ma.taawoniyate.service;
 
+import esi.ma.taawoniyate.dto.CartLine;
+import esi.ma.taawoniyate.dto.SellerOrder;
+import esi.ma.taawoniyate.dto.SellerOrderLine;
+import esi.ma.taawoniyate.dto.SellerOrderPage;
+import esi.ma.taawoniyate.dto.StockShortage;
+import esi.ma.taawoniyate.event.OrderSavedEvent;
 import esi.ma.taawoniyate.model.Client;
 import esi.ma.taawoniyate.model.Panier;
+import esi.ma.taawoniyate.model.PanierItem;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.repository.ClientRepository;
+import esi.ma.taawoniyate.repository.PanierItemRepository;
 import esi.ma.taawoniyate.repository.PanierRepository;
+import esi.ma.taawoniyate.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @Transactional
 public class PanierService {
+    public static final int DEFAULT_ORDERS_PAGE_SIZE = 20;
+    public static final int MAX_ORDERS_PAGE_SIZE = 100;
+    // Upper bound for the first page of seller orders (fits a PostgreSQL timestamp)
+    private static final LocalDateTime LATEST_ORDER_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    // Takes a line's quantity from the stock if enough is left; a negative quantity gives it back
+    static final String RESERVE_STOCK = "UPDATE product SET quantity = quantity - ? WHERE product_id = ? AND quantity >= ?";
+
     @Autowired
     PanierRepository panierRepository;
 
+    @Autowired
+    PanierItemRepository panierItemRepository;
+
+    @Autowired
+    ClientRepository clientRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // Saving an existing panier reserves only the difference with its stored lines, and reports
+    // those lines as removed so the statistics and the sales rollup apply the difference too
     public void savePanier(Panier panier){
-        panierRepository.save(panier);
+        for (PanierItem item : panier.getRawItems()) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for product: " + item.getProduct());
+            }
+        }
+        boolean created = panier.getPanier_id() == 0;
+        Map<Long, Integer> stock = new HashMap<>();
+        addQuantities(stock, panier, 1);
+        List<OrderSavedEvent.Line> removed = List.of();
+        if (!created) {
+            Panier stored = panierRepository.findById(panier.getPanier_id())
+                    .orElseThrow(() -> new IllegalArgumentException("Panier not found: " + panier.getPanier_id()));
+            addQuantities(stock, stored, -1);
+            // Read before the merge below overwrites them
+            removed = lines(stored);
+            // Keeps its order date rather than the body's, so unchanged lines stay on their day
+            panier.setDate(stored.getRawDate());
+        }
+        reserveStock(stock);
+        Panier saved = panierRepository.save(panier);
+        eventPublisher.publishEvent(new OrderSavedEvent(saved.getPanier_id(), created, removed, lines(saved)));
     }
 
     public List<Panier> getAllPanier(){
         return panierRepository.findAllWithItems();
     }
 
+    /**
+     * Saves a cart as the client's panier, replacing the items of an existing one (the latest, if
+     * the client has several).
+     *
+     * The cost does not grow with the cart: lines are validated up front, every product and its
+     * seller come from one IN query, and the new lines are inserted as a JDBC batch (sequence ids,
+     * hibernate.jdbc.batch_size). Prices are taken from the catalog, not from the request. A replaced
+     * panier is dated again, as it now holds the order just placed.
+     *
+     * Stock is reserved in the same transaction (see reserveStock); replacing a panier reserves only
+     * the difference with its previous lines.
+     *
+     * @throws InsufficientStockException if some lines exceed the stock left, listing them all
+     */
+    @Transactional
+    public Panier checkout(long clientId, List<CartLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("No items in cart");
+        }
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartLine line : lines) {
+            if (line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity for product: " + line.getProductId());
+            }
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllWithSellerByIdIn(quantities.keySet())) {
+            products.put(product.getId(), product);
+        }
+        List<Long> missing = quantities.keySet().stream()
+                .filter(productId -> !products.containsKey(productId))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Product not found: " + missing);
+        }
+
+        // A reference is enough to link the rows; the client itself is never read
+        Client client = clientRepository.getReferenceById(clientId);
+        Panier panier = panierRepository.findFirstByClientOrderByDateDesc(client);
+        boolean created = panier == null;
+        Map<Long, Integer> stock = new HashMap<>(quantities);
+        if (!created) {
+            addQuantities(stock, panier, -1);
+        }
+        reserveStock(stock);
+
+        List<OrderSavedEvent.Line> removed = List.of();
+        if (!created) {
+            removed = lines(panier);
+            panier.getRawItems().clear();
+            panier.setDate(LocalDateTime.now());
+        } else {
+            panier = new Panier();
+            panier.setClient(client);
+        }
+
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Product product = products.get(line.getKey());
+            PanierItem item = new PanierItem();
+            item.setProduct(product);
+            item.setQuantity(line.getValue());
+            item.setPrice(BigDecimal.valueOf(product.getPrice()));
+            item.setSeller(product.getSellerEntity());
+            item.setClient(client);
+            item.setPanier(panier);
+            panier.getRawItems().add(item);
+        }
+        Panier saved = panierRepository.save(panier);
+        eventPublisher.publishEvent(new OrderSavedEvent(saved.getPanier_id(), created, removed, lines(saved)));
+        return saved;
+    }
+
+    /**
+     * Applies stock changes per product id (positive: taken, negative: given back) as one JDBC batch
+     * of conditional updates, so a line only goes through if the stock covers it, whatever runs
+     * concurrently. Products are updated in ascending id order: concurrent checkouts lock the rows
+     * they share in the same order and cannot deadlock. If any line is short, the exception lists
+     * every short line and the caller's transaction rolls back what the others took.
+     */
+    private void reserveStock(Map<Long, Integer> quantities) {
+        List<Object[]> updates = new ArrayList<>();
+        List<Long> productIds = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(quantities).entrySet()) {
+            if (line.getValue() != 0) {
+                updates.add(new Object[]{line.getValue(), line.getKey(), line.getValue()});
+                productIds.add(line.getKey());
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(RESERVE_STOCK, updates);
+        List<Long> shortIds = new ArrayList<>();
+        // Giving stock back cannot fail, unless the product is gone
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0 && quantities.get(productIds.get(i)) > 0) {
+                shortIds.add(productIds.get(i));
+            }
+        }
+        if (shortIds.isEmpty()) {
+            return;
+        }
+        List<StockShortage> shortages = productRepository.findStockShortages(shortIds);
+        for (StockShortage shortage : shortages) {
+            shortage.setRequested(quantities.get(shortage.getProductId()));
+        }
+        throw new InsufficientStockException(shortages);
+    }
+
+    // Adds (sign 1) or subtracts (sign -1) the panier's quantities per product id
+    private static void addQuantities(Map<Long, Integer> stock, Panier panier, int sign) {
+        for (PanierItem item : panier.getRawItems()) {
+            if (item.getProductEntity() != null) {
+                stock.merge(item.getProductEntity().getId(), sign * item.getQuantity(), Integer::sum);
+            }
+        }
+    }
+
+    private static List<OrderSavedEvent.Line> lines(Panier panier) {
+        List<OrderSavedEvent.Line> lines = new ArrayList<>(panier.getRawItems().size());
+        for (PanierItem item : panier.getRawItems()) {
+            Product product = item.getProductEntity();
+            lines.add(new OrderSavedEvent.Line(item.getSellerEntity().getId(), product != null ? product.getId() : null,
+                    item.getQuantity(), item.getPrice(), panier.getRawDate().toLocalDate()));
+        }
+        return lines;
+    }
+
+    // Orders containing the seller's products, newest first (by order date, which checkout moves
+    // forward when it replaces a panier), each with only that seller's lines. Two queries per page
+    // on the seller's order lines; the cursor is the last order's date and id.
+    @Transactional(readOnly = true)
+    public SellerOrderPage getSellerOrders(long sellerId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_ORDERS_PAGE_SIZE));
+        LocalDateTime beforeDate = LATEST_ORDER_DATE;
+        int beforeId = Integer.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf(':');
+                beforeDate = LocalDateTime.parse(raw.substring(0, separator));
+                beforeId = Integer.parseInt(raw.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        List<Integer> orderIds = panierItemRepository.findSellerOrderIds(sellerId, beforeDate, beforeId,
+                PageRequest.of(0, limit + 1));
+        boolean hasMore = orderIds.size() > limit;
+        if (hasMore) {
+            orderIds = orderIds.subList(0, limit);
+        }
+        if (orderIds.isEmpty()) {
+            return new SellerOrderPage(List.of(), null);
+        }
+
+        // Lines come back in page order (newest first), so grouping keeps it
+        Map<Integer, SellerOrder> orders = new LinkedHashMap<>();
+        for (SellerOrderLine line : panierItemRepository.findSellerOrderLines(sellerId, orderIds)) {
+            orders.computeIfAbsent(line.getOrderId(), id -> new SellerOrder(line)).addLine(line);
+        }
+        List<SellerOrder> items = new ArrayList<>(orders.values());
+        String nextCursor = null;
+        if (hasMore && !items.isEmpty()) {
+            SellerOrder last = items.get(items.size() - 1);
+            String raw = last.getOrderDate() + ":" + last.getOrderId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        return new SellerOrderPage(items, nextCursor);
+    }
+
     public List<Panier> getAllPanierByClient(Client client) {
         return panierRepository.findAllByClient(client);
     }
@@ -30,6 +272,6 @@ public class PanierService {
         // Create a temporary client object with just the ID to find the panier
         Client tempClient = new Client();
         tempClient.setId(clientId);
-        return panierRepository.findByClient(tempClient);
+        return panierRepository.findFirstByClientOrderByDateDesc(tempClient);
     }
 }
@@ -0,0 +1,157 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.config.WorkerThreads;
+import esi.ma.taawoniyate.model.User;
+import esi.ma.taawoniyate.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Checks login passwords on a small CPU-sized pool instead of the request threads, so a burst of
+ * logins (BCrypt is ~100 ms of CPU each) cannot starve the rest of the API. The queue is bounded:
+ * when it is full verify() throws RejectedExecutionException right away and the caller answers 429.
+ *
+ * Accounts still holding a plaintext password, or a hash weaker than the current encoder, are
+ * rehashed after their next successful login.
+ */
+@Service
+public class PasswordVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordVerifier.class);
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 0 means one thread per available processor
+    @Value("${app.auth.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${app.auth.hash-queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor hashExecutor;
+    private String unknownUserHash;
+    private Timer queueWait;
+    private Counter rejected;
+    private Counter rehashed;
+
+    @PostConstruct
+    void start() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        hashExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), WorkerThreads.named("password-hash", false),
+                new ThreadPoolExecutor.AbortPolicy());
+        hashExecutor.allowCoreThreadTimeOut(true);
+
+        // Unknown emails are checked against this, so they take as long as a wrong password
+        unknownUserHash = passwordEncoder.encode("unknown-user");
+
+        Gauge.builder("auth.password.queue", hashExecutor, executor -> executor.getQueue().size())
+                .description("Password checks waiting for a hash thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", hashExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Password checks being hashed")
+                .register(meterRegistry);
+        queueWait = Timer.builder("auth.password.wait")
+                .description("Time a password check waited in the queue")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejected = Counter.builder("auth.password.rejected")
+                .description("Logins turned away because the hash queue was full")
+                .register(meterRegistry);
+        rehashed = Counter.builder("auth.password.rehashed")
+                .description("Stored passwords upgraded to a current hash after login")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        hashExecutor.shutdownNow();
+    }
+
+    /**
+     * Completes with whether the password matches the user's (false for a null user). Throws
+     * RejectedExecutionException when too many checks are already waiting.
+     */
+    public CompletableFuture<Boolean> verify(User user, String rawPassword) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                boolean matches = check(user, rawPassword);
+                Timer.builder("auth.password.verify")
+                        .description("Time spent hashing a login password")
+                        .tag("outcome", matches ? "match" : "mismatch")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                return matches;
+            }, hashExecutor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private boolean check(User user, String rawPassword) {
+        String stored = user != null ? user.getPassword() : null;
+        if (stored == null || rawPassword == null) {
+            passwordEncoder.matches(rawPassword != null ? rawPassword : "", unknownUserHash);
+            return false;
+        }
+        boolean hashed = BCRYPT.matcher(stored).matches();
+        boolean matches;
+        if (hashed) {
+            matches = passwordEncoder.matches(rawPassword, stored);
+        } else {
+            // Legacy account created before passwords were hashed
+            matches = MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        if (matches && (!hashed || passwordEncoder.upgradeEncoding(stored))) {
+            rehash(user, stored, rawPassword);
+        }
+        return matches;
+    }
+
+    private void rehash(User user, String stored, String rawPassword) {
+        try {
+            String hash = passwordEncoder.encode(rawPassword);
+            if (userRepository.replacePassword(user.getId(), stored, hash) == 1) {
+                user.setPassword(hash);
+                rehashed.increment();
+            }
+        } catch (RuntimeException e) {
+            // The login itself succeeded; the rehash is retried on the next one
+            log.warn("Could not rehash the password of user {}", user.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.config.WorkerThreads;
+import esi.ma.taawoniyate.dto.PlatformStatistics;
+import esi.ma.taawoniyate.event.OrderSavedEvent;
+import esi.ma.taawoniyate.event.UserCountChangedEvent;
+import esi.ma.taawoniyate.model.Client;
+import esi.ma.taawoniyate.model.Seller;
+import esi.ma.taawoniyate.repository.ClientRepository;
+import esi.ma.taawoniyate.repository.PanierItemRepository;
+import esi.ma.taawoniyate.repository.PanierRepository;
+import esi.ma.taawoniyate.repository.SellerRepository;
+import esi.ma.taawoniyate.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Platform totals for the admin dashboard, kept in memory so reading them costs no query.
+ *
+ * Counters start from COUNT/SUM queries once the application is ready, then follow the writes:
+ * UserCountChangedEvent for accounts, OrderSavedEvent for orders, lines and GMV (a checkout that
+ * replaces a panier's lines applies the difference). Events are applied after commit, so a rolled
+ * back write never shows. The queries run again every app.statistics.reconcile-interval to correct
+ * drift (writes that bypass the services, such as the perf seed, or a write committing while the
+ * queries run), and after a user deletion, which cascades to that user's orders or products.
+ *
+ * Active sellers are those with an order line in the last app.statistics.active-seller-days days.
+ * A sale adds its seller at once; sellers whose last sale leaves the window drop out at the next
+ * reconciliation.
+ */
+@Service
+public class PlatformStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlatformStatisticsService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private PanierRepository panierRepository;
+
+    @Autowired
+    private PanierItemRepository panierItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.statistics.reconcile-interval:10m}")
+    private Duration reconcileInterval;
+
+    @Value("${app.statistics.active-seller-days:30}")
+    private int activeSellerDays;
+
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong clients = new AtomicLong();
+    private final AtomicLong sellers = new AtomicLong();
+    private final AtomicLong orders = new AtomicLong();
+    private final AtomicLong orderLines = new AtomicLong();
+    private final AtomicReference<BigDecimal> grossMerchandiseValue = new AtomicReference<>(BigDecimal.ZERO);
+    private volatile Set<Long> activeSellers = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime reconciledAt;
+
+    private ScheduledExecutorService reconciler;
+
+    // First reconciliation right away, then on a fixed delay. Queries run on the reconciler thread only.
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconciler = new ScheduledThreadPoolExecutor(1, WorkerThreads.named("statistics-reconcile", false));
+        long delay = reconcileInterval.toMillis();
+        reconciler.scheduleWithFixedDelay(this::reconcileQuietly, 0, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+        }
+    }
+
+    public PlatformStatistics getStatistics() {
+        PlatformStatistics statistics = new PlatformStatistics();
+        statistics.setTotalUsers(users.get());
+        statistics.setTotalClients(clients.get());
+        statistics.setTotalSellers(sellers.get());
+        statistics.setTotalOrders(orders.get());
+        statistics.setTotalOrderLines(orderLines.get());
+        statistics.setGrossMerchandiseValue(grossMerchandiseValue.get());
+        statistics.setActiveSellers(activeSellers.size());
+        statistics.setActiveSellerDays(activeSellerDays);
+        statistics.setReconciledAt(reconciledAt);
+        return statistics;
+    }
+
+    public long getTotalUsers() {
+        return users.get();
+    }
+
+    public long getTotalClients() {
+        return clients.get();
+    }
+
+    public long getTotalSellers() {
+        return sellers.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCountChanged(UserCountChangedEvent event) {
+        users.addAndGet(event.getDelta());
+        if (Client.class.isAssignableFrom(event.getType())) {
+            clients.addAndGet(event.getDelta());
+        }
+        if (Seller.class.isAssignableFrom(event.getType())) {
+            sellers.addAndGet(event.getDelta());
+        }
+        if (event.getDelta() < 0 && reconciler != null) {
+            reconciler.execute(this::reconcileQuietly);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderSaved(OrderSavedEvent event) {
+        if (event.isCreated()) {
+            orders.incrementAndGet();
+        }
+        orderLines.addAndGet(event.getAdded().size() - event.getRemoved().size());
+        BigDecimal delta = BigDecimal.ZERO;
+        for (OrderSavedEvent.Line line : event.getRemoved()) {
+            delta = delta.subtract(line.getAmount());
+        }
+        LocalDateTime windowStart = LocalDateTime.now().minusDays(activeSellerDays);
+        for (OrderSavedEvent.Line line : event.getAdded()) {
+            delta = delta.add(line.getAmount());
+            if (!line.getDay().isBefore(windowStart.toLocalDate())) {
+                activeSellers.add(line.getSellerId());
+            }
+        }
+        grossMerchandiseValue.accumulateAndGet(delta, BigDecimal::add);
+    }
+
+    /**
+     * Resets every counter from the database and logs the drift it corrected. Each value is read in
+     * its own statement; together they are not a single snapshot of a database being written to.
+     */
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            LocalDateTime since = LocalDateTime.now().minusDays(activeSellerDays);
+            Set<Long> active = ConcurrentHashMap.newKeySet();
+            active.addAll(panierItemRepository.findSellerIdsWithSalesSince(since));
+
+            long drift = reset(users, userRepository.count())
+                    + reset(clients, clientRepository.count())
+                    + reset(sellers, sellerRepository.count())
+                    + reset(orders, panierRepository.count())
+                    + reset(orderLines, panierItemRepository.count());
+            BigDecimal gmv = panierItemRepository.sumAmounts();
+            BigDecimal gmvDrift = grossMerchandiseValue.getAndSet(gmv).subtract(gmv).abs();
+            activeSellers = active;
+            reconciledAt = LocalDateTime.now();
+
+            if (drift > 0 || gmvDrift.signum() != 0) {
+                log.info("Platform statistics reconciled in {} ms: counters off by {} in total, GMV off by {}",
+                        System.currentTimeMillis() - start, drift, gmvDrift);
+            } else {
+                log.debug("Platform statistics reconciled in {} ms, no drift", System.currentTimeMillis() - start);
+            }
+        });
+    }
+
+    // Returns how far off the counter was
+    private static long reset(AtomicLong counter, long value) {
+        return Math.abs(counter.getAndSet(value) - value);
+    }
+
+    // An exception would cancel the periodic task
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Platform statistics reconciliation failed, keeping the current counters", e);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package esi.ma.taawoniyate.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import esi.ma.taawoniyate.config.WorkerThreads;
+import esi.ma.taawoniyate.dto.ProductImageStatus;
+import esi.ma.taawoniyate.event.ProductChangedEvent;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.model.ProductImage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Product image uploads, off the request thread.
+ *
+ * The request only moves each multipart upload to a spool file (a rename when the container
+ * already buffered the part on disk) and returns once the product is saved. A bounded pool then
+ * uploads the images of a product in parallel, each with its resized variants (ImageResizer);
+ * when the last one finishes, the stored images are attached in the order they were sent, in one
+ * transaction. Spool files are deleted as soon as their upload ends, whatever the outcome.
+ * Progress per product is kept in memory for an hour.
+ */
+@Service
+public class ProductImageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImageService.class);
+
+    static final int MAX_REPORTED_ERRORS = 20;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageResizer imageResizer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.images.upload-threads:8}")
+    private int uploadThreads;
+
+    @Value("${app.images.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Cache<Long, UploadStatus> statuses = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor uploadExecutor;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // When the queue is full the request thread uploads itself: slower, but nothing is dropped
+        uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), WorkerThreads.named("product-image-upload", virtualThreads),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        uploadExecutor.shutdownNow();
+    }
+
+    /**
+     * Queues the non-empty images for upload and returns how many were queued. The product must
+     * already be committed. Throws if an upload cannot even be spooled; nothing is queued then.
+     */
+    public int submit(long productId, long sellerId, MultipartFile[] images) throws IOException {
+        if (images == null) {
+            return 0;
+        }
+        List<Path> files = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        try {
+            for (MultipartFile image : images) {
+                if (image != null && !image.isEmpty()) {
+                    files.add(spool(image));
+                    names.add(image.getOriginalFilename());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            files.forEach(ProductImageService::delete);
+            throw e;
+        }
+        if (files.isEmpty()) {
+            return 0;
+        }
+
+        UploadStatus status = statuses.get(productId, id -> new UploadStatus(sellerId));
+        status.queued(files.size());
+        UploadBatch batch = new UploadBatch(productId, status, files.size());
+        for (int i = 0; i < files.size(); i++) {
+            int index = i;
+            uploadExecutor.execute(() -> upload(batch, index, files.get(index), names.get(index)));
+        }
+        return files.size();
+    }
+
+    // Single synchronous upload, for callers that need the URL in the response; the image is not saved
+    public ProductImage uploadNow(MultipartFile image) throws IOException {
+        Path file = spool(image);
+        try {
+            return store(file, image.getOriginalFilename());
+        } finally {
+            delete(file);
+        }
+    }
+
+    // NONE when nothing was uploaded for this product recently; null when it is another seller's
+    public ProductImageStatus getStatus(long productId, long sellerId) {
+        UploadStatus status = statuses.getIfPresent(productId);
+        if (status == null) {
+            ProductImageStatus none = new ProductImageStatus();
+            none.setProductId(productId);
+            none.setStatus("NONE");
+            none.setErrors(List.of());
+            return none;
+        }
+        return status.sellerId == sellerId ? status.toStatus(productId) : null;
+    }
+
+    private void upload(UploadBatch batch, int index, Path file, String filename) {
+        try {
+            batch.images[index] = store(file, filename);
+        } catch (Exception e) {
+            log.warn("Image {} of product {} not uploaded: {}", filename, batch.productId, e.getMessage());
+            batch.status.failed(1, filename + ": " + e.getMessage());
+        } finally {
+            delete(file);
+            if (batch.remaining.decrementAndGet() == 0) {
+                attach(batch);
+            }
+        }
+    }
+
+    // The original and its variants; a variant that cannot be made is left out, not fatal
+    private ProductImage store(Path file, String filename) throws IOException {
+        ProductImage image = new ProductImage();
+        image.setImageUrl(imageStore.store(file, filename));
+        Map<ImageVariant, Path> variants = Map.of();
+        try {
+            variants = imageResizer.createVariants(file);
+            for (Map.Entry<ImageVariant, Path> variant : variants.entrySet()) {
+                String url = imageStore.store(variant.getValue(), filename);
+                switch (variant.getKey()) {
+                    case THUMBNAIL -> image.setThumbnailUrl(url);
+                    case DETAIL -> image.setDetailUrl(url);
+                    case ZOOM -> image.setZoomUrl(url);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Variants of image {} not stored: {}", filename, e.getMessage());
+        } finally {
+            variants.values().forEach(ProductImageService::delete);
+        }
+        return image;
+    }
+
+    private void attach(UploadBatch batch) {
+        List<ProductImage> images = new ArrayList<>();
+        for (ProductImage image : batch.images) {
+            if (image != null) {
+                images.add(image);
+            }
+        }
+        if (images.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                Product product = entityManager.getReference(Product.class, batch.productId);
+                for (ProductImage image : images) {
+                    image.setProduct(product);
+                    entityManager.persist(image);
+                }
+            });
+            batch.status.stored(images.size());
+            eventPublisher.publishEvent(ProductChangedEvent.saved(batch.productId));
+        } catch (RuntimeException e) {
+            // Typically the product was deleted while its images were uploading
+            log.warn("Images of product {} not attached: {}", batch.productId, e.getMessage());
+            batch.status.failed(images.size(), "Images not attached: " + e.getMessage());
+        }
+    }
+
+    private static Path spool(MultipartFile image) throws IOException {
+        Path file = Files.createTempFile("product-image-", ".upload");
+        try {
+            // transferTo(File) lets the container move its own temp file instead of copying it
+            image.transferTo(file.toFile());
+            return file;
+        } catch (IOException | RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spool file {}", file);
+        }
+    }
+
+    // The images sent in one request; attached together once all of them are done
+    private static final class UploadBatch {
+        private final long productId;
+        private final UploadStatus status;
+        private final ProductImage[] images;
+        private final AtomicInteger remaining;
+
+        private UploadBatch(long productId, UploadStatus status, int size) {
+            this.productId = productId;
+            this.status = status;
+            this.images = new ProductImage[size];
+            this.remaining = new AtomicInteger(size);
+        }
+    }
+
+    private static final class UploadStatus {
+        private final long sellerId;
+        private final List<String> errors = new ArrayList<>();
+        private int pending;
+        private int stored;
+        private int failed;
+        private LocalDateTime updatedAt = LocalDateTime.now();
+
+        private UploadStatus(long sellerId) {
+            this.sellerId = sellerId;
+        }
+
+        private synchronized void queued(int count) {
+            pending += count;
+            updatedAt = LocalDateTime.now();
+        }
+
+        private synchronized void stored(int count) {
+            pending -= count;
+            stored += count;
+            updatedAt = LocalDateTime.now();
+        }
+
+        private synchronized void failed(int count, String error) {
+            pending -= count;
+            failed += count;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+            updatedAt = LocalDateTime.now();
+        }
+
+        private synchronized ProductImageStatus toStatus(long productId) {
+            ProductImageStatus snapshot = new ProductImageStatus();
+            snapshot.setProductId(productId);
+            snapshot.setStatus(pending > 0 ? "PENDING" : "DONE");
+            snapshot.setPending(pending);
+            snapshot.setStored(stored);
+            snapshot.setFailed(failed);
+            snapshot.setErrors(new ArrayList<>(errors));
+            snapshot.setUpdatedAt(updatedAt);
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package esi.ma.taawoniyate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import esi.ma.taawoniyate.config.WorkerThreads;
+import esi.ma.taawoniyate.dto.ImportJobStatus;
+import esi.ma.taawoniyate.event.ProductChangedEvent;
+import esi.ma.taawoniyate.importer.ProductImportRow;
+import esi.ma.taawoniyate.importer.ProductRowReader;
+import esi.ma.taawoniyate.model.Category;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.model.ProductImage;
+import esi.ma.taawoniyate.model.Seller;
+import esi.ma.taawoniyate.repository.CategoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk product import for sellers.
+ *
+ * The upload is copied to a temp file and the request returns a job id straight away. A background
+ * worker streams the file row by row (see ProductRowReader), validates each row against a category
+ * dictionary loaded once per job, and inserts valid rows in batches, one transaction per batch.
+ * Image URLs are handed to a separate pool once their product is committed, so slow image hosts
+ * never hold up the rows. Progress and per-row errors are kept in memory for a day.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    static final int MAX_REPORTED_ERRORS = 100;
+    static final int MAX_IMAGES_PER_PRODUCT = 10;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.import.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.import.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${app.import.max-queued-jobs:20}")
+    private int maxQueuedJobs;
+
+    @Value("${app.import.image-fetch-threads:4}")
+    private int imageFetchThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Cache<String, ImportJob> jobs = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofHours(24))
+            .build();
+
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor importExecutor;
+    private ThreadPoolExecutor imageExecutor;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        importExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs), WorkerThreads.named("product-import", virtualThreads), new ThreadPoolExecutor.AbortPolicy());
+        // A full image queue pushes back on the import worker instead of dropping images
+        imageExecutor = new ThreadPoolExecutor(imageFetchThreads, imageFetchThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1_000), WorkerThreads.named("product-import-image", virtualThreads), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        importExecutor.shutdownNow();
+        imageExecutor.shutdownNow();
+    }
+
+    /**
+     * Queues an import and returns its initial status. Throws IllegalArgumentException for an
+     * unknown format and RejectedExecutionException when too many imports are already queued.
+     */
+    public ImportJobStatus submit(long sellerId, MultipartFile file, String format) throws IOException {
+        ProductRowReader.Format detected;
+        try {
+            detected = ProductRowReader.Format.detect(format, file.getOriginalFilename(), file.getContentType());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported format: " + format + " (expected csv or ndjson)");
+        }
+
+        Path copy = Files.createTempFile("product-import-", "." + detected.name().toLowerCase(Locale.ROOT));
+        String jobId = UUID.randomUUID().toString();
+        try {
+            file.transferTo(copy);
+            ImportJob job = new ImportJob(jobId, sellerId, detected, Files.size(copy));
+            jobs.put(job.id, job);
+            importExecutor.execute(() -> run(job, copy));
+            return job.toStatus();
+        } catch (IOException | RuntimeException e) {
+            // A rejected job never runs, so it must not be reported as queued
+            jobs.invalidate(jobId);
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+    }
+
+    // Null when the job is unknown, expired or belongs to another seller
+    public ImportJobStatus getStatus(String jobId, long sellerId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        return job != null && job.sellerId == sellerId ? job.toStatus() : null;
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.status = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        try {
+            Map<String, Long> categories = loadCategories();
+            try (InputStream in = new CountingInputStream(Files.newInputStream(file), job.bytesRead);
+                 ProductRowReader reader = ProductRowReader.open(job.format,
+                         new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), objectMapper)) {
+                List<ProductImportRow> batch = new ArrayList<>(batchSize);
+                ProductImportRow row;
+                while ((row = reader.next()) != null) {
+                    String error = validate(row, categories);
+                    if (error != null) {
+                        job.rowFailed(row.getRow(), error);
+                        continue;
+                    }
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        save(job, batch, categories);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    save(job, batch, categories);
+                }
+            }
+            job.finish("COMPLETED", null);
+        } catch (Exception e) {
+            log.warn("Product import {} failed: {}", job.id, e.getMessage());
+            job.finish("FAILED", e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", file);
+            }
+        }
+        log.info("Product import {} for seller {}: {} rows, {} imported, {} failed",
+                job.id, job.sellerId, job.processed.get(), job.imported.get(), job.failed.get());
+    }
+
+    // Category name (case-insensitive) -> id, read once per job
+    private Map<String, Long> loadCategories() {
+        Map<String, Long> categories = new HashMap<>();
+        categoryRepository.findAll().forEach(category ->
+                categories.put(category.getName().trim().toLowerCase(Locale.ROOT), category.getId()));
+        return categories;
+    }
+
+    private static String validate(ProductImportRow row, Map<String, Long> categories) {
+        if (!row.isValid()) {
+            return row.getError();
+        }
+        if (row.getName() == null) {
+            return "Name is required";
+        }
+        if (row.getName().length() > 500) {
+            return "Name is longer than 500 characters";
+        }
+        if (row.getDescription() != null && row.getDescription().length() > 2000) {
+            return "Description is longer than 2000 characters";
+        }
+        if (row.getPrice() == null || row.getPrice().isNaN() || row.getPrice().isInfinite() || row.getPrice() < 0) {
+            return "Price is required and must be a positive number";
+        }
+        if (row.getQuantity() == null || row.getQuantity() < 0) {
+            return "Quantity is required and must be a positive integer";
+        }
+        if (row.getCategory() == null) {
+            return "Category is required";
+        }
+        if (!categories.containsKey(row.getCategory().toLowerCase(Locale.ROOT))) {
+            return "Category not found: " + row.getCategory();
+        }
+        if (row.getImageUrls().size() > MAX_IMAGES_PER_PRODUCT) {
+            return "At most " + MAX_IMAGES_PER_PRODUCT + " images per product";
+        }
+        for (String url : row.getImageUrls()) {
+            String lower = url.toLowerCase(Locale.ROOT);
+            if (!lower.startsWith("http://") && !lower.startsWith("https://")) {
+                return "Invalid image URL: " + url;
+            }
+        }
+        return null;
+    }
+
+    private void save(ImportJob job, List<ProductImportRow> batch, Map<String, Long> categories) {
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> insert(job.sellerId, batch, categories));
+        } catch (RuntimeException e) {
+            String message = "Not saved: " + rootMessage(e);
+            batch.forEach(row -> job.rowFailed(row.getRow(), message));
+            return;
+        }
+        job.processed.addAndGet(batch.size());
+        job.imported.addAndGet(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            long productId = ids.get(i);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(productId));
+            for (String url : batch.get(i).getImageUrls()) {
+                fetchImage(job, batch.get(i).getRow(), productId, url);
+            }
+        }
+    }
+
+    // One flush for the whole batch: product ids come from a pooled sequence, so the inserts
+    // go out as JDBC batches (hibernate.jdbc.batch_size)
+    private List<Long> insert(long sellerId, List<ProductImportRow> batch, Map<String, Long> categories) {
+        Seller seller = entityManager.getReference(Seller.class, sellerId);
+        List<Product> products = new ArrayList<>(batch.size());
+        for (ProductImportRow row : batch) {
+            Product product = new Product();
+            product.setName(row.getName());
+            product.setDescription(row.getDescription());
+            product.setPrice(row.getPrice());
+            product.setQuantity(row.getQuantity());
+            product.setCategory(entityManager.getReference(Category.class,
+                    categories.get(row.getCategory().toLowerCase(Locale.ROOT))));
+            product.setSeller(seller);
+            entityManager.persist(product);
+            products.add(product);
+        }
+        entityManager.flush();
+        List<Long> ids = products.stream().map(Product::getId).toList();
+        entityManager.clear();
+        return ids;
+    }
+
+    private void fetchImage(ImportJob job, int row, long productId, String url) {
+        job.imagesPending.incrementAndGet();
+        imageExecutor.execute(() -> {
+            try {
+                String storedUrl = imageStore.storeFromUrl(url);
+                transactionTemplate.executeWithoutResult(status -> {
+                    ProductImage image = new ProductImage();
+                    image.setImageUrl(storedUrl);
+                    image.setProduct(entityManager.getReference(Product.class, productId));
+                    entityManager.persist(image);
+                });
+                eventPublisher.publishEvent(ProductChangedEvent.saved(productId));
+                job.imagesStored.incrementAndGet();
+            } catch (Exception e) {
+                job.imagesFailed.incrementAndGet();
+                // The cause could tell the seller what answers inside our network; it stays in the log
+                log.warn("Product import {}: image {} of product {} not stored: {}", job.id, url, productId, rootMessage(e));
+                job.addError(row, "Image " + url + " not stored: it could not be downloaded as a supported image");
+            } finally {
+                job.imagesPending.decrementAndGet();
+            }
+        });
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final long sellerId;
+        private final ProductRowReader.Format format;
+        private final long totalBytes;
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger imagesPending = new AtomicInteger();
+        private final AtomicInteger imagesStored = new AtomicInteger();
+        private final AtomicInteger imagesFailed = new AtomicInteger();
+        private final List<ImportJobStatus.RowError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+        private volatile String status = "QUEUED";
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String id, long sellerId, ProductRowReader.Format format, long totalBytes) {
+            this.id = id;
+            this.sellerId = sellerId;
+            this.format = format;
+            this.totalBytes = totalBytes;
+        }
+
+        private void rowFailed(int row, String error) {
+            processed.incrementAndGet();
+            failed.incrementAndGet();
+            addError(row, error);
+        }
+
+        private synchronized void addError(int row, String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportJobStatus.RowError(row, error));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        private void finish(String status, String message) {
+            this.message = message;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        private synchronized ImportJobStatus toStatus() {
+            ImportJobStatus snapshot = new ImportJobStatus();
+            snapshot.setJobId(id);
+            snapshot.setStatus(status);
+            snapshot.setFormat(format.name().toLowerCase(Locale.ROOT));
+            snapshot.setBytesRead(bytesRead.get());
+            snapshot.setTotalBytes(totalBytes);
+            snapshot.setProcessed(processed.get());
+            snapshot.setImported(imported.get());
+            snapshot.setFailed(failed.get());
+            snapshot.setImagesPending(imagesPending.get());
+            snapshot.setImagesStored(imagesStored.get());
+            snapshot.setImagesFailed(imagesFailed.get());
+            snapshot.setErrors(new ArrayList<>(errors));
+            snapshot.setErrorsTruncated(errorsTruncated);
+            snapshot.setMessage(message);
+            snapshot.setStartedAt(startedAt);
+            snapshot.setFinishedAt(finishedAt);
+            return snapshot;
+        }
+    }
+
+    // Feeds the job's progress (bytes read out of totalBytes)
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        private CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
@@ -1,20 +1,54 @@
 package esi.ma.taawoniyate.service;
 
+import esi.ma.taawoniyate.config.CacheConfig;
+import esi.ma.taawoniyate.dto.ProductCard;
+import esi.ma.taawoniyate.dto.ProductCardPage;
+import esi.ma.taawoniyate.dto.ProductDetailsResponse;
+import esi.ma.taawoniyate.dto.ProductSort;
+import esi.ma.taawoniyate.event.OrderSavedEvent;
+import esi.ma.taawoniyate.event.ProductChangedEvent;
+import esi.ma.taawoniyate.event.SellerChangedEvent;
 import esi.ma.taawoniyate.model.Product;
 import esi.ma.taawoniyate.model.Category;
 import esi.ma.taawoniyate.model.Seller;
 import esi.ma.taawoniyate.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogIndexService catalogIndexService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Product saveProduct(Product product) {
         return productRepository.save(product);
     }
@@ -27,6 +61,103 @@ public class ProductService {
         return productRepository.findById(id).orElse(null);
     }
 
+    // Assembled from a single fetch-join query and cached per product. Entries are dropped when the
+    // product (or one of its images) is written, and when its seller's profile changes.
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_DETAILS, key = "#productId", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public ProductDetailsResponse getProductDetails(long productId) {
+        return productRepository.findDetailsById(productId)
+                .map(ProductDetailsResponse::new)
+                .orElse(null);
+    }
+
+    // A seller's storefront, newest first, keyset-paginated like the catalog listing. The first
+    // page is what storefront links open on, so that one is cached per store and page size.
+    @Cacheable(cacheNames = CacheConfig.STOREFRONTS,
+            key = "T(esi.ma.taawoniyate.service.ProductService).storefrontKey(#businessName, #size)",
+            condition = "#cursor == null || #cursor.isBlank()",
+            unless = "#result.items.isEmpty()")
+    public ProductCardPage getStorefrontCards(String businessName, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Cursor position = decodeCursor(cursor);
+        List<ProductCard> cards = productRepository.findStorefrontCards(
+                SellerService.businessNameKey(businessName),
+                position == null ? Long.MAX_VALUE : position.id,
+                PageRequest.of(0, limit + 1));
+
+        String nextCursor = null;
+        if (cards.size() > limit) {
+            cards = cards.subList(0, limit);
+            ProductCard last = cards.get(limit - 1);
+            nextCursor = encodeCursor(last.getPrice(), last.getId());
+        }
+        return new ProductCardPage(cards, nextCursor);
+    }
+
+    public static String storefrontKey(String businessName, int size) {
+        return SellerService.businessNameKey(businessName) + "|" + size;
+    }
+
+    @EventListener
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_DETAILS, key = "#event.productId")
+    public void onProductChanged(ProductChangedEvent event) {
+        Map<Object, Object> storefronts = entries(CacheConfig.STOREFRONTS);
+        // Pages currently showing the product...
+        storefronts.values().removeIf(value -> value instanceof ProductCardPage page
+                && page.getItems().stream().anyMatch(card -> card.getId() == event.getProductId()));
+        // ...and its seller's first pages, where a new product shows up
+        if (!event.isDeleted()) {
+            String businessName = productRepository.findBusinessNameByProductId(event.getProductId());
+            if (businessName != null) {
+                String store = SellerService.businessNameKey(businessName) + "|";
+                storefronts.keySet().removeIf(key -> key.toString().startsWith(store));
+            }
+        }
+    }
+
+    // Checkouts move stock. Once the order has committed, every product whose quantity changed is
+    // reported like a product write, so details, listings, ETags, storefronts, search and the
+    // in-stock filter show the stock left.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderSaved(OrderSavedEvent event) {
+        Map<Long, Integer> moved = new TreeMap<>();
+        for (OrderSavedEvent.Line line : event.getRemoved()) {
+            if (line.getProductId() != null) {
+                moved.merge(line.getProductId(), -line.getQuantity(), Integer::sum);
+            }
+        }
+        for (OrderSavedEvent.Line line : event.getAdded()) {
+            if (line.getProductId() != null) {
+                moved.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            }
+        }
+        moved.forEach((productId, quantity) -> {
+            if (quantity != 0) {
+                eventPublisher.publishEvent(ProductChangedEvent.saved(productId));
+            }
+        });
+    }
+
+    // Runs after the seller's transaction commits, so a concurrent reader cannot re-cache the old profile
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSellerChanged(SellerChangedEvent event) {
+        entries(CacheConfig.PRODUCT_DETAILS).values().removeIf(value -> value instanceof ProductDetailsResponse details
+                && details.getSeller() != null
+                && details.getSeller().getId() == event.getSellerId());
+        // Cards only carry the business name, which may be what changed
+        entries(CacheConfig.STOREFRONTS).clear();
+    }
+
+    // Live view of a Caffeine cache, for invalidations that cannot be expressed as a key
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> entries(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return new HashMap<>();
+        }
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache()).asMap();
+    }
+
     public List<Product> getProductsByCategory(Category category) {
         return productRepository.findByCategory(category);
     }
@@ -35,8 +166,8 @@ public class ProductService {
         return productRepository.findByCategoryName(categoryName);
     }
 
-    public List<Product> searchProducts(String keyword) {
-        return productRepository.findByNameContainingIgnoreCase(keyword);
+    public List<ProductCard> searchProducts(String keyword) {
+        return catalogIndexService.search(keyword, CatalogIndexService.DEFAULT_LIMIT);
     }
 
     public List<Product> getProductsBySeller(Seller seller) {
@@ -50,4 +181,65 @@ public class ProductService {
     public List<Product> getProductsByPriceRange(double min, double max) {
         return productRepository.findByPriceBetween(min, max);
     }
-}
\ No newline at end of file
+
+    // Keyset pagination over the catalog: the cursor carries the sort key of the last card
+    // returned, so each page costs one indexed range scan of (size + 1) rows whatever the depth.
+    public ProductCardPage getProductCards(ProductSort sort, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest window = PageRequest.of(0, limit + 1);
+        Cursor position = decodeCursor(cursor);
+
+        List<ProductCard> cards;
+        switch (sort) {
+            case PRICE_ASC:
+                cards = position == null
+                        ? productRepository.findCardsByPriceAsc(-Double.MAX_VALUE, Long.MIN_VALUE, window)
+                        : productRepository.findCardsByPriceAsc(position.price, position.id, window);
+                break;
+            case PRICE_DESC:
+                cards = position == null
+                        ? productRepository.findCardsByPriceDesc(Double.MAX_VALUE, Long.MAX_VALUE, window)
+                        : productRepository.findCardsByPriceDesc(position.price, position.id, window);
+                break;
+            default:
+                cards = productRepository.findCardsNewest(position == null ? Long.MAX_VALUE : position.id, window);
+        }
+
+        String nextCursor = null;
+        if (cards.size() > limit) {
+            cards = cards.subList(0, limit);
+            ProductCard last = cards.get(limit - 1);
+            nextCursor = encodeCursor(last.getPrice(), last.getId());
+        }
+        return new ProductCardPage(cards, nextCursor);
+    }
+
+    private static String encodeCursor(double price, long id) {
+        String raw = price + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            return new Cursor(Double.parseDouble(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static final class Cursor {
+        private final double price;
+        private final long id;
+
+        private Cursor(double price, long id) {
+            this.price = price;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package esi.ma.taawoniyate.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import esi.ma.taawoniyate.event.UserProfileChangedEvent;
+import esi.ma.taawoniyate.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Current profile version per user, in memory. A user's version is read from the database once
+ * (a single integer column) and after that only changes on a UserProfileChangedEvent, so checking whether
+ * a token's profile snapshot is current costs no query.
+ *
+ * Entries do not expire: versions only move when this process bumps them. Evicted or deleted
+ * users are simply read again.
+ */
+@Component
+public class ProfileVersionStore {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Cache<Long, Integer> versions = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+
+    // Null when the user does not exist
+    public Integer current(long userId) {
+        return versions.get(userId, userRepository::findProfileVersion);
+    }
+
+    // Runs after the profile change commits, so a concurrent reader cannot re-load the old version
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        if (event.getProfileVersion() == null) {
+            versions.invalidate(event.getUserId());
+        } else {
+            versions.asMap().merge(event.getUserId(), event.getProfileVersion(), Math::max);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.config.WorkerThreads;
+import esi.ma.taawoniyate.dto.SalesBucket;
+import esi.ma.taawoniyate.dto.SalesGranularity;
+import esi.ma.taawoniyate.dto.SellerSalesReport;
+import esi.ma.taawoniyate.dto.SellerTopProduct;
+import esi.ma.taawoniyate.event.OrderSavedEvent;
+import esi.ma.taawoniyate.model.SellerDailySales;
+import esi.ma.taawoniyate.repository.PanierItemRepository;
+import esi.ma.taawoniyate.repository.SellerDailySalesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Seller sales analytics, read from the seller_product_daily_sales rollup instead of the order lines.
+ *
+ * The rollup follows the orders inside their own transaction: OrderSavedEvent is applied just
+ * before the checkout commits, as one JDBC batch of upserts adding the difference per seller,
+ * product and day (a replaced panier subtracts its old lines). Rows are upserted in key order, so
+ * two checkouts touching the same rows lock them in the same order and cannot deadlock.
+ *
+ * backfill() rebuilds the rollup from panier_item with one set-based statement, for the whole
+ * history or from a given day. It runs once at startup when the rollup is empty but orders exist
+ * (first deployment, perf seed) and on demand from /api/admin/analytics/backfill. Order lines
+ * without a product are left out of the rollup.
+ */
+@Service
+public class SellerAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SellerAnalyticsService.class);
+
+    public static final int MAX_TOP_PRODUCTS = 50;
+    // Longest period a report covers, so a query reads at most this many days per product
+    public static final int MAX_RANGE_DAYS = 3 * 366;
+
+    static final String UPSERT = "INSERT INTO seller_product_daily_sales " +
+            "(seller_id, product_id, sale_day, units, revenue, order_lines) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (seller_id, product_id, sale_day) DO UPDATE SET " +
+            "units = seller_product_daily_sales.units + EXCLUDED.units, " +
+            "revenue = seller_product_daily_sales.revenue + EXCLUDED.revenue, " +
+            "order_lines = seller_product_daily_sales.order_lines + EXCLUDED.order_lines";
+
+    // Blocks checkout upserts (not reads) until the rebuild commits: an order committed before the lock
+    // is in the rebuild, one committing after it waits and then adds its own lines on top
+    static final String LOCK = "LOCK TABLE seller_product_daily_sales IN EXCLUSIVE MODE";
+
+    static final String REBUILD = "INSERT INTO seller_product_daily_sales " +
+            "(seller_id, product_id, sale_day, units, revenue, order_lines) " +
+            "SELECT i.seller_id, i.product_id, CAST(p.date AS DATE), SUM(i.quantity), SUM(i.price * i.quantity), COUNT(*) " +
+            "FROM panier_item i JOIN panier p ON p.panier_id = i.panier_id " +
+            "WHERE i.product_id IS NOT NULL";
+
+    static final String REBUILD_GROUP_BY = " GROUP BY i.seller_id, i.product_id, CAST(p.date AS DATE)";
+
+    private static final Comparator<SellerDailySales.Key> KEY_ORDER = Comparator
+            .comparingLong(SellerDailySales.Key::getSellerId)
+            .thenComparingLong(SellerDailySales.Key::getProductId)
+            .thenComparing(SellerDailySales.Key::getDay);
+
+    @Autowired
+    private SellerDailySalesRepository salesRepository;
+
+    @Autowired
+    private PanierItemRepository panierItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.analytics.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    // In the background: the application serves requests meanwhile, with empty analytics
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup || salesRepository.count() > 0 || panierItemRepository.count() == 0) {
+            return;
+        }
+        WorkerThreads.named("analytics-backfill", false).newThread(() -> {
+            try {
+                backfill(null);
+            } catch (RuntimeException e) {
+                log.warn("Seller analytics backfill failed; retry with POST /api/admin/analytics/backfill", e);
+            }
+        }).start();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderSaved(OrderSavedEvent event) {
+        Map<SellerDailySales.Key, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (OrderSavedEvent.Line line : event.getRemoved()) {
+            add(deltas, line, -1);
+        }
+        for (OrderSavedEvent.Line line : event.getAdded()) {
+            add(deltas, line, 1);
+        }
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Map.Entry<SellerDailySales.Key, Delta> entry : deltas.entrySet()) {
+            SellerDailySales.Key key = entry.getKey();
+            Delta delta = entry.getValue();
+            if (delta.isZero()) {
+                continue;
+            }
+            rows.add(new Object[]{key.getSellerId(), key.getProductId(), key.getDay(),
+                    delta.units, delta.revenue, delta.orderLines});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+        }
+    }
+
+    /**
+     * Rebuilds the rollup from the order lines, entirely or from the given day on. Returns the
+     * number of rollup rows written.
+     */
+    public int backfill(LocalDate from) {
+        long start = System.currentTimeMillis();
+        Integer rows = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.execute(LOCK);
+            if (from == null) {
+                jdbcTemplate.update("DELETE FROM seller_product_daily_sales");
+                return jdbcTemplate.update(REBUILD + REBUILD_GROUP_BY);
+            }
+            jdbcTemplate.update("DELETE FROM seller_product_daily_sales WHERE sale_day >= ?", from);
+            return jdbcTemplate.update(REBUILD + " AND p.date >= ?" + REBUILD_GROUP_BY, from.atStartOfDay());
+        });
+        log.info("Seller analytics rollup rebuilt {} in {} ms: {} rows",
+                from == null ? "entirely" : "from " + from, System.currentTimeMillis() - start, rows);
+        return rows;
+    }
+
+    // One bucket per day, week or month between from and to (inclusive), empty ones included. The
+    // first week or month bucket only holds the days from "from" on.
+    @Transactional(readOnly = true)
+    public SellerSalesReport getSalesReport(long sellerId, SalesGranularity granularity, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        Map<LocalDate, SalesBucket> buckets = new LinkedHashMap<>();
+        for (LocalDate start = granularity.bucketStart(from); !start.isAfter(to); start = granularity.next(start)) {
+            buckets.put(start, new SalesBucket(start));
+        }
+        for (SalesBucket day : salesRepository.findDailySales(sellerId, from, to)) {
+            buckets.get(granularity.bucketStart(day.getStart())).add(day);
+        }
+        return new SellerSalesReport(granularity, from, to, new ArrayList<>(buckets.values()));
+    }
+
+    // Best-selling products by revenue between from and to (inclusive)
+    @Transactional(readOnly = true)
+    public List<SellerTopProduct> getTopProducts(long sellerId, LocalDate from, LocalDate to, int limit) {
+        checkRange(from, to);
+        int size = Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS));
+        return salesRepository.findTopProducts(sellerId, from, to, PageRequest.of(0, size));
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Period too long: at most " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private static void add(Map<SellerDailySales.Key, Delta> deltas, OrderSavedEvent.Line line, int sign) {
+        if (line.getProductId() == null) {
+            return;
+        }
+        SellerDailySales.Key key = new SellerDailySales.Key(line.getSellerId(), line.getProductId(), line.getDay());
+        Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+        delta.units += sign * (long) line.getQuantity();
+        delta.revenue = sign > 0 ? delta.revenue.add(line.getAmount()) : delta.revenue.subtract(line.getAmount());
+        delta.orderLines += sign;
+    }
+
+    // Net change of one rollup row
+    private static final class Delta {
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long orderLines;
+
+        private boolean isZero() {
+            return units == 0 && revenue.signum() == 0 && orderLines == 0;
+        }
+    }
+}
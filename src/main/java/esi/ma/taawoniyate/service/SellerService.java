@@ -1,27 +1,36 @@
 package esi.ma.taawoniyate.service;
 
+import esi.ma.taawoniyate.event.SellerChangedEvent;
+import esi.ma.taawoniyate.event.UserCountChangedEvent;
+import esi.ma.taawoniyate.event.UserProfileChangedEvent;
 import esi.ma.taawoniyate.model.Product;
 import esi.ma.taawoniyate.model.Seller;
 import esi.ma.taawoniyate.repository.SellerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class SellerService {
+    public static final int MAX_SEARCH_RESULTS = 50;
+
     @Autowired
     private SellerRepository sellerRepository;
-    @Cacheable(value = "sellers", key = "#id")
+    @Autowired
+    private UserProfileCache userProfileCache;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Optional<Seller> findById(Integer id) {
         return sellerRepository.findById(id);
     }
@@ -29,23 +38,38 @@ public class SellerService {
         return sellerRepository.findAll(pageable);
     }
     @Transactional
-    @CacheEvict(value = {"sellers", "clients", "users"}, key = "#seller.id")
     public Seller save(Seller seller) {
         if (seller.getRole() == null) {
             seller.setRole("seller");
         }
-        return sellerRepository.save(seller);
+        boolean created = seller.getId() == 0;
+        Seller saved = sellerRepository.save(seller);
+        userProfileCache.evict(saved.getId(), saved.getEmail());
+        eventPublisher.publishEvent(new SellerChangedEvent(saved.getId()));
+        if (created) {
+            eventPublisher.publishEvent(new UserCountChangedEvent(saved.getId(), Seller.class, 1));
+        }
+        return saved;
     }
     @Transactional
-    @CacheEvict(value = {"sellers", "clients", "users"}, key = "#seller.id")
     public Seller update(Seller seller) {
-        return sellerRepository.save(seller);
+        Seller saved = sellerRepository.save(seller);
+        userProfileCache.evict(saved.getId(), saved.getEmail());
+        eventPublisher.publishEvent(new SellerChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional
-    @CacheEvict(value = {"sellers", "clients", "users"}, key = "#id")
     public void deleteById(Integer id) {
+        // Loaded anyway by deleteById, which then finds it in the persistence context
+        boolean exists = sellerRepository.findById(id).isPresent();
         sellerRepository.deleteById(id);
+        userProfileCache.evict(id);
+        eventPublisher.publishEvent(new SellerChangedEvent(id));
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id, null));
+        if (exists) {
+            eventPublisher.publishEvent(new UserCountChangedEvent(id, Seller.class, -1));
+        }
     }
 
     // Business-specific methods
@@ -54,11 +78,29 @@ public class SellerService {
         return seller.map(Seller::getProducts).orElse(List.of());
     }
 
+    // Case-insensitive, best matches first: exact, then prefix, then substring. Substring matching
+    // only kicks in from 3 characters, the shortest query the trigram index can serve.
     public List<Seller> findByBusinessName(String businessName) {
-        return sellerRepository.findAll().stream()
-                .filter(seller -> seller.getBusinessName() != null &&
-                        seller.getBusinessName().toLowerCase().contains(businessName.toLowerCase()))
-                .toList();
+        String name = businessNameKey(businessName);
+        if (name.isEmpty()) {
+            return List.of();
+        }
+        String prefix = escapeLike(name) + "%";
+        String pattern = name.length() >= 3 ? "%" + escapeLike(name) + "%" : prefix;
+        return sellerRepository.searchByBusinessName(name, prefix, pattern, PageRequest.of(0, MAX_SEARCH_RESULTS));
+    }
+
+    public boolean existsByBusinessName(String businessName) {
+        return sellerRepository.existsByBusinessNameKey(businessNameKey(businessName));
+    }
+
+    // The form business names are compared in (matches LOWER(business_name) in the indexes)
+    public static String businessNameKey(String businessName) {
+        return businessName == null ? "" : businessName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     public long countProductsBySeller(Integer sellerId) {
@@ -69,10 +111,4 @@ public class SellerService {
     public boolean existsById(Integer id) {
         return sellerRepository.existsById(id);
     }
-    public List<Product> getProductsByBusinessName(String businessName) {
-        List<Seller> sellers = findByBusinessName(businessName);
-        List<Product> products = new ArrayList<>();
-        sellers.forEach(seller -> {products.addAll(seller.getProducts());});
-        return products;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.config.CacheConfig;
+import esi.ma.taawoniyate.dto.UserProfile;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Two-key cache of user profiles: id -> profile, and email -> id.
+ *
+ * Email entries only point at an id, so a profile is stored once whatever key it was looked up
+ * by. Invalidating a user drops its id entry and the email entries for both the cached (old)
+ * email and the current one; a lookup by email also re-checks the email on the profile, so an
+ * entry that outlived a change of address can never return the wrong user.
+ */
+@Component
+public class UserProfileCache {
+
+    private final Cache profiles;
+    private final Cache emails;
+
+    public UserProfileCache(CacheManager cacheManager) {
+        this.profiles = cacheManager.getCache(CacheConfig.USER_PROFILES);
+        this.emails = cacheManager.getCache(CacheConfig.USER_EMAILS);
+    }
+
+    public UserProfile get(long id, Supplier<UserProfile> loader) {
+        UserProfile profile = profiles.get(id, UserProfile.class);
+        if (profile == null) {
+            profile = loader.get();
+            if (profile != null) {
+                put(profile);
+            }
+        }
+        return profile;
+    }
+
+    public UserProfile getByEmail(String email, Supplier<UserProfile> loader) {
+        String key = emailKey(email);
+        Long id = emails.get(key, Long.class);
+        if (id != null) {
+            UserProfile profile = profiles.get(id, UserProfile.class);
+            if (profile != null && key.equals(emailKey(profile.getEmail()))) {
+                return profile;
+            }
+        }
+        UserProfile profile = loader.get();
+        if (profile != null) {
+            put(profile);
+        }
+        return profile;
+    }
+
+    public void evict(long id, String currentEmail) {
+        UserProfile cached = profiles.get(id, UserProfile.class);
+        if (cached != null && cached.getEmail() != null) {
+            emails.evict(emailKey(cached.getEmail()));
+        }
+        if (currentEmail != null) {
+            emails.evict(emailKey(currentEmail));
+        }
+        profiles.evict(id);
+    }
+
+    public void evict(long id) {
+        evict(id, null);
+    }
+
+    private void put(UserProfile profile) {
+        profiles.put(profile.getId(), profile);
+        if (profile.getEmail() != null) {
+            emails.put(emailKey(profile.getEmail()), profile.getId());
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
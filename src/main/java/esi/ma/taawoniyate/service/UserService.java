@@ -1,12 +1,20 @@
 package esi.ma.taawoniyate.service;
 
+import esi.ma.taawoniyate.dto.PrincipalProfile;
+import esi.ma.taawoniyate.dto.UserProfile;
+import esi.ma.taawoniyate.event.UserCountChangedEvent;
+import esi.ma.taawoniyate.event.UserProfileChangedEvent;
+import esi.ma.taawoniyate.event.SellerChangedEvent;
+import esi.ma.taawoniyate.model.Seller;
 import esi.ma.taawoniyate.model.User;
 import esi.ma.taawoniyate.repository.UserRepository;
+import esi.ma.taawoniyate.security.JwtPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -19,21 +27,78 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    @Cacheable(value = "users", key = "#email")
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private ProfileVersionStore profileVersionStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Entity lookups are not cached: callers modify and save what they get back.
+    // Read-only callers should use getProfile / getProfileByEmail instead.
     public User findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
-    @Cacheable(value = "users", key = "#id")
     public User findById(long id) {
         return userRepository.findById(id);
     }
 
-    @Cacheable(value = "users", key = "#fullName")
     public User findByFullName(String fullName) {
         return userRepository.findByFullName(fullName);
     }
 
+    @Transactional(readOnly = true)
+    public UserProfile getProfile(long id) {
+        return userProfileCache.get(id, () -> {
+            User user = userRepository.findById(id);
+            return user != null ? UserProfile.of(user) : null;
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public UserProfile getProfileByEmail(String email) {
+        return userProfileCache.getByEmail(email, () -> {
+            User user = userRepository.findByEmail(email);
+            return user != null ? UserProfile.of(user) : null;
+        });
+    }
+
+    /**
+     * The requesting user's profile, with no query in the common case: taken from the token
+     * claims when the token's profile version is the current one, otherwise from the profile
+     * cache. Null when the token has no user id or the user no longer exists.
+     * Runs without a transaction so the cached path does not even borrow a connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PrincipalProfile getPrincipalProfile(JwtPrincipal principal) {
+        if (principal == null || principal.getUserId() == null) {
+            return null;
+        }
+        long id = principal.getUserId();
+        Integer current = profileVersionStore.current(id);
+        if (current == null) {
+            return null;
+        }
+        if (current.equals(principal.getProfileVersion())) {
+            return new PrincipalProfile(id, principal.getRole(), principal.getFullName(),
+                    principal.getBusinessName(), current);
+        }
+        UserProfile profile = getProfile(id);
+        return profile != null ? PrincipalProfile.of(profile, current) : null;
+    }
+
+    // Saves a change made by the user to their own profile and bumps its version
+    @Transactional
+    public User updateProfile(User user) {
+        user.setProfileVersion(user.getProfileVersion() + 1);
+        User saved = save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(saved.getId(), saved.getProfileVersion()));
+        return saved;
+    }
+
     public List<User> findByCity(String city) {
         return List.of(userRepository.findByCity(city));
     }
@@ -52,11 +117,27 @@ public class UserService {
 
     @Transactional
     public User save(User user) {
-        return userRepository.save(user);
+        boolean created = user.getId() == 0;
+        User saved = userRepository.save(user);
+        userProfileCache.evict(saved.getId(), saved.getEmail());
+        if (saved instanceof Seller) {
+            eventPublisher.publishEvent(new SellerChangedEvent(saved.getId()));
+        }
+        if (created) {
+            eventPublisher.publishEvent(new UserCountChangedEvent(saved.getId(), saved.getClass(), 1));
+        }
+        return saved;
     }
 
     @Transactional
     public void deleteById(Integer id) {
+        // Loaded anyway by deleteById, which then finds it in the persistence context
+        User user = userRepository.findById((long) id);
         userRepository.deleteById(id);
+        userProfileCache.evict(id);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id, null));
+        if (user != null) {
+            eventPublisher.publishEvent(new UserCountChangedEvent(id, user.getClass(), -1));
+        }
     }
-}
\ No newline at end of file
+}
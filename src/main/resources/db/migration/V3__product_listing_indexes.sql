@@ -0,0 +1,7 @@
+-- Indexes backing the keyset-paginated catalog listing (/store/products/page)
+
+-- Price-sorted pages seek on (price, product_id)
+CREATE INDEX IF NOT EXISTS idx_product_price_id ON product (price, product_id);
+
+-- First-image lookup for each product card
+CREATE INDEX IF NOT EXISTS idx_product_images_product_id ON product_images (product_id, id);
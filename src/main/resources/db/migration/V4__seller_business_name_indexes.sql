@@ -0,0 +1,11 @@
+-- Indexes backing the storefront and seller business-name lookups
+
+-- Exact and prefix matches on LOWER(business_name)
+CREATE INDEX IF NOT EXISTS idx_users_business_name_lower ON users (LOWER(business_name) text_pattern_ops);
+
+-- Substring matches (3+ characters) on LOWER(business_name)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_business_name_trgm ON users USING gin (LOWER(business_name) gin_trgm_ops);
+
+-- Storefront listing: a seller's products, newest first
+CREATE INDEX IF NOT EXISTS idx_product_seller_id ON product (seller_id, product_id);
@@ -0,0 +1,2 @@
+-- Seller order history (/api/panier/seller-orders): a seller's order lines grouped by order
+CREATE INDEX IF NOT EXISTS idx_panier_item_seller_panier ON panier_item (seller_id, panier_id);
@@ -0,0 +1,5 @@
+-- panier_item ids move from IDENTITY to a pooled sequence (allocationSize = 50) so checkout
+-- lines can be inserted as a JDBC batch. Run before deploying: the sequence has to start past
+-- the existing ids, which ddl-auto would not do when it creates it.
+CREATE SEQUENCE IF NOT EXISTS panier_item_sequence INCREMENT BY 50;
+SELECT setval('panier_item_sequence', (SELECT COALESCE(MAX(id), 0) + 1 FROM panier_item));
@@ -0,0 +1,6 @@
+-- Resized copies of each product image (listing thumbnail, detail and zoom sizes).
+-- Null for images uploaded before this change and for images too small to resize;
+-- responses fall back to image_url.
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(255);
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS detail_url VARCHAR(255);
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS zoom_url VARCHAR(255);
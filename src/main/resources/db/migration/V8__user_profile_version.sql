@@ -0,0 +1,4 @@
+-- Version of the profile snapshot (name, business name, role) carried in JWTs.
+-- Incremented by /api/users/update-info; tokens issued with an older value are served from the
+-- profile cache instead of their claims.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS profile_version INTEGER NOT NULL DEFAULT 0;
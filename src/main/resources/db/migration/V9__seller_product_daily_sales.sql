@@ -0,0 +1,12 @@
+-- Seller analytics rollup: order lines summed per seller, product and day.
+-- Kept up to date at checkout; rebuilt from panier_item by POST /api/admin/analytics/backfill.
+CREATE TABLE IF NOT EXISTS seller_product_daily_sales (
+    seller_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    sale_day DATE NOT NULL,
+    units BIGINT NOT NULL,
+    revenue NUMERIC(19, 2) NOT NULL,
+    order_lines BIGINT NOT NULL,
+    PRIMARY KEY (seller_id, product_id, sale_day)
+);
+CREATE INDEX IF NOT EXISTS idx_seller_daily_sales_seller_day ON seller_product_daily_sales (seller_id, sale_day);
@@ -0,0 +1,164 @@
+package esi.ma.taawoniyate;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Requests/sec and latency percentiles of the same endpoint with Tomcat on platform threads and
+ * on virtual threads, at 1000 concurrent clients. While the virtual-thread run is going, JFR
+ * reports every virtual thread pinned to its carrier for more than 20 ms; there must be none.
+ *
+ * Starts the application twice with the perf profile, so against its local database
+ * (PERF_DB_URL, PERF_DB_USER, PERF_DB_PASSWORD) and never the shared one, without seeding it.
+ * It only runs on demand:
+ *   mvn test -Dtest=VirtualThreadLoadBenchmark -Dbenchmark=true
+ * Options: -Dload.clients=1000 -Dload.seconds=30 -Dload.path=/api/users/exists/email/load@bench.local
+ * The default path runs one query per request and writes nothing.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadLoadBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 1000);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.seconds", 30));
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final String PATH = System.getProperty("load.path", "/api/users/exists/email/load@bench.local");
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.println("threads  | requests/s | p50 ms | p99 ms | p99.9 ms | errors | pinned > 20 ms");
+        System.out.println(platform);
+        System.out.println(virtual);
+        virtual.pinnedFrames.forEach((frame, count) -> System.out.println("  pinned " + count + "x at " + frame));
+
+        assertEquals(0, virtual.pinned, "virtual threads were pinned: " + virtual.pinnedFrames.keySet());
+    }
+
+    private static Result run(boolean virtualThreads) throws Exception {
+        Result result = new Result(virtualThreads ? "virtual " : "platform");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TaawoniyateApplication.class)
+                .profiles("perf")
+                .properties("server.port=0",
+                        "app.perf.seed.enabled=false",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.jpa.show-sql=false")
+                .run();
+             RecordingStream pinnedEvents = new RecordingStream()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + PATH);
+
+            pinnedEvents.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20)).withStackTrace();
+            pinnedEvents.onEvent("jdk.VirtualThreadPinned", result::pinned);
+            pinnedEvents.startAsync();
+
+            drive(uri, WARMUP, null);
+            drive(uri, DURATION, result);
+        }
+        return result;
+    }
+
+    // Every client sends its next request as soon as the previous answer arrives (closed loop)
+    private static void drive(URI uri, Duration duration, Result result) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder().executor(clients).version(HttpClient.Version.HTTP_1_1).build();
+            long deadline = System.nanoTime() + duration.toNanos();
+            List<Future<long[]>> latencies = new ArrayList<>();
+            AtomicLong errors = new AtomicLong();
+            for (int i = 0; i < CLIENTS; i++) {
+                latencies.add(clients.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            if (result != null) {
+                List<long[]> all = new ArrayList<>();
+                for (Future<long[]> client : latencies) {
+                    all.add(client.get());
+                }
+                result.record(all, duration, errors.get());
+            }
+        }
+    }
+
+    private static final class Result {
+        private final String label;
+        private final Map<String, Long> pinnedFrames = new ConcurrentHashMap<>();
+        private volatile long pinned;
+        private long[] sorted = new long[0];
+        private double throughput;
+        private long errors;
+
+        private Result(String label) {
+            this.label = label;
+        }
+
+        private void pinned(RecordedEvent event) {
+            pinned++;
+            String frame = event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()
+                    ? "unknown" : event.getStackTrace().getFrames().get(0).getMethod().getType().getName()
+                    + "." + event.getStackTrace().getFrames().get(0).getMethod().getName();
+            pinnedFrames.merge(frame, 1L, Long::sum);
+        }
+
+        private void record(List<long[]> clients, Duration duration, long errors) {
+            sorted = clients.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            throughput = sorted.length / (duration.toMillis() / 1000.0);
+            this.errors = errors;
+        }
+
+        private double percentileMillis(double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s | %10.0f | %6.1f | %6.1f | %8.1f | %6d | %d", label, throughput,
+                    percentileMillis(50), percentileMillis(99), percentileMillis(99.9), errors, pinned);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package esi.ma.taawoniyate.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ImageControllerTests {
+
+    @Test
+    void parsesSingleByteRanges() {
+        assertArrayEquals(new long[]{0, 100}, ImageController.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[]{500, 1000}, ImageController.parseRange("bytes=500-", 1000));
+        assertArrayEquals(new long[]{900, 1000}, ImageController.parseRange("bytes=-100", 1000));
+        assertArrayEquals(new long[]{0, 1000}, ImageController.parseRange("bytes=-5000", 1000));
+        assertArrayEquals(new long[]{990, 1000}, ImageController.parseRange("bytes=990-5000", 1000));
+    }
+
+    @Test
+    void unsatisfiableAndIgnoredRanges() {
+        assertSame(ImageController.UNSATISFIABLE, ImageController.parseRange("bytes=1000-", 1000));
+        assertSame(ImageController.UNSATISFIABLE, ImageController.parseRange("bytes=-0", 1000));
+        // Full image for several ranges or anything malformed
+        assertNull(ImageController.parseRange("bytes=0-10,20-30", 1000));
+        assertNull(ImageController.parseRange("items=0-10", 1000));
+        assertNull(ImageController.parseRange("bytes=abc-", 1000));
+        assertNull(ImageController.parseRange("bytes=50-10", 1000));
+        assertNull(ImageController.parseRange("bytes=-", 1000));
+    }
+}
@@ -0,0 +1,58 @@
+package esi.ma.taawoniyate.exporter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RowWriterTests {
+
+    private static final String[] COLUMNS = {"id", "name", "price", "date", "note"};
+
+    @Test
+    void csvQuotesOnlyWhenNeeded() throws IOException {
+        String csv = write(RowWriter.Format.CSV,
+                new Object[]{1L, "Huile d'argan, bio", new BigDecimal("120.50"), LocalDateTime.of(2025, 5, 2, 10, 15), null},
+                new Object[]{2L, "Panier \"tressé\"\nrouge", 35.0, null, "زيت"});
+
+        assertEquals("\uFEFFid,name,price,date,note\r\n"
+                + "1,\"Huile d'argan, bio\",120.50,2025-05-02T10:15,\r\n"
+                + "2,\"Panier \"\"tressé\"\"\nrouge\",35.0,,زيت\r\n", csv);
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws IOException {
+        String ndjson = write(RowWriter.Format.NDJSON,
+                new Object[]{1L, "Amlou \"beldi\"", new BigDecimal("45.00"), LocalDateTime.of(2025, 5, 2, 10, 15), null},
+                new Object[]{2, "زيت", 35.5, null, true});
+
+        assertEquals("{\"id\":1,\"name\":\"Amlou \\\"beldi\\\"\",\"price\":45.00,\"date\":\"2025-05-02T10:15\",\"note\":null}\n"
+                + "{\"id\":2,\"name\":\"زيت\",\"price\":35.5,\"date\":null,\"note\":true}\n", ndjson);
+    }
+
+    @Test
+    void formatParsing() {
+        assertEquals(RowWriter.Format.NDJSON, RowWriter.Format.of(null));
+        assertEquals(RowWriter.Format.NDJSON, RowWriter.Format.of("jsonl"));
+        assertEquals(RowWriter.Format.CSV, RowWriter.Format.of(" CSV "));
+        assertThrows(IllegalArgumentException.class, () -> RowWriter.Format.of("xlsx"));
+    }
+
+    private static String write(RowWriter.Format format, Object[]... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowWriter writer = RowWriter.open(format, out, new JsonFactory());
+        writer.writeHeader(COLUMNS);
+        for (Object[] row : rows) {
+            writer.writeRow(row);
+        }
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
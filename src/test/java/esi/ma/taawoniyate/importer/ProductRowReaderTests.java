@@ -0,0 +1,70 @@
+package esi.ma.taawoniyate.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductRowReaderTests {
+
+    @Test
+    void csvHandlesQuotingHeaderOrderAndBadRows() throws IOException {
+        String csv = "﻿Name,Price,quantity,category,images\r\n"
+                + "\"Huile d'argan, bio\",120.5,10,Cosmetique,\"https://a/x.jpg|https://a/y.jpg\"\n"
+                + "\n"
+                + "Amlou,abc,3,Food,\n"
+                + "\"Panier \"\"tressé\"\"\nrouge\",35,2,Artisanat\n";
+
+        List<ProductImportRow> rows = readAll(ProductRowReader.Format.CSV, csv);
+
+        assertEquals(3, rows.size());
+        assertEquals("Huile d'argan, bio", rows.get(0).getName());
+        assertEquals(120.5, rows.get(0).getPrice());
+        assertEquals(List.of("https://a/x.jpg", "https://a/y.jpg"), rows.get(0).getImageUrls());
+        assertFalse(rows.get(1).isValid());
+        assertEquals(2, rows.get(1).getRow());
+        assertEquals("Panier \"tressé\"\nrouge", rows.get(2).getName());
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsIsRejected() {
+        IOException e = assertThrows(IOException.class, () -> readAll(ProductRowReader.Format.CSV, "name,price\nA,1\n"));
+        assertTrue(e.getMessage().contains("quantity"));
+    }
+
+    @Test
+    void ndjsonReportsBadLinesAndKeepsGoing() throws IOException {
+        String ndjson = "{\"name\":\"Amlou\",\"price\":\"45,5\",\"quantity\":2,\"category\":\"Food\",\"images\":[\"https://x/1.jpg\"]}\n"
+                + "not json\n"
+                + "{\"name\":\"Zit\",\"price\":60,\"quantity\":1,\"category\":\"Food\"}\n";
+
+        List<ProductImportRow> rows = readAll(ProductRowReader.Format.NDJSON, ndjson);
+
+        assertEquals(3, rows.size());
+        assertEquals(45.5, rows.get(0).getPrice());
+        assertEquals(List.of("https://x/1.jpg"), rows.get(0).getImageUrls());
+        assertFalse(rows.get(1).isValid());
+        assertEquals("Zit", rows.get(2).getName());
+    }
+
+    private static List<ProductImportRow> readAll(ProductRowReader.Format format, String content) throws IOException {
+        List<ProductImportRow> rows = new ArrayList<>();
+        try (ProductRowReader reader = ProductRowReader.open(format,
+                new BufferedReader(new StringReader(content)), new ObjectMapper())) {
+            ProductImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,103 @@
+package esi.ma.taawoniyate.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstrumentedDataSourceTests {
+
+    private final DataSource dataSource = instrumented();
+
+    @Test
+    void countsEachExecutionAndGroupsThemByShape() throws Exception {
+        SqlStatistics statistics = SqlAssertions.assertStatementCount(4, () -> {
+            try (Connection connection = dataSource.getConnection()) {
+                for (long id = 1; id <= 3; id++) {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "select p1_0.url from product_images p1_0 where p1_0.product_id=?");
+                    statement.setLong(1, id);
+                    statement.executeQuery();
+                }
+                connection.createStatement().execute("update product set quantity = 4 where product_id = 12");
+            }
+        });
+
+        assertEquals(2, statistics.getDistinctStatements());
+        assertEquals(1, statistics.getRepeated().size());
+        assertEquals(3, statistics.getRepeated().get(0).getCount());
+        assertEquals("select p1_0.url from product_images p1_0 where p1_0.product_id=?",
+                statistics.getRepeated().get(0).getSql());
+    }
+
+    @Test
+    void nestedScopesBothCountAndTheOuterOneIsRestored() throws Exception {
+        try (SqlStatistics request = SqlStatistics.start()) {
+            dataSource.getConnection().prepareStatement("select 1").execute();
+            SqlStatistics call = SqlAssertions.capture(() ->
+                    dataSource.getConnection().prepareStatement("select 2").executeUpdate());
+
+            assertEquals(1, call.getStatements());
+            assertEquals(2, request.getStatements());
+            assertEquals(request, SqlStatistics.current());
+        }
+        assertNull(SqlStatistics.current());
+    }
+
+    @Test
+    void nothingIsRecordedOutsideAScope() throws Exception {
+        dataSource.getConnection().prepareStatement("select 1").execute();
+
+        assertNull(SqlStatistics.current());
+    }
+
+    @Test
+    void assertionsReportTheStatements() {
+        AssertionError error = assertThrows(AssertionError.class, () ->
+                SqlAssertions.assertNoRepeatedStatements(() -> {
+                    Connection connection = dataSource.getConnection();
+                    connection.prepareStatement("select * from users where id = ?").executeQuery();
+                    connection.prepareStatement("select * from users where id = ?").executeQuery();
+                }));
+
+        assertTrue(error.getMessage().contains("2 x select * from users where id = ?"), error.getMessage());
+    }
+
+    @Test
+    void normalizesLiteralsAndInLists() {
+        assertEquals("select * from product p1_0 where p1_0.name=? and p1_0.price>? and p1_0.id in (?...)",
+                SqlNormalizer.shape("select *\n  from product p1_0 where p1_0.name='l''huile' and p1_0.price>12.5 and p1_0.id in (1, 2, 3)"));
+        assertEquals("select * from product where id in (?...)",
+                SqlNormalizer.shape("select * from product where id in (?,?,?,?)"));
+        assertEquals("select * from product where id in (?)",
+                SqlNormalizer.shape("select * from product where id in (?)"));
+    }
+
+    private static DataSource instrumented() {
+        try {
+            DataSource target = mock(DataSource.class);
+            Connection connection = mock(Connection.class);
+            when(target.getConnection()).thenAnswer(invocation -> connection);
+            when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+                PreparedStatement statement = mock(PreparedStatement.class);
+                when(statement.executeQuery()).thenReturn(mock(ResultSet.class));
+                return statement;
+            });
+            when(connection.createStatement()).thenAnswer(invocation -> mock(Statement.class));
+            return new InstrumentedDataSource(target);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package esi.ma.taawoniyate.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerTimingFilterTests {
+
+    private final ServerTimingFilter filter = new ServerTimingFilter();
+
+    @Test
+    void headerIsWrittenBeforeTheBodyWithEveryPhase() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/store/products/42"), response, (req, res) -> {
+            RequestTiming.recordAuth(2_000_000);
+            SqlStatistics.record("select * from product where product_id=42", 3_000_000);
+            RequestTiming.recordExternal(5_000_000);
+            res.getOutputStream().write("{}".getBytes());
+            // Too late to change anything
+            RequestTiming.recordAuth(100_000_000);
+        });
+
+        String header = response.getHeader(RequestTiming.HEADER);
+        assertNotNull(header);
+        assertEquals(2.0, duration(header, "auth"), 0.001);
+        assertEquals(3.0, duration(header, "db"), 0.001);
+        assertEquals(5.0, duration(header, "external"), 0.001);
+        assertEquals(0.0, duration(header, "serialize"), 0.001);
+        assertTrue(duration(header, "total") >= 0);
+        assertTrue(header.contains("db;dur=3.00;desc=\"1 queries\""), header);
+        assertNull(RequestTiming.current());
+        assertNull(SqlStatistics.current());
+    }
+
+    @Test
+    void bodilessResponsesGetTheHeaderAtTheEnd() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("DELETE", "/api/products/42"), response,
+                (req, res) -> ((HttpServletResponse) res).setStatus(204));
+
+        assertNotNull(response.getHeader(RequestTiming.HEADER));
+    }
+
+    @Test
+    void jsonSerializationIsTimedWithoutTheQueriesItTriggers() throws Exception {
+        // Serialization starts at 0 and ends at 70 ms, 50 of which are spent in a lazy load
+        long[] ticks = {0, 70_000_000};
+        AtomicInteger tick = new AtomicInteger();
+        ServerTimingConfig.TimedJsonConverter converter = new ServerTimingConfig.TimedJsonConverter(
+                new ObjectMapper(), () -> ticks[tick.getAndIncrement()]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/store/products"), response, (req, res) -> {
+            converter.write(List.of(Map.of("id", 42), new LazySeller()), MediaType.APPLICATION_JSON,
+                    new ServletServerHttpResponse((HttpServletResponse) res));
+        });
+
+        String header = response.getHeader(RequestTiming.HEADER);
+        assertEquals("[{\"id\":42},{\"seller\":\"Coopérative Argan\"}]", response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(50.0, duration(header, "db"), 0.001);
+        assertEquals(20.0, duration(header, "serialize"), 0.001);
+    }
+
+    // Reads its seller like a lazy association would, during serialization
+    public static class LazySeller {
+        public String getSeller() {
+            SqlStatistics.record("select * from users where id=7", 50_000_000);
+            return "Coopérative Argan";
+        }
+    }
+
+    private static double duration(String header, String metric) {
+        Matcher matcher = Pattern.compile(metric + ";dur=([0-9.]+)").matcher(header);
+        assertTrue(matcher.find(), metric + " missing from " + header);
+        return Double.parseDouble(matcher.group(1));
+    }
+}
@@ -0,0 +1,52 @@
+package esi.ma.taawoniyate.monitoring;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Statement-count assertions for integration tests against the application's (instrumented)
+ * DataSource. Only statements run on the calling thread are counted.
+ *
+ *   SqlAssertions.assertStatementCount(2, () -> productService.getProductDetails(id));
+ *   SqlAssertions.assertNoRepeatedStatements(() -> panierService.getClientOrders(clientId));
+ */
+public final class SqlAssertions {
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    private SqlAssertions() {
+    }
+
+    public static SqlStatistics capture(Work work) throws Exception {
+        try (SqlStatistics statistics = SqlStatistics.start()) {
+            work.run();
+            return statistics;
+        }
+    }
+
+    public static SqlStatistics assertStatementCount(int expected, Work work) throws Exception {
+        SqlStatistics statistics = capture(work);
+        if (statistics.getStatements() != expected) {
+            fail("Expected " + expected + " SQL statements, got " + statistics);
+        }
+        return statistics;
+    }
+
+    public static SqlStatistics assertMaxStatements(int max, Work work) throws Exception {
+        SqlStatistics statistics = capture(work);
+        if (statistics.getStatements() > max) {
+            fail("Expected at most " + max + " SQL statements, got " + statistics);
+        }
+        return statistics;
+    }
+
+    public static SqlStatistics assertNoRepeatedStatements(Work work) throws Exception {
+        SqlStatistics statistics = capture(work);
+        if (!statistics.getRepeated().isEmpty()) {
+            fail("Statements repeated (N+1?): " + statistics);
+        }
+        return statistics;
+    }
+}
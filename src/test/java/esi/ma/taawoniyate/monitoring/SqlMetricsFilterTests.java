@@ -0,0 +1,63 @@
+package esi.ma.taawoniyate.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SqlMetricsFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SqlMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SqlMetricsFilter();
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filter, "defaultBudget", 25);
+        ReflectionTestUtils.setField(filter, "endpointBudgets", "GET /store/products/{productId}=2; POST /api/panier/save-cart=8");
+        filter.init();
+    }
+
+    @Test
+    void recordsStatementsPerEndpointAndFlagsRequestsOverBudget() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/store/products/42");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/store/products/{productId}");
+            SqlStatistics.record("select * from product where product_id=42", 1_000_000);
+            for (int i = 0; i < 3; i++) {
+                SqlStatistics.record("select * from product_images where product_id=42", 1_000_000);
+            }
+        });
+
+        assertEquals(4, meterRegistry.get("http.server.requests.sql.statements")
+                .tag("uri", "/store/products/{productId}").summary().totalAmount());
+        assertEquals(2, meterRegistry.get("http.server.requests.sql.distinct").summary().totalAmount());
+        assertEquals(4, meterRegistry.get("http.server.requests.sql.time").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, meterRegistry.get("http.server.requests.sql.over.budget")
+                .tag("method", "GET").counter().count());
+        assertNull(SqlStatistics.current());
+    }
+
+    @Test
+    void requestsWithinTheDefaultBudgetAreNotFlagged() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/store/products/page");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/store/products/page");
+            SqlStatistics.record("select * from product limit 20", 1_000_000);
+        });
+
+        assertEquals(1, meterRegistry.get("http.server.requests.sql.statements").summary().count());
+        assertNull(meterRegistry.find("http.server.requests.sql.over.budget").counter());
+    }
+}
@@ -0,0 +1,46 @@
+package esi.ma.taawoniyate.perf;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipfDistributionTests {
+
+    @Test
+    void headRanksTakeMostDraws() {
+        ZipfDistribution zipf = new ZipfDistribution(100_000, 1.1);
+        Random random = new Random(42);
+        int[] counts = new int[zipf.size()];
+        int draws = 200_000;
+        for (int i = 0; i < draws; i++) {
+            counts[zipf.sample(random)]++;
+        }
+
+        assertTrue(counts[0] > counts[1] && counts[1] > counts[9], "rank 0 is the most drawn");
+        int head = 0;
+        for (int rank = 0; rank < 1_000; rank++) {
+            head += counts[rank];
+        }
+        // The top 1% of ranks gets well over half of the draws, and the sample agrees with the weights
+        assertTrue(zipf.headShare(1_000) > 0.6);
+        assertEquals(zipf.headShare(1_000), head / (double) draws, 0.01);
+    }
+
+    @Test
+    void zeroExponentIsUniform() {
+        ZipfDistribution zipf = new ZipfDistribution(4, 0);
+
+        assertEquals(0.25, zipf.headShare(1), 1e-9);
+        assertEquals(1.0, zipf.headShare(4), 1e-9);
+        assertEquals(1.0, zipf.headShare(10), 1e-9);
+    }
+
+    @Test
+    void rejectsAnEmptyRange() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(0, 1.1));
+    }
+}
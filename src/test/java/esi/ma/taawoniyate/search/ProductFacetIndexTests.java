@@ -0,0 +1,133 @@
+package esi.ma.taawoniyate.search;
+
+import esi.ma.taawoniyate.dto.FacetCount;
+import esi.ma.taawoniyate.dto.ProductCard;
+import esi.ma.taawoniyate.dto.ProductFilter;
+import esi.ma.taawoniyate.dto.ProductFilterResult;
+import esi.ma.taawoniyate.dto.ProductSort;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductFacetIndexTests {
+
+    private static ProductDocument document(long id, double price, int quantity, String category, String seller, String city) {
+        return new ProductDocument(id, "Product " + id, "", price, quantity, category, seller, city, "Souss-Massa", null, null);
+    }
+
+    private static ProductFacetIndex catalog() {
+        ProductFacetIndex index = new ProductFacetIndex();
+        index.index(document(1, 30, 5, "Huiles", "Coop Argan", "Agadir"));
+        index.index(document(2, 80, 0, "Huiles", "Coop Atlas", "Taroudant"));
+        index.index(document(3, 120, 2, "Miel", "Coop Argan", "Agadir"));
+        index.index(document(4, 600, 1, "Cosmétique", "Coop Atlas", "Agadir"));
+        return index;
+    }
+
+    private static List<Long> ids(ProductFilterResult result) {
+        return result.getItems().stream().map(ProductCard::getId).toList();
+    }
+
+    private static Map<String, Long> counts(ProductFilterResult result, String facet) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (FacetCount count : result.getFacets().get(facet)) {
+            counts.put(count.getValue(), count.getCount());
+        }
+        return counts;
+    }
+
+    @Test
+    void valuesOfOneFacetAreOrEdAndFacetsAreAndEd() {
+        ProductFilter filter = new ProductFilter();
+        filter.setCategories(List.of("huiles", "Miel"));
+        filter.setCities(List.of("Agadir"));
+
+        ProductFilterResult result = catalog().filter(filter);
+
+        assertEquals(List.of(3L, 1L), ids(result));
+        assertEquals(2, result.getTotal());
+    }
+
+    @Test
+    void eachFacetIsCountedWithTheOtherFiltersOnly() {
+        ProductFilter filter = new ProductFilter();
+        filter.setCategories(List.of("Huiles"));
+        filter.setInStock(true);
+
+        ProductFilterResult result = catalog().filter(filter);
+
+        assertEquals(List.of(1L), ids(result));
+        // Categories ignore the category filter but keep the in-stock one
+        assertEquals(Map.of("Huiles", 1L, "Miel", 1L, "Cosmétique", 1L), counts(result, ProductFacetIndex.CATEGORY));
+        assertEquals(Map.of("Coop Argan", 1L), counts(result, ProductFacetIndex.SELLER));
+        // In stock ignores its own filter: two oils, one of them in stock
+        assertEquals(1L, counts(result, ProductFacetIndex.IN_STOCK).get("true"));
+        assertEquals(1L, counts(result, ProductFacetIndex.PRICE).get("0-50"));
+        assertEquals(0L, counts(result, ProductFacetIndex.PRICE).get("50-100"));
+    }
+
+    @Test
+    void priceRangeChecksProductsInTheBoundaryBuckets() {
+        ProductFilter filter = new ProductFilter();
+        filter.setMinPrice(60.0);
+        filter.setMaxPrice(120.0);
+        filter.setSort(ProductSort.PRICE_ASC);
+
+        assertEquals(List.of(2L, 3L), ids(catalog().filter(filter)));
+    }
+
+    @Test
+    void removedOrdinalsAreReusedWithoutLeavingTheirFacetValues() {
+        ProductFacetIndex index = catalog();
+        index.remove(4);
+        index.index(document(5, 40, 3, "Amlou", "Coop Tiznit", "Tiznit"));
+        // Reindexing replaces the previous facet values of the product
+        index.index(document(2, 80, 4, "Miel", "Coop Atlas", "Taroudant"));
+
+        ProductFilterResult result = index.filter(new ProductFilter());
+
+        assertEquals(List.of(5L, 3L, 2L, 1L), ids(result));
+        assertEquals(Map.of("Miel", 2L, "Huiles", 1L, "Amlou", 1L), counts(result, ProductFacetIndex.CATEGORY));
+        assertEquals(3, counts(result, ProductFacetIndex.CITY).size());
+        assertEquals(4L, counts(result, ProductFacetIndex.IN_STOCK).get("true"));
+        assertEquals(0L, counts(result, ProductFacetIndex.PRICE).get("500-1000"));
+    }
+
+    @Test
+    void pagesFollowTheSortOrder() {
+        ProductFacetIndex index = new ProductFacetIndex();
+        for (long id = 1; id <= 25; id++) {
+            index.index(document(id, 10 * (26 - id), 1, "Huiles", "Coop Argan", "Agadir"));
+        }
+        ProductFilter filter = new ProductFilter();
+        filter.setSort(ProductSort.PRICE_ASC);
+        filter.setSize(10);
+        filter.setPage(2);
+
+        ProductFilterResult result = index.filter(filter);
+
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), ids(result));
+        assertEquals(25, result.getTotal());
+        filter.setPage(3);
+        assertTrue(index.filter(filter).getItems().isEmpty());
+    }
+
+    @Test
+    void pagesBeyondTheResultWindowAreRejected() {
+        ProductFilter filter = new ProductFilter();
+        filter.setSize(50);
+        filter.setPage(ProductFacetIndex.MAX_RESULT_WINDOW / 50 - 1);
+        catalog().filter(filter);
+
+        filter.setPage(40_000_000);
+        assertThrows(IllegalArgumentException.class, () -> catalog().filter(filter));
+        filter.setPage(Integer.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> catalog().filter(filter));
+    }
+}
@@ -0,0 +1,91 @@
+package esi.ma.taawoniyate.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTests {
+
+    private static ProductDocument document(long id, String name, String description, String category) {
+        return new ProductDocument(id, name, description, 10.0, 1, category, "Coop", "Agadir", "Souss-Massa", null, null);
+    }
+
+    private static List<Long> ids(List<ProductDocument> hits) {
+        return hits.stream().map(ProductDocument::getId).toList();
+    }
+
+    @Test
+    void foldsAccentsArabicDiacriticsAndArabizi() {
+        assertEquals(List.of("huile", "olive"), TextNormalizer.tokenize("L'Huiles d'olivé"));
+        assertEquals(List.of("زيتون"), TextNormalizer.tokenize("الزَّيْتُون"));
+        assertEquals(TextNormalizer.tokenize("3assel"), TextNormalizer.tokenize("asel"));
+    }
+
+    @Test
+    void keepsSizesAndWeightsApartFromArabizi() {
+        assertEquals(List.of("2", "2kg"), TextNormalizer.tokenize("2kg"));
+        assertEquals(List.of("250", "250ml"), TextNormalizer.tokenize("250ml"));
+        assertEquals(TextNormalizer.tokenize("l7em"), TextNormalizer.tokenize("lhem"));
+
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(document(1, "Miel de thym 2kg", "", "Alimentation"));
+        index.index(document(2, "Miel de thym 3kg", "", "Alimentation"));
+        index.index(document(3, "Huile d'argan 250ml", "", "Cosmétique"));
+
+        assertEquals(List.of(1L), ids(index.search("2kg", 10)));
+        assertEquals(List.of(2L), ids(index.search("3kg", 10)));
+        assertEquals(List.of(3L), ids(index.search("250ml", 10)));
+        assertEquals(List.of(3L), ids(index.search("250 ml", 10)));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(document(1, "Savon noir", "Fait avec de l'huile d'olive", "Cosmétique"));
+        index.index(document(2, "Huile d'olive", "Première pression", "Alimentation"));
+
+        assertEquals(List.of(2L, 1L), ids(index.search("huile", 10)));
+    }
+
+    @Test
+    void expandsLastTermAsPrefix() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(document(1, "Amlou aux amandes", "", "Alimentation"));
+
+        assertEquals(List.of(1L), ids(index.search("aml", 10)));
+        assertTrue(index.search("aml ", 10).isEmpty());
+    }
+
+    @Test
+    void reindexingAndRemovalKeepPostingsConsistent() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(document(1, "Tajine en terre cuite", "", "Artisanat"));
+        index.index(document(1, "Tapis berbère", "", "Artisanat"));
+
+        assertTrue(index.search("tajine", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("tapis", 10)));
+
+        index.remove(1);
+        assertEquals(0, index.size());
+        assertTrue(index.search("artisanat", 10).isEmpty());
+    }
+
+    @Test
+    void repeatedEditsDoNotGrowTheIndex() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (int round = 0; round < 50; round++) {
+            for (long id = 1; id <= 10; id++) {
+                index.index(document(id, "Huile round" + round, "", "Alimentation"));
+            }
+        }
+
+        assertTrue(index.slots() < 200, "slots: " + index.slots());
+        assertEquals(10, index.size());
+        assertTrue(index.search("round48", 10).isEmpty());
+        // Equal scores: the most recently indexed product first, as before compaction
+        assertEquals(List.of(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L), ids(index.search("huile round49", 10)));
+    }
+}
@@ -0,0 +1,86 @@
+package esi.ma.taawoniyate.security;
+
+import esi.ma.taawoniyate.model.Seller;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTests {
+
+    private static final String SECRET = "testSecretKeyForJWTTokenGenerationThatIsLongEnoughForHs256";
+
+    @Test
+    void verifiesOnceAndServesRepeatedTokensFromTheCache() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 60_000, 100);
+        String token = jwtUtil.generateToken("seller@coop.ma", "seller", 42L);
+
+        JwtPrincipal principal = jwtUtil.verify(token);
+
+        assertEquals("seller@coop.ma", principal.getUsername());
+        assertEquals("seller", principal.getRole());
+        assertEquals(42L, principal.getUserId());
+        assertEquals("ROLE_SELLER", principal.getAuthorities().get(0).getAuthority());
+        assertSame(principal, jwtUtil.verify(token));
+    }
+
+    @Test
+    void carriesTheProfileSnapshot() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 60_000, 100);
+        Seller seller = new Seller();
+        seller.setId(42L);
+        seller.setEmail("seller@coop.ma");
+        seller.setRole("seller");
+        seller.setFullName("Fatima Zahra");
+        seller.setBusinessName("Coop Argan");
+        seller.setProfileVersion(3);
+
+        JwtPrincipal principal = jwtUtil.verify(jwtUtil.generateToken(seller));
+
+        assertEquals("seller@coop.ma", principal.getUsername());
+        assertEquals(42L, principal.getUserId());
+        assertEquals("Fatima Zahra", principal.getFullName());
+        assertEquals("Coop Argan", principal.getBusinessName());
+        assertEquals(3, principal.getProfileVersion());
+    }
+
+    @Test
+    void parsesEveryTimeWhenTheCacheIsDisabled() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 60_000, 0);
+        String token = jwtUtil.generateToken("client@coop.ma", "client", 7L);
+
+        assertNotSame(jwtUtil.verify(token), jwtUtil.verify(token));
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, 60_000, 100);
+        String forged = jwtUtil(SECRET.replace('t', 'x'), 60_000, 100).generateToken("admin@coop.ma", "admin", 1L);
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(forged));
+        // Still rejected the second time: failures are not cached
+        assertThrows(JwtException.class, () -> jwtUtil.verify(forged));
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        JwtUtil jwtUtil = jwtUtil(SECRET, -1_000, 100);
+        String token = jwtUtil.generateToken("client@coop.ma", "client", 7L);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+    }
+
+    static JwtUtil jwtUtil(String secret, long expiration, long cacheMaximumSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", secret);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expiration);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaximumSize", cacheMaximumSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,107 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.CartLine;
+import esi.ma.taawoniyate.model.Client;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.model.Seller;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JDBC statements (round trips) per checkout as a function of cart size.
+ *
+ * Needs a database, so it only runs on demand:
+ *   mvn test -Dtest=CheckoutRoundTripBenchmark -Dbenchmark=true
+ * Everything it writes is rolled back.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Transactional
+class CheckoutRoundTripBenchmark {
+
+    private static final int[] CART_SIZES = {1, 5, 10, 30, 100};
+
+    @Autowired
+    private PanierService panierService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void roundTripsDoNotGrowWithCartSize() {
+        Seller seller = user(new Seller(), "bench-seller");
+        seller.setBusinessName("Bench Coop");
+        entityManager.persist(seller);
+
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < CART_SIZES[CART_SIZES.length - 1]; i++) {
+            Product product = new Product();
+            product.setName("Bench product " + i);
+            product.setDescription("Checkout benchmark");
+            product.setPrice(10 + i);
+            product.setQuantity(1000);
+            product.setSeller(seller);
+            entityManager.persist(product);
+            productIds.add(product.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        Map<Integer, Long> statements = new LinkedHashMap<>();
+
+        System.out.println("cart size | JDBC statements | entity inserts");
+        for (int size : CART_SIZES) {
+            // A fresh client per size, so every run creates its panier from scratch
+            Client client = user(new Client(), "bench-client-" + size);
+            entityManager.persist(client);
+            entityManager.flush();
+            entityManager.clear();
+
+            List<CartLine> cart = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                cart.add(new CartLine(productIds.get(i), 1 + i % 3));
+            }
+
+            statistics.clear();
+            panierService.checkout(client.getId(), cart);
+            entityManager.flush();
+            entityManager.clear();
+
+            statements.put(size, statistics.getPrepareStatementCount());
+            System.out.printf("%9d | %15d | %14d%n", size,
+                    statistics.getPrepareStatementCount(), statistics.getEntityInsertCount());
+        }
+
+        // Only sequence fetches and insert batches (50 rows each) may grow with the cart
+        long smallest = statements.get(CART_SIZES[0]);
+        long largest = statements.get(CART_SIZES[CART_SIZES.length - 1]);
+        assertTrue(largest <= smallest + 4,
+                "checkout statements grew from " + smallest + " to " + largest);
+    }
+
+    private static <T extends Client> T user(T user, String name) {
+        user.setFullName(name);
+        user.setEmail(name + "-" + System.nanoTime() + "@bench.local");
+        user.setPassword("not-a-real-hash");
+        user.setRegion("Souss-Massa");
+        user.setCity("Agadir");
+        user.setAddress("1 Bench street");
+        user.setPhone("0600000000");
+        return user;
+    }
+}
@@ -0,0 +1,186 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.CartLine;
+import esi.ma.taawoniyate.model.Client;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.model.Seller;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hundreds of checkouts at once, all wanting a product with less stock than they ask for. Exactly the
+ * stock is sold, never more, and no checkout fails for another reason than the stock: carts list the
+ * two products in either order, so locking them in cart order would deadlock.
+ *
+ * Needs a database, so it only runs on demand:
+ *   mvn test -Dtest=CheckoutStockStressTest -Dstress=true
+ * It runs with the perf profile, on its local database (PERF_DB_URL, PERF_DB_USER, PERF_DB_PASSWORD),
+ * never on the shared one of application.properties; the synthetic seed is turned off. Everything
+ * it creates is deleted afterwards.
+ */
+@SpringBootTest(properties = "app.perf.seed.enabled=false")
+@ActiveProfiles("perf")
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class CheckoutStockStressTest {
+
+    private static final int CHECKOUTS = 400;
+    private static final int THREADS = 64;
+    private static final int SCARCE_STOCK = 150;
+    private static final int PLENTIFUL_STOCK = 100_000;
+
+    @Autowired
+    private PanierService panierService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private long sellerId;
+    private final List<Long> clientIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Seller seller = user(new Seller(), "stress-seller");
+            seller.setBusinessName("Stress Coop " + System.nanoTime());
+            entityManager.persist(seller);
+            sellerId = seller.getId();
+            productIds.add(product(seller, "Stress scarce", SCARCE_STOCK));
+            productIds.add(product(seller, "Stress plentiful", PLENTIFUL_STOCK));
+            for (int i = 0; i < CHECKOUTS; i++) {
+                Client client = user(new Client(), "stress-client-" + i);
+                entityManager.persist(client);
+                clientIds.add(client.getId());
+            }
+        });
+        long scarce = productIds.get(0);
+        long plentiful = productIds.get(1);
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> checkouts = new ArrayList<>();
+            for (int i = 0; i < CHECKOUTS; i++) {
+                long clientId = clientIds.get(i);
+                List<CartLine> cart = i % 2 == 0
+                        ? List.of(new CartLine(scarce, 1), new CartLine(plentiful, 1))
+                        : List.of(new CartLine(plentiful, 1), new CartLine(scarce, 1));
+                checkouts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        panierService.checkout(clientId, cart);
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        refused.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failures.add(e);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> checkout : checkouts) {
+                checkout.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.printf("%d checkouts: %d sold, %d refused for stock, %d failed%n",
+                CHECKOUTS, sold.get(), refused.get(), failures.size());
+        assertTrue(failures.isEmpty(), "checkouts failed for another reason: " + failures);
+        assertEquals(SCARCE_STOCK, sold.get());
+        assertEquals(CHECKOUTS - SCARCE_STOCK, refused.get());
+        assertEquals(0, quantity(scarce));
+        assertEquals(PLENTIFUL_STOCK - SCARCE_STOCK, quantity(plentiful));
+        assertEquals(SCARCE_STOCK, unitsOrdered(scarce));
+        assertEquals(SCARCE_STOCK, unitsOrdered(plentiful));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (transaction == null) {
+            return;
+        }
+        transaction.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM PanierItem i WHERE i.seller.id = :sellerId")
+                    .setParameter("sellerId", sellerId).executeUpdate();
+            if (!clientIds.isEmpty()) {
+                entityManager.createQuery("DELETE FROM Panier p WHERE p.client.id IN :clientIds")
+                        .setParameter("clientIds", clientIds).executeUpdate();
+            }
+            entityManager.createQuery("DELETE FROM SellerDailySales s WHERE s.sellerId = :sellerId")
+                    .setParameter("sellerId", sellerId).executeUpdate();
+            entityManager.createQuery("DELETE FROM Product p WHERE p.seller.id = :sellerId")
+                    .setParameter("sellerId", sellerId).executeUpdate();
+            List<Long> userIds = new ArrayList<>(clientIds);
+            userIds.add(sellerId);
+            entityManager.createQuery("DELETE FROM User u WHERE u.id IN :ids")
+                    .setParameter("ids", userIds).executeUpdate();
+        });
+    }
+
+    private int quantity(long productId) {
+        return transaction.execute(status -> entityManager
+                .createQuery("SELECT p.quantity FROM Product p WHERE p.id = :id", Integer.class)
+                .setParameter("id", productId)
+                .getSingleResult());
+    }
+
+    private long unitsOrdered(long productId) {
+        return transaction.execute(status -> entityManager
+                .createQuery("SELECT COALESCE(SUM(i.quantity), 0) FROM PanierItem i WHERE i.product.id = :id", Long.class)
+                .setParameter("id", productId)
+                .getSingleResult());
+    }
+
+    private long product(Seller seller, String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("Checkout stock stress test");
+        product.setPrice(10);
+        product.setQuantity(stock);
+        product.setSeller(seller);
+        entityManager.persist(product);
+        return product.getId();
+    }
+
+    private static <T extends Client> T user(T user, String name) {
+        user.setFullName(name);
+        user.setEmail(name + "-" + System.nanoTime() + "@stress.local");
+        user.setPassword("not-a-real-hash");
+        user.setRegion("Souss-Massa");
+        user.setCity("Agadir");
+        user.setAddress("1 Stress street");
+        user.setPhone("0600000000");
+        return user;
+    }
+}
@@ -0,0 +1,85 @@
+package esi.ma.taawoniyate.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageResizerTests {
+
+    @TempDir
+    Path dir;
+
+    private final ImageResizer resizer = new ImageResizer(1);
+
+    @Test
+    void makesEverySizeSmallerThanTheOriginal() throws IOException {
+        Path original = dir.resolve("photo.jpg");
+        ImageIO.write(new BufferedImage(5000, 3000, BufferedImage.TYPE_INT_RGB), "jpg", original.toFile());
+
+        Map<ImageVariant, Path> variants = resizer.createVariants(original);
+        try {
+            assertEquals(Set.of(ImageVariant.values()), variants.keySet());
+            assertSize(variants.get(ImageVariant.THUMBNAIL), 320, 192);
+            assertSize(variants.get(ImageVariant.DETAIL), 1080, 648);
+            assertSize(variants.get(ImageVariant.ZOOM), 2048, 1229);
+        } finally {
+            for (Path variant : variants.values()) {
+                Files.deleteIfExists(variant);
+            }
+        }
+    }
+
+    @Test
+    void skipsSizesAtLeastAsLargeAsTheOriginalAndUnreadableFiles() throws IOException {
+        Path small = dir.resolve("small.png");
+        ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB), "png", small.toFile());
+        Path webp = Files.writeString(dir.resolve("photo.webp"), "RIFF\0\0\0\0WEBPVP8 ");
+
+        Map<ImageVariant, Path> variants = resizer.createVariants(small);
+        assertEquals(Set.of(ImageVariant.THUMBNAIL), variants.keySet());
+        assertTrue(variants.get(ImageVariant.THUMBNAIL).toString().endsWith(".png"), "alpha is kept as PNG");
+        Files.delete(variants.get(ImageVariant.THUMBNAIL));
+
+        assertTrue(resizer.createVariants(webp).isEmpty());
+    }
+
+    @Test
+    void readsAndAppliesExifOrientation() throws IOException {
+        // Minimal JPEG: SOI, APP1 with a big-endian IFD0 holding Orientation = 6, then SOS
+        byte[] exif = {'E', 'x', 'i', 'f', 0, 0, 'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, 6, 0, 0, 0, 0, 0, 0};
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        jpeg.write(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1, 0, (byte) (exif.length + 2)});
+        jpeg.write(exif);
+        jpeg.write(new byte[]{(byte) 0xFF, (byte) 0xDA});
+        Path rotated = Files.write(dir.resolve("rotated.jpg"), jpeg.toByteArray());
+        assertEquals(6, ImageResizer.exifOrientation(rotated));
+
+        // 2x1 image turned a quarter clockwise: 1x2 with the left pixel on top
+        BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0x111111);
+        image.setRGB(1, 0, 0x222222);
+        BufferedImage upright = ImageResizer.orient(image, 6);
+        assertEquals(1, upright.getWidth());
+        assertEquals(2, upright.getHeight());
+        assertEquals(0x111111, upright.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0x222222, upright.getRGB(0, 1) & 0xFFFFFF);
+    }
+
+    private static void assertSize(Path file, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+    }
+}
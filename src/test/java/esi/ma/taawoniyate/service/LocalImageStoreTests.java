@@ -0,0 +1,88 @@
+package esi.ma.taawoniyate.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalImageStoreTests {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path uploads;
+
+    private LocalImageStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new LocalImageStore();
+        ReflectionTestUtils.setField(store, "root", root);
+        ReflectionTestUtils.setField(store, "baseUrl", "http://localhost:8080/images");
+        ReflectionTestUtils.setField(store, "maxImageSize", DataSize.ofMegabytes(10));
+        store.init();
+    }
+
+    @Test
+    void identicalUploadsAreStoredOnce() throws IOException {
+        String first = store.store(png("a.png", "same photo"), "a.png");
+        String second = store.store(png("b.png", "same photo"), "listing-2.png");
+        String other = store.store(png("c.png", "another photo"), "c.png");
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        assertTrue(first.matches("http://localhost:8080/images/[0-9a-f]{64}\\.png"), first);
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+        assertNotNull(store.find(first.substring(first.lastIndexOf('/') + 1)));
+    }
+
+    @Test
+    void rejectsNonImagesAndForeignNames() throws IOException {
+        Path html = Files.writeString(uploads.resolve("x.png"), "<html><script>alert(1)</script></html>");
+
+        assertThrows(IOException.class, () -> store.store(html, "x.png"));
+        assertNull(store.find("../../etc/passwd"));
+        assertNull(store.find("0".repeat(64) + ".png"));
+    }
+
+    @Test
+    void refusesToFetchFromInternalAddresses() throws IOException {
+        for (String url : List.of("http://127.0.0.1:8080/actuator/health", "http://localhost/x.png",
+                "http://10.0.0.5/x.png", "http://192.168.1.1/x.png", "http://169.254.169.254/latest/meta-data/",
+                "http://0.0.0.0/x.png", "http://[::1]/x.png", "http://[fd00::1]/x.png", "file:///etc/passwd")) {
+            IOException e = assertThrows(IOException.class, () -> store.storeFromUrl(url), url);
+            assertFalse(e.getMessage().contains("Connection"), url + ": " + e.getMessage());
+        }
+        assertTrue(LocalImageStore.isPublic(InetAddress.getByName("93.184.216.34")));
+        assertTrue(LocalImageStore.isPublic(InetAddress.getByName("2606:2800:220:1::")));
+    }
+
+    private Path png(String name, String content) throws IOException {
+        Path file = uploads.resolve(name);
+        Files.write(file, PNG_HEADER);
+        Files.writeString(file, content, StandardOpenOption.APPEND);
+        return file;
+    }
+}
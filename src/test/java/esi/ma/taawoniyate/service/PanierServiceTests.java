@@ -0,0 +1,203 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.CartLine;
+import esi.ma.taawoniyate.dto.SellerOrder;
+import esi.ma.taawoniyate.dto.SellerOrderLine;
+import esi.ma.taawoniyate.dto.SellerOrderPage;
+import esi.ma.taawoniyate.dto.StockShortage;
+import esi.ma.taawoniyate.event.OrderSavedEvent;
+import esi.ma.taawoniyate.model.Client;
+import esi.ma.taawoniyate.model.Panier;
+import esi.ma.taawoniyate.model.PanierItem;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.model.Seller;
+import esi.ma.taawoniyate.repository.ClientRepository;
+import esi.ma.taawoniyate.repository.PanierItemRepository;
+import esi.ma.taawoniyate.repository.PanierRepository;
+import esi.ma.taawoniyate.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PanierServiceTests {
+
+    private final PanierRepository panierRepository = mock(PanierRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+    private final PanierItemRepository panierItemRepository = mock(PanierItemRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private PanierService panierService;
+
+    @BeforeEach
+    void setUp() {
+        panierService = new PanierService();
+        ReflectionTestUtils.setField(panierService, "panierRepository", panierRepository);
+        ReflectionTestUtils.setField(panierService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(panierService, "clientRepository", clientRepository);
+        ReflectionTestUtils.setField(panierService, "panierItemRepository", panierItemRepository);
+        ReflectionTestUtils.setField(panierService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(panierService, "eventPublisher", eventPublisher);
+
+        Seller seller = new Seller();
+        seller.setId(3);
+        when(productRepository.findAllWithSellerByIdIn(anyCollection()))
+                .thenReturn(List.of(product(10, seller), product(30, seller)));
+        when(clientRepository.getReferenceById(7L)).thenReturn(new Client());
+        when(panierRepository.save(any(Panier.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stockIsReservedInOneBatchInProductIdOrder() {
+        when(jdbcTemplate.batchUpdate(eq(PanierService.RESERVE_STOCK), anyList())).thenReturn(new int[]{1, 1});
+
+        panierService.checkout(7L, List.of(new CartLine(30, 2), new CartLine(10, 1), new CartLine(30, 1)));
+
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(PanierService.RESERVE_STOCK), updates.capture());
+        assertEquals(2, updates.getValue().size());
+        assertArrayEquals(new Object[]{1, 10L, 1}, updates.getValue().get(0));
+        assertArrayEquals(new Object[]{3, 30L, 3}, updates.getValue().get(1));
+    }
+
+    @Test
+    void shortLinesAreAllReportedAndNothingIsSaved() {
+        when(jdbcTemplate.batchUpdate(eq(PanierService.RESERVE_STOCK), anyList())).thenReturn(new int[]{0, 0});
+        when(productRepository.findStockShortages(List.of(10L, 30L))).thenReturn(List.of(
+                new StockShortage(10L, "Amlou", 0), new StockShortage(30L, "Argan oil", 1)));
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> panierService.checkout(7L, List.of(new CartLine(10, 1), new CartLine(30, 2))));
+
+        assertEquals(2, e.getShortages().size());
+        assertEquals(1, e.getShortages().get(0).getRequested());
+        assertEquals(2, e.getShortages().get(1).getRequested());
+        assertEquals(1, e.getShortages().get(1).getAvailable());
+        verify(panierRepository, never()).save(any(Panier.class));
+    }
+
+    @Test
+    void savedPanierWithANegativeQuantityIsRejected() {
+        Panier panier = panier(0, item(10, -1000));
+
+        assertThrows(IllegalArgumentException.class, () -> panierService.savePanier(panier));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(panierRepository, never()).save(any(Panier.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void savingAnExistingPanierReservesOnlyTheDifference() {
+        when(panierRepository.findById(5)).thenReturn(Optional.of(panier(5, item(10, 2), item(30, 1))));
+        when(jdbcTemplate.batchUpdate(eq(PanierService.RESERVE_STOCK), anyList())).thenReturn(new int[]{1});
+
+        panierService.savePanier(panier(5, item(10, 3), item(30, 1)));
+
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(PanierService.RESERVE_STOCK), updates.capture());
+        assertEquals(1, updates.getValue().size());
+        assertArrayEquals(new Object[]{1, 10L, 1}, updates.getValue().get(0));
+    }
+
+    @Test
+    void savingAnExistingPanierReportsItsStoredLinesAsRemoved() {
+        Panier stored = panier(5, item(10, 2), item(30, 1));
+        stored.setDate(LocalDateTime.of(2025, 6, 2, 10, 0));
+        when(panierRepository.findById(5)).thenReturn(Optional.of(stored));
+        when(jdbcTemplate.batchUpdate(eq(PanierService.RESERVE_STOCK), anyList())).thenReturn(new int[]{1});
+
+        panierService.savePanier(panier(5, item(10, 3), item(30, 1)));
+
+        ArgumentCaptor<OrderSavedEvent> event = ArgumentCaptor.forClass(OrderSavedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertFalse(event.getValue().isCreated());
+        assertEquals(2, event.getValue().getRemoved().size());
+        assertEquals(3, event.getValue().getRemoved().stream().mapToInt(OrderSavedEvent.Line::getQuantity).sum());
+        assertEquals(4, event.getValue().getAdded().stream().mapToInt(OrderSavedEvent.Line::getQuantity).sum());
+        assertTrue(event.getValue().getAdded().stream().allMatch(line -> line.getDay().equals(LocalDate.of(2025, 6, 2))));
+    }
+
+    @Test
+    void sellerOrdersPageOnOrderDateThenId() {
+        // Order 4 was placed again after order 9, so it is the newest
+        LocalDateTime replacedAt = LocalDateTime.of(2025, 6, 3, 8, 15, 30, 123_456_000);
+        when(panierItemRepository.findSellerOrderIds(anyLong(), any(LocalDateTime.class), anyInt(), any()))
+                .thenReturn(List.of(4, 9, 7));
+        when(panierItemRepository.findSellerOrderLines(3L, List.of(4, 9))).thenReturn(List.of(
+                orderLine(4, replacedAt), orderLine(9, replacedAt.minusDays(1))));
+
+        SellerOrderPage page = panierService.getSellerOrders(3L, null, 2);
+
+        assertEquals(List.of(4, 9), page.getItems().stream().map(SellerOrder::getOrderId).toList());
+        assertNotNull(page.getNextCursor());
+        when(panierItemRepository.findSellerOrderIds(anyLong(), any(LocalDateTime.class), anyInt(), any()))
+                .thenReturn(List.of());
+        panierService.getSellerOrders(3L, page.getNextCursor(), 2);
+        verify(panierItemRepository).findSellerOrderIds(eq(3L), eq(replacedAt.minusDays(1)), eq(9), any());
+        assertThrows(IllegalArgumentException.class, () -> panierService.getSellerOrders(3L, "42", 2));
+    }
+
+    private static SellerOrderLine orderLine(int orderId, LocalDateTime date) {
+        return new SellerOrderLine(orderId, date, 7L, "Client", "client@example.com", "0600000000",
+                "1 Rue", "Agadir", "Souss-Massa", 10L, "Product 10", 1, BigDecimal.TEN);
+    }
+
+    private static Panier panier(int id, PanierItem... items) {
+        Panier panier = new Panier();
+        panier.setPanier_id(id);
+        for (PanierItem item : items) {
+            item.setPanier(panier);
+            panier.getRawItems().add(item);
+        }
+        return panier;
+    }
+
+    private static PanierItem item(long productId, int quantity) {
+        Seller seller = new Seller();
+        seller.setId(3);
+        PanierItem item = new PanierItem();
+        item.setProduct(product(productId, seller));
+        item.setSeller(seller);
+        item.setQuantity(quantity);
+        item.setPrice(BigDecimal.TEN);
+        return item;
+    }
+
+    private static Product product(long id, Seller seller) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(10);
+        product.setSeller(seller);
+        return product;
+    }
+}
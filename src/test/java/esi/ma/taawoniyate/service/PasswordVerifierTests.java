@@ -0,0 +1,111 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.model.Client;
+import esi.ma.taawoniyate.model.User;
+import esi.ma.taawoniyate.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PasswordVerifierTests {
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordVerifier verifier;
+
+    @AfterEach
+    void tearDown() {
+        verifier.stop();
+    }
+
+    @Test
+    void checksHashedPasswordsWithoutRehashing() throws Exception {
+        verifier = verifier(encoder, 2, 10);
+        User user = user(encoder.encode("s3cret"));
+
+        assertTrue(verifier.verify(user, "s3cret").get(5, TimeUnit.SECONDS));
+        assertFalse(verifier.verify(user, "wrong").get(5, TimeUnit.SECONDS));
+        assertFalse(verifier.verify(null, "s3cret").get(5, TimeUnit.SECONDS));
+        verify(userRepository, never()).replacePassword(anyLong(), anyString(), anyString());
+        assertEquals(1, meterRegistry.get("auth.password.verify").tag("outcome", "match").timer().count());
+    }
+
+    @Test
+    void rehashesPlaintextPasswordsAfterASuccessfulLogin() throws Exception {
+        verifier = verifier(encoder, 2, 10);
+        User user = user("plain-password");
+        when(userRepository.replacePassword(eq(5L), eq("plain-password"), anyString())).thenReturn(1);
+
+        assertTrue(verifier.verify(user, "plain-password").get(5, TimeUnit.SECONDS));
+
+        assertTrue(encoder.matches("plain-password", user.getPassword()));
+        assertEquals(1.0, meterRegistry.get("auth.password.rehashed").counter().count());
+    }
+
+    @Test
+    void rejectsRightAwayWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        verifier = verifier(slowEncoder, 1, 1);
+        User user = user(encoder.encode("s3cret"));
+
+        CompletableFuture<Boolean> running = verifier.verify(user, "s3cret");
+        CompletableFuture<Boolean> queued = verifier.verify(user, "s3cret");
+        assertThrows(RejectedExecutionException.class, () -> verifier.verify(user, "s3cret"));
+        assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private PasswordVerifier verifier(PasswordEncoder passwordEncoder, int threads, int queueCapacity) {
+        PasswordVerifier verifier = new PasswordVerifier();
+        ReflectionTestUtils.setField(verifier, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(verifier, "userRepository", userRepository);
+        ReflectionTestUtils.setField(verifier, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(verifier, "hashThreads", threads);
+        ReflectionTestUtils.setField(verifier, "queueCapacity", queueCapacity);
+        verifier.start();
+        return verifier;
+    }
+
+    private static User user(String password) {
+        Client user = new Client();
+        user.setId(5L);
+        user.setEmail("client@coop.ma");
+        user.setPassword(password);
+        return user;
+    }
+}
@@ -0,0 +1,127 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.PlatformStatistics;
+import esi.ma.taawoniyate.event.OrderSavedEvent;
+import esi.ma.taawoniyate.event.UserCountChangedEvent;
+import esi.ma.taawoniyate.model.Admin;
+import esi.ma.taawoniyate.model.Client;
+import esi.ma.taawoniyate.model.Seller;
+import esi.ma.taawoniyate.repository.ClientRepository;
+import esi.ma.taawoniyate.repository.PanierItemRepository;
+import esi.ma.taawoniyate.repository.PanierRepository;
+import esi.ma.taawoniyate.repository.SellerRepository;
+import esi.ma.taawoniyate.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PlatformStatisticsServiceTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+    private final SellerRepository sellerRepository = mock(SellerRepository.class);
+    private final PanierRepository panierRepository = mock(PanierRepository.class);
+    private final PanierItemRepository panierItemRepository = mock(PanierItemRepository.class);
+    private PlatformStatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        statisticsService = new PlatformStatisticsService();
+        ReflectionTestUtils.setField(statisticsService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(statisticsService, "clientRepository", clientRepository);
+        ReflectionTestUtils.setField(statisticsService, "sellerRepository", sellerRepository);
+        ReflectionTestUtils.setField(statisticsService, "panierRepository", panierRepository);
+        ReflectionTestUtils.setField(statisticsService, "panierItemRepository", panierItemRepository);
+        ReflectionTestUtils.setField(statisticsService, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(statisticsService, "activeSellerDays", 30);
+
+        // 1 admin, 7 clients of which 3 sellers; 4 orders with 6 lines
+        when(userRepository.count()).thenReturn(8L);
+        when(clientRepository.count()).thenReturn(7L);
+        when(sellerRepository.count()).thenReturn(3L);
+        when(panierRepository.count()).thenReturn(4L);
+        when(panierItemRepository.count()).thenReturn(6L);
+        when(panierItemRepository.sumAmounts()).thenReturn(new BigDecimal("250.00"));
+        when(panierItemRepository.findSellerIdsWithSalesSince(any())).thenReturn(List.of(10L, 11L));
+        statisticsService.reconcile();
+    }
+
+    @Test
+    void startsFromTheDatabaseCounts() {
+        PlatformStatistics statistics = statisticsService.getStatistics();
+
+        assertEquals(8, statistics.getTotalUsers());
+        assertEquals(7, statistics.getTotalClients());
+        assertEquals(3, statistics.getTotalSellers());
+        assertEquals(4, statistics.getTotalOrders());
+        assertEquals(6, statistics.getTotalOrderLines());
+        assertEquals(new BigDecimal("250.00"), statistics.getGrossMerchandiseValue());
+        assertEquals(2, statistics.getActiveSellers());
+        assertNotNull(statistics.getReconciledAt());
+    }
+
+    @Test
+    void registrationsAndDeletionsMoveTheCounters() {
+        statisticsService.onUserCountChanged(new UserCountChangedEvent(20, Seller.class, 1));
+        statisticsService.onUserCountChanged(new UserCountChangedEvent(21, Client.class, 1));
+        statisticsService.onUserCountChanged(new UserCountChangedEvent(1, Admin.class, -1));
+
+        PlatformStatistics statistics = statisticsService.getStatistics();
+        assertEquals(9, statistics.getTotalUsers());
+        assertEquals(9, statistics.getTotalClients());
+        assertEquals(4, statistics.getTotalSellers());
+    }
+
+    @Test
+    void newOrderAddsItsLines() {
+        statisticsService.onOrderSaved(new OrderSavedEvent(5, true, List.of(),
+                List.of(line(12L, 2, "10.50"), line(10L, 1, "4.00"))));
+
+        PlatformStatistics statistics = statisticsService.getStatistics();
+        assertEquals(5, statistics.getTotalOrders());
+        assertEquals(8, statistics.getTotalOrderLines());
+        assertEquals(new BigDecimal("275.00"), statistics.getGrossMerchandiseValue());
+        assertEquals(3, statistics.getActiveSellers());
+    }
+
+    @Test
+    void replacedPanierAppliesTheDifference() {
+        statisticsService.onOrderSaved(new OrderSavedEvent(4, false,
+                List.of(line(10L, 3, "20.00"), line(11L, 1, "5.00")),
+                List.of(line(10L, 1, "20.00"))));
+
+        PlatformStatistics statistics = statisticsService.getStatistics();
+        assertEquals(4, statistics.getTotalOrders());
+        assertEquals(5, statistics.getTotalOrderLines());
+        assertEquals(new BigDecimal("205.00"), statistics.getGrossMerchandiseValue());
+    }
+
+    @Test
+    void reconciliationCorrectsDrift() {
+        statisticsService.onUserCountChanged(new UserCountChangedEvent(20, Client.class, 1));
+        statisticsService.onOrderSaved(new OrderSavedEvent(5, true, List.of(), List.of(line(12L, 1, "9.99"))));
+
+        statisticsService.reconcile();
+
+        PlatformStatistics statistics = statisticsService.getStatistics();
+        assertEquals(8, statistics.getTotalUsers());
+        assertEquals(4, statistics.getTotalOrders());
+        assertEquals(new BigDecimal("250.00"), statistics.getGrossMerchandiseValue());
+        assertEquals(2, statistics.getActiveSellers());
+    }
+
+    private static OrderSavedEvent.Line line(long sellerId, int quantity, String price) {
+        return new OrderSavedEvent.Line(sellerId, 100L + sellerId, quantity, new BigDecimal(price), LocalDate.now());
+    }
+}
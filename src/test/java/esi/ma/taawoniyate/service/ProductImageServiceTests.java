@@ -0,0 +1,135 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.ProductImageStatus;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.model.ProductImage;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Runs the upload pipeline offline: the image store is a local stub and the database is mocked
+class ProductImageServiceTests {
+
+    private final List<Path> uploadedFiles = new CopyOnWriteArrayList<>();
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final Product product = new Product();
+    private ProductImageService service;
+
+    @BeforeEach
+    void setUp() {
+        // The first image is the slowest, so uploads finish out of order
+        ImageStore store = new ImageStore() {
+            @Override
+            public String store(Path file, String originalFilename) throws IOException {
+                uploadedFiles.add(file);
+                if (originalFilename.startsWith("broken")) {
+                    throw new IOException("unsupported image");
+                }
+                try {
+                    Thread.sleep(originalFilename.startsWith("a") ? 200 : 10);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return "https://images.invalid/" + originalFilename;
+            }
+
+            @Override
+            public String storeFromUrl(String url) {
+                return url;
+            }
+        };
+        when(entityManager.getReference(Product.class, 42L)).thenReturn(product);
+
+        service = new ProductImageService();
+        ReflectionTestUtils.setField(service, "imageStore", store);
+        ReflectionTestUtils.setField(service, "imageResizer", new ImageResizer(1));
+        ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "uploadThreads", 4);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void uploadsInParallelAndAttachesInSubmittedOrder() throws Exception {
+        MultipartFile[] images = {image("a.jpg"), image("b.jpg"), new MockMultipartFile("images", new byte[0]), image("c.jpg")};
+
+        assertEquals(3, service.submit(42L, 7L, images));
+        ProductImageStatus status = awaitDone(42L, 7L);
+
+        assertEquals(3, status.getStored());
+        assertEquals(0, status.getFailed());
+        ArgumentCaptor<ProductImage> persisted = ArgumentCaptor.forClass(ProductImage.class);
+        verify(entityManager, times(3)).persist(persisted.capture());
+        assertEquals(List.of("https://images.invalid/a.jpg", "https://images.invalid/b.jpg", "https://images.invalid/c.jpg"),
+                persisted.getAllValues().stream().map(ProductImage::getImageUrl).toList());
+        assertEquals(3, uploadedFiles.size());
+        uploadedFiles.forEach(file -> assertFalse(Files.exists(file), "spool file left behind: " + file));
+    }
+
+    @Test
+    void failedUploadIsReportedAndTheOthersAreKept() throws Exception {
+        service.submit(42L, 7L, new MultipartFile[]{image("b.jpg"), image("broken.heic")});
+        ProductImageStatus status = awaitDone(42L, 7L);
+
+        assertEquals(1, status.getStored());
+        assertEquals(1, status.getFailed());
+        assertTrue(status.getErrors().get(0).startsWith("broken.heic"));
+        verify(entityManager, times(1)).persist(any(ProductImage.class));
+        uploadedFiles.forEach(file -> assertFalse(Files.exists(file), "spool file left behind: " + file));
+    }
+
+    @Test
+    void statusIsOnlyVisibleToTheSeller() throws Exception {
+        assertEquals("NONE", service.getStatus(42L, 7L).getStatus());
+
+        service.submit(42L, 7L, new MultipartFile[]{image("b.jpg")});
+        awaitDone(42L, 7L);
+
+        assertNull(service.getStatus(42L, 8L));
+    }
+
+    private static MockMultipartFile image(String name) {
+        return new MockMultipartFile("images", name, "image/jpeg", ("bytes of " + name).getBytes());
+    }
+
+    private ProductImageStatus awaitDone(long productId, long sellerId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        ProductImageStatus status = service.getStatus(productId, sellerId);
+        while (!"DONE".equals(status.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = service.getStatus(productId, sellerId);
+        }
+        assertEquals("DONE", status.getStatus());
+        return status;
+    }
+}
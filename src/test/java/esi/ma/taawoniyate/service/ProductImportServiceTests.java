@@ -0,0 +1,33 @@
+package esi.ma.taawoniyate.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductImportServiceTests {
+
+    @Test
+    void rejectedImportIsNotKeptAsQueued() {
+        ProductImportService service = new ProductImportService();
+        ThreadPoolExecutor full = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        full.shutdown();
+        ReflectionTestUtils.setField(service, "importExecutor", full);
+        MockMultipartFile file = new MockMultipartFile("file", "products.csv", "text/csv",
+                "name,price\nAmlou,40\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(RejectedExecutionException.class, () -> service.submit(3L, file, null));
+
+        Cache<?, ?> jobs = (Cache<?, ?>) ReflectionTestUtils.getField(service, "jobs");
+        assertEquals(0, jobs.estimatedSize());
+    }
+}
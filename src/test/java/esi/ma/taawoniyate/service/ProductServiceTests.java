@@ -0,0 +1,79 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.ProductCard;
+import esi.ma.taawoniyate.dto.ProductFilter;
+import esi.ma.taawoniyate.event.OrderSavedEvent;
+import esi.ma.taawoniyate.event.ProductChangedEvent;
+import esi.ma.taawoniyate.repository.ProductRepository;
+import esi.ma.taawoniyate.search.ProductDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private CatalogIndexService catalogIndexService;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        catalogIndexService = new CatalogIndexService();
+        ReflectionTestUtils.setField(catalogIndexService, "productRepository", productRepository);
+        productService = new ProductService();
+        ReflectionTestUtils.setField(productService, "productRepository", productRepository);
+        ApplicationEventPublisher publisher = event -> catalogIndexService.onProductChanged((ProductChangedEvent) event);
+        ReflectionTestUtils.setField(productService, "eventPublisher", publisher);
+
+        when(productRepository.findDocumentById(10L)).thenReturn(document(10, 1));
+        when(productRepository.findDocumentById(30L)).thenReturn(document(30, 5));
+        catalogIndexService.onProductChanged(ProductChangedEvent.saved(10));
+        catalogIndexService.onProductChanged(ProductChangedEvent.saved(30));
+    }
+
+    @Test
+    void soldOutProductLeavesTheInStockFilter() {
+        assertEquals(List.of(30L, 10L), inStock());
+
+        // The checkout took the last unit
+        when(productRepository.findDocumentById(10L)).thenReturn(document(10, 0));
+        productService.onOrderSaved(new OrderSavedEvent(1, true, List.of(), List.of(line(10L, 1))));
+
+        assertEquals(List.of(30L), inStock());
+    }
+
+    @Test
+    void productsWhoseQuantityDidNotMoveAreLeftAlone() {
+        productService.onOrderSaved(new OrderSavedEvent(1, false,
+                List.of(line(10L, 2), line(30L, 1)), List.of(line(10L, 2), line(30L, 3))));
+
+        verify(productRepository, times(1)).findDocumentById(10L);
+        verify(productRepository, times(2)).findDocumentById(30L);
+    }
+
+    private List<Long> inStock() {
+        ProductFilter filter = new ProductFilter();
+        filter.setInStock(true);
+        return catalogIndexService.filter(filter).getItems().stream().map(ProductCard::getId).toList();
+    }
+
+    private static ProductDocument document(long id, int quantity) {
+        return new ProductDocument(id, "Product " + id, "", 10.0, quantity, "Huiles", "Coop Argan", "Agadir",
+                "Souss-Massa", null, null);
+    }
+
+    private static OrderSavedEvent.Line line(long productId, int quantity) {
+        return new OrderSavedEvent.Line(3L, productId, quantity, BigDecimal.TEN, LocalDate.now());
+    }
+}
@@ -0,0 +1,158 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.SalesBucket;
+import esi.ma.taawoniyate.dto.SalesGranularity;
+import esi.ma.taawoniyate.dto.SellerSalesReport;
+import esi.ma.taawoniyate.event.OrderSavedEvent;
+import esi.ma.taawoniyate.model.Panier;
+import esi.ma.taawoniyate.model.PanierItem;
+import esi.ma.taawoniyate.model.Product;
+import esi.ma.taawoniyate.model.Seller;
+import esi.ma.taawoniyate.repository.PanierRepository;
+import esi.ma.taawoniyate.repository.SellerDailySalesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SellerAnalyticsServiceTests {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+
+    private final SellerDailySalesRepository salesRepository = mock(SellerDailySalesRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private SellerAnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsService = new SellerAnalyticsService();
+        ReflectionTestUtils.setField(analyticsService, "salesRepository", salesRepository);
+        ReflectionTestUtils.setField(analyticsService, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void orderIsOneBatchOfUpsertsInKeyOrder() {
+        analyticsService.onOrderSaved(new OrderSavedEvent(1, true, List.of(), List.of(
+                line(9L, 300L, 1, "5.00", MONDAY),
+                line(3L, 200L, 2, "10.00", MONDAY),
+                line(3L, 100L, 1, "7.50", MONDAY))));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(SellerAnalyticsService.UPSERT), rows.capture());
+        assertEquals(3, rows.getValue().size());
+        assertArrayEquals(new Object[]{3L, 100L, MONDAY, 1L, new BigDecimal("7.50"), 1L}, rows.getValue().get(0));
+        assertArrayEquals(new Object[]{3L, 200L, MONDAY, 2L, new BigDecimal("20.00"), 1L}, rows.getValue().get(1));
+        assertArrayEquals(new Object[]{9L, 300L, MONDAY, 1L, new BigDecimal("5.00"), 1L}, rows.getValue().get(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replacedPanierUpsertsOnlyTheDifference() {
+        LocalDate earlier = MONDAY.minusDays(3);
+        analyticsService.onOrderSaved(new OrderSavedEvent(1, false,
+                List.of(line(3L, 100L, 2, "10.00", earlier), line(3L, 200L, 1, "4.00", MONDAY)),
+                List.of(line(3L, 200L, 1, "4.00", MONDAY))));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(SellerAnalyticsService.UPSERT), rows.capture());
+        assertEquals(1, rows.getValue().size());
+        assertArrayEquals(new Object[]{3L, 100L, earlier, -2L, new BigDecimal("-20.00"), -1L}, rows.getValue().get(0));
+    }
+
+    @Test
+    void linesWithoutProductAreNotRolledUp() {
+        analyticsService.onOrderSaved(new OrderSavedEvent(1, true, List.of(), List.of(
+                new OrderSavedEvent.Line(3L, null, 1, new BigDecimal("5.00"), MONDAY))));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void resavingAnExistingPanierLeavesTheRollupUnchanged() {
+        Seller seller = new Seller();
+        seller.setId(3);
+        Panier stored = panier(seller, 2);
+        stored.setDate(MONDAY.minusDays(10).atTime(9, 30));
+        PanierRepository panierRepository = mock(PanierRepository.class);
+        when(panierRepository.findById(5)).thenReturn(Optional.of(stored));
+        when(panierRepository.save(any(Panier.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        PanierService panierService = new PanierService();
+        ReflectionTestUtils.setField(panierService, "panierRepository", panierRepository);
+        ReflectionTestUtils.setField(panierService, "jdbcTemplate", mock(JdbcTemplate.class));
+        ApplicationEventPublisher publisher = event -> analyticsService.onOrderSaved((OrderSavedEvent) event);
+        ReflectionTestUtils.setField(panierService, "eventPublisher", publisher);
+
+        panierService.savePanier(panier(seller, 2));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void weeklyReportSumsDaysAndKeepsEmptyWeeks() {
+        LocalDate to = MONDAY.plusDays(20);
+        when(salesRepository.findDailySales(3L, MONDAY, to)).thenReturn(List.of(
+                new SalesBucket(MONDAY, 2L, new BigDecimal("20.00"), 1L),
+                new SalesBucket(MONDAY.plusDays(6), 1L, new BigDecimal("5.00"), 1L),
+                new SalesBucket(MONDAY.plusDays(15), 4L, new BigDecimal("12.00"), 2L)));
+
+        SellerSalesReport report = analyticsService.getSalesReport(3L, SalesGranularity.WEEK, MONDAY, to);
+
+        assertEquals(3, report.getBuckets().size());
+        assertEquals(MONDAY, report.getBuckets().get(0).getStart());
+        assertEquals(3, report.getBuckets().get(0).getUnits());
+        assertEquals(new BigDecimal("25.00"), report.getBuckets().get(0).getRevenue());
+        assertEquals(0, report.getBuckets().get(1).getUnits());
+        assertEquals(4, report.getBuckets().get(2).getUnits());
+        assertEquals(7, report.getTotalUnits());
+        assertEquals(new BigDecimal("37.00"), report.getTotalRevenue());
+    }
+
+    @Test
+    void rejectsReversedOrTooLongPeriods() {
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getSalesReport(3L, SalesGranularity.DAY, MONDAY, MONDAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getSalesReport(3L, SalesGranularity.MONTH, MONDAY.minusYears(5), MONDAY));
+    }
+
+    // Panier 5 with one line of the seller's product 100 at 10.00
+    private static Panier panier(Seller seller, int quantity) {
+        Product product = new Product();
+        product.setId(100L);
+        product.setSeller(seller);
+        PanierItem item = new PanierItem();
+        item.setProduct(product);
+        item.setSeller(seller);
+        item.setQuantity(quantity);
+        item.setPrice(new BigDecimal("10.00"));
+        Panier panier = new Panier();
+        panier.setPanier_id(5);
+        item.setPanier(panier);
+        panier.getRawItems().add(item);
+        return panier;
+    }
+
+    private static OrderSavedEvent.Line line(long sellerId, long productId, int quantity, String price, LocalDate day) {
+        return new OrderSavedEvent.Line(sellerId, productId, quantity, new BigDecimal(price), day);
+    }
+}
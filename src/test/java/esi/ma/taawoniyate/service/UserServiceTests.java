@@ -0,0 +1,75 @@
+package esi.ma.taawoniyate.service;
+
+import esi.ma.taawoniyate.dto.PrincipalProfile;
+import esi.ma.taawoniyate.dto.UserProfile;
+import esi.ma.taawoniyate.repository.UserRepository;
+import esi.ma.taawoniyate.security.JwtPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ProfileVersionStore profileVersionStore = mock(ProfileVersionStore.class);
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "profileVersionStore", profileVersionStore);
+        ReflectionTestUtils.setField(userService, "userProfileCache", new UserProfileCache(new ConcurrentMapCacheManager()));
+    }
+
+    @Test
+    void currentTokenSnapshotNeedsNoUserLookup() {
+        when(profileVersionStore.current(42L)).thenReturn(2);
+
+        PrincipalProfile profile = userService.getPrincipalProfile(principal(2));
+
+        assertEquals("Coop Argan", profile.getBusinessName());
+        assertEquals(2, profile.getProfileVersion());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void staleTokenSnapshotFallsBackToTheProfile() {
+        when(profileVersionStore.current(42L)).thenReturn(3);
+        UserProfile renamed = new UserProfile(42L, "Fatima Zahra", "seller@coop.ma", "seller",
+                "Agadir", "Souss-Massa", "1 rue", "0600000000", "Coop Argan Bio");
+        ReflectionTestUtils.setField(userService, "userProfileCache", cacheWith(renamed));
+
+        PrincipalProfile profile = userService.getPrincipalProfile(principal(2));
+
+        assertEquals("Coop Argan Bio", profile.getBusinessName());
+        assertEquals(3, profile.getProfileVersion());
+    }
+
+    @Test
+    void deletedUserHasNoProfile() {
+        when(profileVersionStore.current(42L)).thenReturn(null);
+
+        assertNull(userService.getPrincipalProfile(principal(2)));
+    }
+
+    private static JwtPrincipal principal(int profileVersion) {
+        return new JwtPrincipal("seller@coop.ma", "seller", 42L, "Fatima Zahra", "Coop Argan",
+                profileVersion, Long.MAX_VALUE);
+    }
+
+    private static UserProfileCache cacheWith(UserProfile profile) {
+        UserProfileCache cache = new UserProfileCache(new ConcurrentMapCacheManager());
+        cache.get(profile.getId(), () -> profile);
+        return cache;
+    }
+}